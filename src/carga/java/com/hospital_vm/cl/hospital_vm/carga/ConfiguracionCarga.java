@@ -0,0 +1,102 @@
+package com.hospital_vm.cl.hospital_vm.carga;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lombok.Data;
+
+/**
+ * Parámetros de la prueba de carga, leídos desde propiedades del sistema
+ * ({@code -Dcarga.tasa=200}, etc.).
+ */
+@Data
+public class ConfiguracionCarga {
+
+    /**
+     * Cantidad de pacientes con que se puebla la base antes de la prueba.
+     */
+    private int pacientes;
+
+    /**
+     * Cantidad de atenciones con que se puebla la base, repartidas al azar
+     * entre los pacientes.
+     */
+    private int atenciones;
+
+    /**
+     * Solicitudes por segundo que se envían, independiente de cuánto tarde
+     * el servidor en responder.
+     */
+    private int tasa;
+
+    /**
+     * Duración de la fase de calentamiento, cuyos resultados se descartan.
+     */
+    private Duration calentamiento;
+
+    /**
+     * Duración de la fase medida.
+     */
+    private Duration duracion;
+
+    /**
+     * Cantidad máxima de solicitudes en curso al mismo tiempo.
+     */
+    private int hilos;
+
+    /**
+     * Cantidad de solicitudes que se mantienen en curso durante toda la
+     * prueba (modelo cerrado): cada una se reemplaza por otra apenas termina.
+     * Si es 0 se usa {@link #tasa} (modelo abierto).
+     */
+    private int conexiones;
+
+    /**
+     * Si es verdadero, el servidor atiende las solicitudes con hilos
+     * virtuales (perfil {@code virtual}, requiere Java 21).
+     */
+    private boolean hilosVirtuales;
+
+    /**
+     * Mezcla de operaciones a ejecutar.
+     */
+    private Escenario escenario;
+
+    /**
+     * Si es verdadero, la base H2 se guarda en disco en lugar de en memoria.
+     */
+    private boolean baseEnArchivo;
+
+    /**
+     * Directorio donde se escriben los histogramas.
+     */
+    private Path salida;
+
+    public static ConfiguracionCarga desdePropiedades() {
+        ConfiguracionCarga configuracion = new ConfiguracionCarga();
+        configuracion.setPacientes(Integer.getInteger("carga.pacientes", 10_000));
+        configuracion.setAtenciones(Integer.getInteger("carga.atenciones", 50_000));
+        configuracion.setTasa(Integer.getInteger("carga.tasa", 200));
+        configuracion.setCalentamiento(Duration.ofSeconds(Integer.getInteger("carga.calentamiento", 15)));
+        configuracion.setDuracion(Duration.ofSeconds(Integer.getInteger("carga.duracion", 60)));
+        configuracion.setHilos(Integer.getInteger("carga.hilos", 64));
+        configuracion.setConexiones(Integer.getInteger("carga.conexiones", 0));
+        configuracion.setHilosVirtuales("virtual".equalsIgnoreCase(System.getProperty("carga.servidor", "plataforma")));
+        configuracion.setEscenario(Escenario.valueOf(System.getProperty("carga.escenario", "MIXTO").toUpperCase()));
+        configuracion.setBaseEnArchivo("archivo".equalsIgnoreCase(System.getProperty("carga.base", "memoria")));
+        configuracion.setSalida(Path.of(System.getProperty("carga.salida", "target/carga")));
+        return configuracion;
+    }
+
+    /**
+     * URL de la base H2 en modo MySQL, en memoria o en un archivo dentro del
+     * directorio de salida.
+     */
+    public String getUrlBaseDatos() {
+        String modo = ";MODE=MYSQL;DB_CLOSE_DELAY=-1";
+        if (baseEnArchivo) {
+            return "jdbc:h2:file:" + salida.resolve("hospital").toAbsolutePath() + modo;
+        }
+        return "jdbc:h2:mem:carga" + modo;
+    }
+}
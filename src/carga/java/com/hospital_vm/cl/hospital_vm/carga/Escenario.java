@@ -0,0 +1,24 @@
+package com.hospital_vm.cl.hospital_vm.carga;
+
+/**
+ * Mezclas de lecturas y escrituras disponibles para la prueba de carga.
+ */
+public enum Escenario {
+
+    LECTURA(0),
+    MIXTO(20),
+    ESCRITURA(80);
+
+    private final int porcentajeEscrituras;
+
+    Escenario(int porcentajeEscrituras) {
+        this.porcentajeEscrituras = porcentajeEscrituras;
+    }
+
+    /**
+     * Porcentaje de las solicitudes que corresponden a operaciones de escritura.
+     */
+    public int getPorcentajeEscrituras() {
+        return porcentajeEscrituras;
+    }
+}
@@ -0,0 +1,222 @@
+package com.hospital_vm.cl.hospital_vm.carga;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Envía solicitudes al servidor a una tasa fija (modelo abierto) o con una
+ * cantidad fija de solicitudes en curso (modelo cerrado), y registra la
+ * latencia de cada operación en un histograma HDR.
+ * <p>
+ * A tasa fija, la latencia se mide desde el instante en que la solicitud
+ * debía enviarse y no desde que efectivamente se envió, de modo que si el
+ * servidor se atrasa, el tiempo que las solicitudes pasan en cola también se
+ * contabiliza. En el modelo cerrado la tasa la fija el servidor, por lo que
+ * además de los percentiles se informa el rendimiento obtenido.
+ */
+public class GeneradorCarga {
+
+    private static final int DIGITOS_SIGNIFICATIVOS = 3;
+
+    private final HttpClient cliente;
+
+    private final List<Operacion> lecturas;
+
+    private final List<Operacion> escrituras;
+
+    private final int porcentajeEscrituras;
+
+    private final Map<String, Resultados> resultados = new LinkedHashMap<>();
+
+    private long duracionNanos;
+
+    public GeneradorCarga(HttpClient cliente, List<Operacion> operaciones, Escenario escenario) {
+        this.cliente = cliente;
+        this.lecturas = operaciones.stream().filter(o -> !o.isEscritura()).toList();
+        this.escrituras = operaciones.stream().filter(Operacion::isEscritura).toList();
+        this.porcentajeEscrituras = escrituras.isEmpty() ? 0
+                : lecturas.isEmpty() ? 100 : escenario.getPorcentajeEscrituras();
+        // El mapa se llena antes de empezar y después solo se lee
+        for (Operacion operacion : operaciones) {
+            resultados.put(operacion.getNombre(), new Resultados());
+        }
+    }
+
+    /**
+     * Envía solicitudes durante el tiempo indicado y espera a que terminen.
+     *
+     * @param tasa     Solicitudes por segundo.
+     * @param duracion Tiempo durante el que se envían solicitudes.
+     * @param hilos    Cantidad máxima de solicitudes en curso.
+     */
+    public void ejecutar(int tasa, Duration duracion, int hilos) throws InterruptedException {
+        ExecutorService trabajadores = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / tasa;
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        duracionNanos = duracion.toNanos();
+
+        for (long k = 0;; k++) {
+            long programado = inicio + k * intervalo;
+            if (programado >= fin) {
+                break;
+            }
+            long espera;
+            while ((espera = programado - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Operacion operacion = elegir();
+            trabajadores.execute(() -> enviar(operacion, programado));
+        }
+
+        trabajadores.shutdown();
+        trabajadores.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private Operacion elegir() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        List<Operacion> grupo = aleatorio.nextInt(100) < porcentajeEscrituras ? escrituras : lecturas;
+        int total = grupo.stream().mapToInt(Operacion::getPeso).sum();
+        int valor = aleatorio.nextInt(total);
+        for (Operacion operacion : grupo) {
+            valor -= operacion.getPeso();
+            if (valor < 0) {
+                return operacion;
+            }
+        }
+        return grupo.get(grupo.size() - 1);
+    }
+
+    /**
+     * Mantiene la cantidad indicada de solicitudes en curso durante el tiempo
+     * indicado, enviando una nueva apenas termina cada una, y espera a que
+     * terminen. Las solicitudes se envían de forma asíncrona, por lo que no
+     * se necesita un hilo por conexión.
+     *
+     * @param conexiones Cantidad de solicitudes simultáneas.
+     * @param duracion   Tiempo durante el que se envían solicitudes.
+     */
+    public void ejecutarConcurrente(int conexiones, Duration duracion) throws InterruptedException {
+        long fin = System.nanoTime() + duracion.toNanos();
+        duracionNanos = duracion.toNanos();
+        CountDownLatch terminadas = new CountDownLatch(conexiones);
+        for (int i = 0; i < conexiones; i++) {
+            enviarEnBucle(fin, terminadas);
+        }
+        terminadas.await(duracion.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private void enviarEnBucle(long fin, CountDownLatch terminadas) {
+        if (System.nanoTime() - fin >= 0) {
+            terminadas.countDown();
+            return;
+        }
+        Operacion operacion = elegir();
+        Resultados resultado = resultados.get(operacion.getNombre());
+        long inicio = System.nanoTime();
+        // Async para no anidar llamadas si la respuesta llega de inmediato
+        cliente.sendAsync(operacion.getSolicitud().get(), HttpResponse.BodyHandlers.discarding())
+                .whenCompleteAsync((respuesta, error) -> {
+                    registrar(resultado, respuesta != null ? respuesta.statusCode() : -1, inicio);
+                    enviarEnBucle(fin, terminadas);
+                });
+    }
+
+    private void enviar(Operacion operacion, long programado) {
+        Resultados resultado = resultados.get(operacion.getNombre());
+        int estado;
+        try {
+            estado = cliente.send(operacion.getSolicitud().get(), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+        } catch (IOException e) {
+            estado = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        registrar(resultado, estado, programado);
+    }
+
+    /**
+     * Registra el resultado de una solicitud; un estado negativo indica que
+     * no se obtuvo respuesta.
+     */
+    private static void registrar(Resultados resultado, int estado, long desde) {
+        if (estado < 0 || estado >= 500) {
+            resultado.errores.increment();
+        } else if (estado >= 400) {
+            resultado.rechazos.increment();
+        }
+        resultado.latencias.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - desde));
+    }
+
+    /**
+     * Imprime una tabla con la cantidad de solicitudes y los percentiles de
+     * latencia (en milisegundos) de cada operación, y el rendimiento total.
+     */
+    public void imprimirResumen(PrintStream salida) {
+        salida.printf("%-40s %9s %7s %7s %9s %9s %9s %9s%n",
+                "operacion", "total", "4xx", "error", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        resultados.forEach((nombre, resultado) -> {
+            Histogram latencias = resultado.latencias;
+            salida.printf("%-40s %9d %7d %7d %9.2f %9.2f %9.2f %9.2f%n",
+                    nombre,
+                    latencias.getTotalCount(),
+                    resultado.rechazos.sum(),
+                    resultado.errores.sum(),
+                    latencias.getValueAtPercentile(50) / 1000.0,
+                    latencias.getValueAtPercentile(99) / 1000.0,
+                    latencias.getValueAtPercentile(99.9) / 1000.0,
+                    latencias.getMaxValue() / 1000.0);
+        });
+        long total = resultados.values().stream().mapToLong(r -> r.latencias.getTotalCount()).sum();
+        if (duracionNanos > 0) {
+            salida.printf("Rendimiento: %.1f solicitudes/s%n", total * 1e9 / duracionNanos);
+        }
+    }
+
+    /**
+     * Escribe la distribución de percentiles de cada operación (en
+     * milisegundos) en un archivo {@code .hgrm}, que puede graficarse con el
+     * HdrHistogram Plotter.
+     */
+    public void escribirHistogramas(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        for (Map.Entry<String, Resultados> entrada : resultados.entrySet()) {
+            String archivo = entrada.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream salida = new PrintStream(Files.newOutputStream(directorio.resolve(archivo)))) {
+                entrada.getValue().latencias.outputPercentileDistribution(salida, 1000.0);
+            }
+        }
+    }
+
+    private static class Resultados {
+
+        // Latencias en microsegundos; el rango se ajusta automáticamente
+        private final Histogram latencias = new ConcurrentHistogram(DIGITOS_SIGNIFICATIVOS);
+
+        private final LongAdder rechazos = new LongAdder();
+
+        private final LongAdder errores = new LongAdder();
+    }
+}
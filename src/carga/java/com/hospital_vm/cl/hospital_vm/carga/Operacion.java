@@ -0,0 +1,35 @@
+package com.hospital_vm.cl.hospital_vm.carga;
+
+import java.net.http.HttpRequest;
+import java.util.function.Supplier;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Tipo de solicitud que la prueba de carga envía al servidor.
+ */
+@Getter
+@AllArgsConstructor
+public class Operacion {
+
+    /**
+     * Nombre con que se informa la operación, por ejemplo {@code GET /pacientes/{id}}.
+     */
+    private final String nombre;
+
+    /**
+     * Peso relativo de la operación dentro de las lecturas o las escrituras.
+     */
+    private final int peso;
+
+    /**
+     * Indica si la operación modifica datos.
+     */
+    private final boolean escritura;
+
+    /**
+     * Construye una nueva solicitud cada vez que se invoca (con IDs al azar, etc.).
+     */
+    private final Supplier<HttpRequest> solicitud;
+}
@@ -0,0 +1,258 @@
+package com.hospital_vm.cl.hospital_vm.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital_vm.cl.hospital_vm.HospitalVmApplication;
+
+/**
+ * Prueba de carga de la API REST.
+ * <p>
+ * Levanta la aplicación en un puerto aleatorio contra una base H2 en modo
+ * MySQL, la puebla a través de los endpoints de carga masiva y luego envía
+ * una mezcla de lecturas y escrituras a tasa fija, informando los percentiles
+ * p50, p99 y p99.9 de cada endpoint. Con {@code carga.conexiones} mantiene
+ * en cambio esa cantidad de solicitudes en curso, y con
+ * {@code carga.servidor=virtual} el servidor usa hilos virtuales, lo que
+ * permite comparar ambos modos con miles de conexiones. Se ejecuta con
+ * {@code ./mvnw -Pcarga verify}; los parámetros se describen en
+ * {@link ConfiguracionCarga#desdePropiedades()}.
+ */
+public class PruebaCarga {
+
+    private static final int LOTE_CARGA = 5_000;
+
+    private static final LocalDate INICIO_ATENCIONES = LocalDate.of(2024, 1, 1);
+
+    private static final int DIAS_ATENCIONES = 365;
+
+    private static final String[] NOMBRES = { "José", "María", "Juan", "Sofía", "Ángela", "Matías",
+            "Martín", "Camila", "Benjamín", "Valentina", "Agustín", "Isidora", "Tomás", "Florencia" };
+
+    private static final String[] APELLIDOS = { "González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto",
+            "Contreras", "Silva", "Martínez", "Sepúlveda", "Morales", "Rodríguez", "López", "Núñez" };
+
+    private final ConfiguracionCarga configuracion;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // HTTP/1.1: cada solicitud en curso usa su propia conexión
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong secuenciaRun = new AtomicLong();
+
+    private URI base;
+
+    private long[] pacienteIds;
+
+    public PruebaCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new PruebaCarga(ConfiguracionCarga.desdePropiedades()).ejecutar();
+    }
+
+    public void ejecutar() throws Exception {
+        if (configuracion.isHilosVirtuales() && Runtime.version().feature() < 21) {
+            System.out.println("Advertencia: los hilos virtuales requieren Java 21; el servidor usará hilos de plataforma");
+        }
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(HospitalVmApplication.class)
+                .profiles(configuracion.isHilosVirtuales() ? new String[] { "carga", "virtual" }
+                        : new String[] { "carga" })
+                .run("--spring.datasource.url=" + configuracion.getUrlBaseDatos());
+        try {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            base = URI.create("http://localhost:" + puerto);
+
+            long inicio = System.currentTimeMillis();
+            poblarPacientes();
+            poblarAtenciones();
+            System.out.printf("Base poblada con %d pacientes y %d atenciones en %d ms%n",
+                    configuracion.getPacientes(), configuracion.getAtenciones(),
+                    System.currentTimeMillis() - inicio);
+
+            List<Operacion> operaciones = operaciones();
+
+            System.out.printf("Calentamiento: %d s, %s%n",
+                    configuracion.getCalentamiento().toSeconds(), descripcionCarga());
+            ejecutarFase(new GeneradorCarga(cliente, operaciones, configuracion.getEscenario()),
+                    configuracion.getCalentamiento());
+
+            System.out.printf("Medición: %d s, %s, escenario %s, hilos %s%n",
+                    configuracion.getDuracion().toSeconds(), descripcionCarga(), configuracion.getEscenario(),
+                    configuracion.isHilosVirtuales() ? "virtuales" : "de plataforma");
+            GeneradorCarga generador = new GeneradorCarga(cliente, operaciones, configuracion.getEscenario());
+            ejecutarFase(generador, configuracion.getDuracion());
+
+            generador.imprimirResumen(System.out);
+            generador.escribirHistogramas(configuracion.getSalida());
+            System.out.println("Histogramas escritos en " + configuracion.getSalida().toAbsolutePath());
+        } finally {
+            contexto.close();
+        }
+    }
+
+    private void ejecutarFase(GeneradorCarga generador, Duration duracion) throws InterruptedException {
+        if (configuracion.getConexiones() > 0) {
+            generador.ejecutarConcurrente(configuracion.getConexiones(), duracion);
+        } else {
+            generador.ejecutar(configuracion.getTasa(), duracion, configuracion.getHilos());
+        }
+    }
+
+    private String descripcionCarga() {
+        return configuracion.getConexiones() > 0
+                ? configuracion.getConexiones() + " conexiones concurrentes"
+                : configuracion.getTasa() + " solicitudes/s";
+    }
+
+    private List<Operacion> operaciones() {
+        List<Operacion> operaciones = new ArrayList<>();
+        operaciones.add(new Operacion("GET /pacientes", 15, false,
+                () -> get("/pacientes?tamanio=50")));
+        operaciones.add(new Operacion("GET /pacientes/{id}", 25, false,
+                () -> get("/pacientes/" + pacienteAlAzar())));
+        operaciones.add(new Operacion("GET /v2/pacientes/{id}", 10, false,
+                () -> get("/v2/pacientes/" + pacienteAlAzar())));
+        operaciones.add(new Operacion("GET /pacientes/buscar", 10, false,
+                () -> get("/pacientes/buscar?q=" + URLEncoder.encode(textoBusqueda(), StandardCharsets.UTF_8))));
+        operaciones.add(new Operacion("GET /atenciones/pacientes/{id}", 15, false,
+                () -> get("/atenciones/pacientes/" + pacienteAlAzar())));
+        operaciones.add(new Operacion("GET /atenciones/pacientes/{id}/resumen", 5, false,
+                () -> get("/atenciones/pacientes/" + pacienteAlAzar() + "/resumen")));
+        operaciones.add(new Operacion("GET /atenciones?desde&hasta", 5, false, () -> {
+            LocalDate desde = fechaAlAzar();
+            return get("/atenciones?desde=" + desde + "&hasta=" + desde.plusDays(6));
+        }));
+        operaciones.add(new Operacion("GET /atenciones/reportes/top-pacientes", 2, false,
+                () -> get("/atenciones/reportes/top-pacientes?limite=10")));
+
+        operaciones.add(new Operacion("POST /pacientes", 4, true,
+                () -> post("/pacientes", paciente("C-" + secuenciaRun.incrementAndGet()))));
+        operaciones.add(new Operacion("PATCH /pacientes/{id}", 3, true,
+                () -> json("/pacientes/" + pacienteAlAzar(), "PATCH",
+                        Map.of("direccion", "Pasaje " + ThreadLocalRandom.current().nextInt(10_000)))));
+        operaciones.add(new Operacion("POST /atenciones/pacientes/{id}", 3, true,
+                () -> post("/atenciones/pacientes/" + pacienteAlAzar(), atencion())));
+        return operaciones;
+    }
+
+    private void poblarPacientes() throws Exception {
+        pacienteIds = new long[configuracion.getPacientes()];
+        int cargados = 0;
+        while (cargados < pacienteIds.length) {
+            List<Map<String, Object>> lote = new ArrayList<>();
+            for (int i = cargados; i < Math.min(cargados + LOTE_CARGA, pacienteIds.length); i++) {
+                lote.add(paciente("S-" + i));
+            }
+            for (JsonNode item : enviarLote("/pacientes/batch", lote).get("items")) {
+                pacienteIds[cargados++] = item.get("id").asLong();
+            }
+        }
+    }
+
+    private void poblarAtenciones() throws Exception {
+        for (int inicio = 0; inicio < configuracion.getAtenciones(); inicio += LOTE_CARGA) {
+            List<Map<String, Object>> lote = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + LOTE_CARGA, configuracion.getAtenciones()); i++) {
+                lote.add(Map.of("pacienteId", pacienteAlAzar(), "atencion", atencion()));
+            }
+            enviarLote("/atenciones/batch", lote);
+        }
+    }
+
+    private JsonNode enviarLote(String ruta, List<Map<String, Object>> lote) throws Exception {
+        HttpResponse<String> respuesta = cliente.send(post(ruta, lote), HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("Carga masiva rechazada en " + ruta + ": " + respuesta.statusCode());
+        }
+        return mapper.readTree(respuesta.body());
+    }
+
+    private long pacienteAlAzar() {
+        return pacienteIds[ThreadLocalRandom.current().nextInt(pacienteIds.length)];
+    }
+
+    private static LocalDate fechaAlAzar() {
+        return INICIO_ATENCIONES.plusDays(ThreadLocalRandom.current().nextInt(DIAS_ATENCIONES));
+    }
+
+    /**
+     * Prefijo de un apellido (y a veces de un nombre), tal como lo escribiría
+     * un usuario en un buscador.
+     */
+    private static String textoBusqueda() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        String apellido = APELLIDOS[aleatorio.nextInt(APELLIDOS.length)];
+        String texto = apellido.substring(0, 3 + aleatorio.nextInt(apellido.length() - 2));
+        if (aleatorio.nextBoolean()) {
+            String nombre = NOMBRES[aleatorio.nextInt(NOMBRES.length)];
+            texto = nombre.substring(0, 2) + " " + texto;
+        }
+        return texto;
+    }
+
+    private static Map<String, Object> paciente(String run) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Map<String, Object> paciente = new LinkedHashMap<>();
+        paciente.put("nombre", NOMBRES[aleatorio.nextInt(NOMBRES.length)]);
+        paciente.put("apellido", APELLIDOS[aleatorio.nextInt(APELLIDOS.length)]);
+        paciente.put("run", run);
+        paciente.put("direccion", "Calle " + aleatorio.nextInt(10_000));
+        paciente.put("fechaNacimiento", LocalDate.of(1940, 1, 1).plusDays(aleatorio.nextInt(30_000)).toString());
+        paciente.put("correo", run.toLowerCase() + "@correo.cl");
+        return paciente;
+    }
+
+    private static Map<String, Object> atencion() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Map<String, Object> atencion = new LinkedHashMap<>();
+        atencion.put("fechaAtencion", fechaAlAzar().toString());
+        atencion.put("horaAtencion", String.format("%02d:%02d", 8 + aleatorio.nextInt(12), aleatorio.nextInt(60)));
+        atencion.put("costo", 5_000 + aleatorio.nextInt(200_000));
+        atencion.put("comentario", "Control");
+        return atencion;
+    }
+
+    private HttpRequest get(String ruta) {
+        return HttpRequest.newBuilder(base.resolve(ruta)).GET().build();
+    }
+
+    private HttpRequest post(String ruta, Object cuerpo) {
+        return json(ruta, "POST", cuerpo);
+    }
+
+    private HttpRequest json(String ruta, String metodo, Object cuerpo) {
+        try {
+            return HttpRequest.newBuilder(base.resolve(ruta))
+                    .header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(cuerpo)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
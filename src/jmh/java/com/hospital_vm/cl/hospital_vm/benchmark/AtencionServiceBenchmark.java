@@ -0,0 +1,37 @@
+package com.hospital_vm.cl.hospital_vm.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+
+/**
+ * Benchmarks de las operaciones más frecuentes de
+ * {@link com.hospital_vm.cl.hospital_vm.service.AtencionService}.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AtencionServiceBenchmark {
+
+    @Benchmark
+    public Atencion createAtencionByPacienteID(ContextoBenchmark contexto) {
+        return contexto.atencionService.createAtencionByPacienteID(ContextoBenchmark.nuevaAtencion(),
+                contexto.pacienteIdAlAzar());
+    }
+
+    @Benchmark
+    public List<Atencion> getAtencionesByPacienteId(ContextoBenchmark contexto) {
+        return contexto.atencionService.getAtencionesByPacienteId(contexto.pacienteIdAlAzar());
+    }
+}
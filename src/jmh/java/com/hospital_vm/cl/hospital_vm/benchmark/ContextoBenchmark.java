@@ -0,0 +1,134 @@
+package com.hospital_vm.cl.hospital_vm.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.hospital_vm.cl.hospital_vm.HospitalVmApplication;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionLoteItem;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoItemLote;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.AtencionService;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+
+/**
+ * Estado compartido por los benchmarks: levanta el contexto de Spring contra
+ * una base H2 en memoria y la puebla con {@link #filas} pacientes y la misma
+ * cantidad de atenciones repartidas entre ellos.
+ */
+@State(Scope.Benchmark)
+public class ContextoBenchmark {
+
+    private static final int LOTE_CARGA = 10_000;
+
+    /**
+     * Cantidad de pacientes (y de atenciones) con que se puebla la base.
+     */
+    @Param({ "10000", "100000", "1000000" })
+    public int filas;
+
+    ConfigurableApplicationContext contexto;
+
+    PacienteService pacienteService;
+
+    AtencionService atencionService;
+
+    /**
+     * IDs de los pacientes cargados, para elegirlos al azar.
+     */
+    long[] pacienteIds;
+
+    /**
+     * Contador para generar RUN únicos en los benchmarks de inserción.
+     */
+    final AtomicLong secuenciaRun = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        // Los argumentos de línea de comandos tienen prioridad sobre application.properties
+        contexto = new SpringApplicationBuilder(HospitalVmApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--hospital.eventos.archivo=target/benchmark-eventos.ndjson",
+                        "--logging.level.root=WARN");
+
+        pacienteService = contexto.getBean(PacienteService.class);
+        atencionService = contexto.getBean(AtencionService.class);
+
+        poblarPacientes();
+        poblarAtenciones();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    /**
+     * Obtiene el ID de un paciente cargado, elegido al azar.
+     */
+    long pacienteIdAlAzar() {
+        return pacienteIds[ThreadLocalRandom.current().nextInt(pacienteIds.length)];
+    }
+
+    static Paciente nuevoPaciente(String run) {
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Nombre " + run);
+        paciente.setApellido("Apellido " + run);
+        paciente.setRun(run);
+        paciente.setDireccion("Calle " + run);
+        paciente.setFechaNacimiento("1990-01-01");
+        paciente.setCorreo(run + "@benchmark.cl");
+        return paciente;
+    }
+
+    static Atencion nuevaAtencion() {
+        Atencion atencion = new Atencion();
+        atencion.setFechaAtencion(LocalDate.now());
+        atencion.setHoraAtencion(LocalTime.of(10, 0));
+        atencion.setCosto(10000.0);
+        return atencion;
+    }
+
+    private void poblarPacientes() {
+        pacienteIds = new long[filas];
+        int cargados = 0;
+        while (cargados < filas) {
+            List<Paciente> lote = new ArrayList<>();
+            for (int i = cargados; i < Math.min(cargados + LOTE_CARGA, filas); i++) {
+                lote.add(nuevoPaciente("B-" + i));
+            }
+            for (ResultadoItemLote item : pacienteService.saveAll(lote).getItems()) {
+                pacienteIds[cargados++] = item.getId();
+            }
+        }
+    }
+
+    private void poblarAtenciones() {
+        for (int inicio = 0; inicio < filas; inicio += LOTE_CARGA) {
+            List<AtencionLoteItem> lote = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + LOTE_CARGA, filas); i++) {
+                lote.add(new AtencionLoteItem(pacienteIdAlAzar(), nuevaAtencion()));
+            }
+            atencionService.createAtenciones(lote);
+        }
+    }
+}
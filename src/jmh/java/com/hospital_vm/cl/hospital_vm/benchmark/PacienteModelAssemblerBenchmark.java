@@ -0,0 +1,97 @@
+package com.hospital_vm.cl.hospital_vm.benchmark;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.hospital_vm.cl.hospital_vm.assemblers.PacienteModelAssembler;
+import com.hospital_vm.cl.hospital_vm.controller.PacienteControllerV2;
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+
+/**
+ * Compara el armado de una página de pacientes de la API v2 con
+ * {@link PacienteModelAssembler} (plantillas precompiladas) y con
+ * {@code linkTo(methodOn(...))} por paciente, como se hacía antes. No
+ * necesita el contexto de Spring: la solicitud en curso es simulada.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PacienteModelAssemblerBenchmark {
+
+    @Param({ "50", "500" })
+    public int tamanio;
+
+    private final PacienteModelAssembler assembler = new PacienteModelAssembler();
+
+    private Pagina<Paciente> pagina;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v2/pacientes");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        List<Paciente> pacientes = new ArrayList<>(tamanio);
+        for (long id = 1; id <= tamanio; id++) {
+            Paciente paciente = ContextoBenchmark.nuevoPaciente("B-" + id);
+            paciente.setId(id);
+            pacientes.add(paciente);
+        }
+        pagina = new Pagina<>(pacientes, "bjoxMDA", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<Paciente>> plantillas() {
+        return assembler.toPaginaModel(pagina, null, tamanio);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<Paciente>> methodOnPorPaciente() {
+        List<EntityModel<Paciente>> pacientes = new ArrayList<>(pagina.getElementos().size());
+        for (Paciente paciente : pagina.getElementos()) {
+            Link selfLink = linkTo(methodOn(PacienteControllerV2.class).obtenerPacientePorId(paciente.getId(), null))
+                    .withSelfRel();
+            Link allPacientesLink = linkTo(methodOn(PacienteControllerV2.class).listarPacientes(null,
+                    PacienteService.TAMANIO_PAGINA_POR_DEFECTO)).withRel("pacientes");
+            Link crearLink = linkTo(methodOn(PacienteControllerV2.class).actualizarPaciente(paciente.getId(),
+                    paciente, null)).withRel("crear").withType("POST");
+            pacientes.add(EntityModel.of(paciente, selfLink, allPacientesLink, crearLink));
+        }
+        return CollectionModel.of(pacientes,
+                linkTo(methodOn(PacienteControllerV2.class).listarPacientes(null, tamanio)).withSelfRel());
+    }
+}
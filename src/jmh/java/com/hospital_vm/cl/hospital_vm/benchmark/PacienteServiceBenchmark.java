@@ -0,0 +1,58 @@
+package com.hospital_vm.cl.hospital_vm.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+/**
+ * Benchmarks de las operaciones más frecuentes de
+ * {@link com.hospital_vm.cl.hospital_vm.service.PacienteService}.
+ * Se mide el rendimiento (operaciones por milisegundo) y la distribución de
+ * latencias de cada operación.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PacienteServiceBenchmark {
+
+    /**
+     * Inserta un paciente con un RUN nuevo (consulta de RUN más inserción).
+     */
+    @Benchmark
+    public Paciente savePacienteNuevo(ContextoBenchmark contexto) {
+        String run = "N-" + contexto.secuenciaRun.incrementAndGet();
+        return contexto.pacienteService.savePaciente(ContextoBenchmark.nuevoPaciente(run));
+    }
+
+    /**
+     * Intenta insertar un paciente cuyo RUN ya existe (solo la deduplicación).
+     */
+    @Benchmark
+    public Paciente savePacienteRunExistente(ContextoBenchmark contexto) {
+        String run = "B-" + ThreadLocalRandom.current().nextInt(contexto.filas);
+        return contexto.pacienteService.savePaciente(ContextoBenchmark.nuevoPaciente(run));
+    }
+
+    @Benchmark
+    public Paciente getPacienteById(ContextoBenchmark contexto) {
+        return contexto.pacienteService.getPacienteById(contexto.pacienteIdAlAzar());
+    }
+
+    @Benchmark
+    public Paciente patchPaciente(ContextoBenchmark contexto) {
+        Paciente cambios = new Paciente();
+        cambios.setDireccion("Nueva calle " + contexto.secuenciaRun.incrementAndGet());
+        return contexto.pacienteService.patchPaciente(contexto.pacienteIdAlAzar(), cambios);
+    }
+}
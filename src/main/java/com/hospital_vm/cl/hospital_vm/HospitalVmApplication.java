@@ -2,8 +2,10 @@ package com.hospital_vm.cl.hospital_vm;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class HospitalVmApplication {
 
 	public static void main(String[] args) {
@@ -2,28 +2,113 @@ package com.hospital_vm.cl.hospital_vm.assemblers;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
 
 import com.hospital_vm.cl.hospital_vm.controller.PacienteControllerV2;
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
 import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
 
+/**
+ * Construye las representaciones HATEOAS de los pacientes para
+ * {@link PacienteControllerV2}.
+ *
+ * <p>Los enlaces se arman con plantillas {@link PlantillaEnlace} resueltas al
+ * cargar la clase. Por solicitud solo se calcula una vez la URI base del
+ * controlador, de modo que el costo por paciente es el de concatenar su ID.</p>
+ */
 @Component
 public class PacienteModelAssembler implements RepresentationModelAssembler<Paciente, EntityModel<Paciente>> {
 
+    private static final PlantillaEnlace PACIENTE = PlantillaEnlace.de(PacienteControllerV2.class,
+            "obtenerPacientePorId", Long.class, String.class);
+
+    private static final PlantillaEnlace ACTUALIZAR = PlantillaEnlace.de(PacienteControllerV2.class,
+            "actualizarPaciente", Long.class, Paciente.class, String.class);
+
+    private static final PlantillaEnlace LISTAR = PlantillaEnlace.de(PacienteControllerV2.class,
+            "listarPacientes", String.class, int.class);
+
     @Override
     public EntityModel<Paciente> toModel(Paciente paciente) {
-        Link selfLink = linkTo(methodOn(PacienteControllerV2.class).obtenerPacientePorId(paciente.getId()))
-                .withSelfRel();
-        Link allPacientesLink = linkTo(methodOn(PacienteControllerV2.class).listarPacientes()).withRel("pacientes");
+        String base = baseActual();
+        return toModel(paciente, base, enlaceListado(base, null, PacienteService.TAMANIO_PAGINA_POR_DEFECTO)
+                .withRel("pacientes"));
+    }
+
+    /**
+     * Construye la colección de una página de pacientes, con enlaces a la
+     * página actual, la siguiente y la anterior.
+     *
+     * @param pagina  Página de pacientes obtenida por cursor.
+     * @param cursor  Cursor con el que se solicitó la página actual.
+     * @param tamanio Tamaño de página solicitado.
+     * @return Colección de pacientes con enlaces de navegación.
+     */
+    public CollectionModel<EntityModel<Paciente>> toPaginaModel(Pagina<Paciente> pagina, String cursor, int tamanio) {
+        String base = baseActual();
+        // El enlace al listado es el mismo para todos los pacientes
+        Link listado = enlaceListado(base, null, PacienteService.TAMANIO_PAGINA_POR_DEFECTO).withRel("pacientes");
+
+        List<EntityModel<Paciente>> pacientes = new ArrayList<>(pagina.getElementos().size());
+        for (Paciente paciente : pagina.getElementos()) {
+            pacientes.add(toModel(paciente, base, listado));
+        }
+
+        CollectionModel<EntityModel<Paciente>> model = CollectionModel.of(pacientes,
+                enlaceListado(base, cursor, tamanio).withSelfRel());
+
+        if (pagina.getCursorSiguiente() != null) {
+            model.add(enlaceListado(base, pagina.getCursorSiguiente(), tamanio).withRel(IanaLinkRelations.NEXT));
+        }
+        if (pagina.getCursorAnterior() != null) {
+            model.add(enlaceListado(base, pagina.getCursorAnterior(), tamanio).withRel(IanaLinkRelations.PREV));
+        }
+        return model;
+    }
+
+    private static EntityModel<Paciente> toModel(Paciente paciente, String base, Link listado) {
+        Link selfLink = Link.of(PACIENTE.expandir(base, paciente.getId())).withSelfRel();
 
         // Link de creación marcado como POST
-        Link crearLink = linkTo(methodOn(PacienteControllerV2.class).actualizarPaciente(paciente.getId(), paciente))
+        Link crearLink = Link.of(ACTUALIZAR.expandir(base, paciente.getId()))
                 .withRel("crear")
                 .withType("POST");
 
-        return EntityModel.of(paciente, selfLink, allPacientesLink, crearLink);
+        return EntityModel.of(paciente, selfLink, listado, crearLink);
+    }
+
+    /**
+     * Enlace a una página del listado. Sin cursor, el parámetro queda como
+     * variable opcional de la plantilla ({@code {&cursor}}).
+     */
+    private static Link enlaceListado(String base, String cursor, int tamanio) {
+        StringBuilder uri = new StringBuilder(LISTAR.expandir(base)).append('?');
+        if (cursor != null) {
+            uri.append("cursor=").append(UriUtils.encodeQueryParam(cursor, StandardCharsets.UTF_8)).append('&');
+        }
+        uri.append("tamanio=").append(tamanio);
+        if (cursor == null) {
+            uri.append("{&cursor}");
+        }
+        return Link.of(uri.toString());
+    }
+
+    /**
+     * URI del controlador para la solicitud en curso (esquema, host, puerto y
+     * ruta), obtenida sin proxies.
+     */
+    private static String baseActual() {
+        return linkTo(PacienteControllerV2.class).toUri().toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.hospital_vm.cl.hospital_vm.assemblers;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * Plantilla de URI de un método de un controlador, resuelta una sola vez a
+ * partir de sus anotaciones de mapeo.
+ *
+ * <p>{@code linkTo(methodOn(...))} crea un proxy del controlador e
+ * inspecciona sus anotaciones cada vez que se construye un enlace, lo que en
+ * un listado se repite por cada elemento. Esta plantilla separa la ruta en
+ * tramos fijos y variables al crearse, y luego solo los concatena con los
+ * valores recibidos.</p>
+ *
+ * <p>La ruta es relativa al mapeo del controlador; la base (esquema, host y
+ * ruta del controlador) la obtiene quien la usa una vez por solicitud.</p>
+ */
+public final class PlantillaEnlace {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{([^}:]+)(?::[^}]*)?\\}");
+
+    private final String ruta;
+
+    /**
+     * Tramos fijos de la ruta; hay uno más que variables.
+     */
+    private final String[] tramos;
+
+    private final String[] variables;
+
+    private PlantillaEnlace(String ruta) {
+        this.ruta = ruta;
+        List<String> fijos = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        Matcher matcher = VARIABLE.matcher(ruta);
+        int inicio = 0;
+        while (matcher.find()) {
+            fijos.add(ruta.substring(inicio, matcher.start()));
+            nombres.add(matcher.group(1));
+            inicio = matcher.end();
+        }
+        fijos.add(ruta.substring(inicio));
+        this.tramos = fijos.toArray(String[]::new);
+        this.variables = nombres.toArray(String[]::new);
+    }
+
+    /**
+     * Resuelve la plantilla del método indicado de un controlador.
+     *
+     * @param controlador Clase del controlador.
+     * @param metodo      Nombre del método.
+     * @param parametros  Tipos de los parámetros del método.
+     * @return Plantilla con la ruta del método, relativa al controlador.
+     * @throws IllegalArgumentException si el método no existe.
+     */
+    public static PlantillaEnlace de(Class<?> controlador, String metodo, Class<?>... parametros) {
+        Method metodoControlador = ReflectionUtils.findMethod(controlador, metodo, parametros);
+        if (metodoControlador == null) {
+            throw new IllegalArgumentException("No existe el método " + metodo + " en " + controlador.getName());
+        }
+        RequestMapping mapeo = AnnotatedElementUtils.findMergedAnnotation(metodoControlador, RequestMapping.class);
+        String ruta = mapeo != null && mapeo.path().length > 0 ? mapeo.path()[0] : "";
+        return new PlantillaEnlace(ruta);
+    }
+
+    /**
+     * Construye la URI reemplazando las variables de la ruta, en orden.
+     *
+     * @param base    URI del controlador, por ejemplo
+     *                {@code http://localhost:8080/v2/pacientes}.
+     * @param valores Valores de las variables de la ruta.
+     * @return URI completa.
+     * @throws IllegalArgumentException si la cantidad de valores no coincide
+     *                                  con la de variables.
+     */
+    public String expandir(String base, Object... valores) {
+        if (valores.length != variables.length) {
+            throw new IllegalArgumentException("La ruta " + ruta + " tiene " + variables.length + " variables");
+        }
+        StringBuilder uri = new StringBuilder(base.length() + ruta.length() + 16).append(base);
+        for (int i = 0; i < variables.length; i++) {
+            uri.append(tramos[i]).append(UriUtils.encodePathSegment(String.valueOf(valores[i]), StandardCharsets.UTF_8));
+        }
+        return uri.append(tramos[variables.length]).toString();
+    }
+
+    /**
+     * Obtiene la ruta de la plantilla, relativa al controlador.
+     *
+     * @return Ruta, por ejemplo {@code /{id}}.
+     */
+    public String getRuta() {
+        return ruta;
+    }
+}
@@ -0,0 +1,312 @@
+package com.hospital_vm.cl.hospital_vm.cache;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.dto.EstadisticasCache;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+/**
+ * Caché en memoria de pacientes con lectura a través (read-through).
+ * Las entradas se indexan por ID y tienen índices secundarios por RUN y por
+ * correo que apuntan a la misma entrada. La caché tiene un tamaño máximo
+ * (se expulsan las entradas usadas hace más tiempo) y un tiempo de vida por
+ * entrada.
+ *
+ * <p>Los pacientes se almacenan y se devuelven como copias, por lo que los
+ * cambios que haga quien llama no afectan a la caché.</p>
+ *
+ * <p>La caché no tiene un bloqueo global: las lecturas, cargas e
+ * invalidaciones de pacientes distintos no se esperan entre sí. Solo la
+ * expulsión por tamaño usa un bloqueo, que el resto de los hilos no espera.</p>
+ */
+@Component
+public class PacienteCache {
+
+    /**
+     * Tiempo durante el que se recuerda la invalidación de un paciente. Una
+     * carga que demora más no se almacena, porque ya no se puede saber si el
+     * paciente se invalidó mientras se cargaba.
+     */
+    private static final long ESPERA_MAXIMA_CARGA_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final int tamanioMaximo;
+
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Long> idsPorRun = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Long> idsPorCorreo = new ConcurrentHashMap<>();
+
+    /**
+     * Instante de la última invalidación de cada paciente. Una carga que
+     * comenzó antes de la invalidación de ese paciente no se almacena, para no
+     * reinsertar datos obsoletos; las cargas de otros pacientes no se
+     * descartan.
+     */
+    private final ConcurrentHashMap<Long, Long> invalidaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Instante de la última invalidación de toda la caché.
+     */
+    private volatile long invalidacionTotal = System.nanoTime() - ESPERA_MAXIMA_CARGA_NANOS;
+
+    /**
+     * Orden de los accesos a las entradas, para expulsar las menos usadas.
+     */
+    private final AtomicLong reloj = new AtomicLong();
+
+    private final ReentrantLock expulsion = new ReentrantLock();
+
+    private final LongAdder aciertos = new LongAdder();
+
+    private final LongAdder fallos = new LongAdder();
+
+    private final LongAdder expulsiones = new LongAdder();
+
+    public PacienteCache(
+            @Value("${hospital.cache.pacientes.tamanio-maximo:10000}") int tamanioMaximo,
+            @Value("${hospital.cache.pacientes.ttl:5m}") Duration ttl) {
+        this.tamanioMaximo = tamanioMaximo;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Obtiene un paciente por su ID, cargándolo si no está en la caché.
+     *
+     * @param id       ID del paciente.
+     * @param cargador Función que obtiene el paciente desde la base de datos.
+     * @return Copia del paciente o {@code null} si no existe.
+     */
+    public Paciente obtenerPorId(Long id, Function<Long, Paciente> cargador) {
+        return obtener(id, clave -> clave, (clave, paciente) -> true, cargador);
+    }
+
+    /**
+     * Obtiene un paciente por su RUN, cargándolo si no está en la caché.
+     *
+     * @param run      RUN del paciente.
+     * @param cargador Función que obtiene el paciente desde la base de datos.
+     * @return Copia del paciente o {@code null} si no existe.
+     */
+    public Paciente obtenerPorRun(String run, Function<String, Paciente> cargador) {
+        return obtener(run, idsPorRun::get, (clave, paciente) -> clave.equals(paciente.getRun()), cargador);
+    }
+
+    /**
+     * Obtiene un paciente por su correo, cargándolo si no está en la caché.
+     *
+     * @param correo   Correo del paciente.
+     * @param cargador Función que obtiene el paciente desde la base de datos.
+     * @return Copia del paciente o {@code null} si no existe.
+     */
+    public Paciente obtenerPorCorreo(String correo, Function<String, Paciente> cargador) {
+        return obtener(correo, idsPorCorreo::get, (clave, paciente) -> clave.equals(paciente.getCorreo()),
+                cargador);
+    }
+
+    /**
+     * Obtiene la versión de un paciente si está en la caché y no expiró, sin
+     * cargarlo ni contarlo como acierto o fallo.
+     *
+     * @param id ID del paciente.
+     * @return Versión del paciente o {@code null} si no está en la caché.
+     */
+    public Long obtenerVersion(Long id) {
+        Entrada entrada = id == null ? null : entradas.get(id);
+        if (entrada == null || entrada.expiraEn - System.nanoTime() <= 0) {
+            return null;
+        }
+        return entrada.paciente.getVersion();
+    }
+
+    /**
+     * Elimina de la caché al paciente con el ID indicado, junto con sus
+     * entradas en los índices secundarios.
+     *
+     * @param id ID del paciente.
+     */
+    public void invalidar(Long id) {
+        long ahora = System.nanoTime();
+        // Se registra antes de quitar la entrada: una carga que la guarde
+        // después ve la invalidación y la descarta
+        invalidaciones.put(id, ahora);
+        quitar(id);
+        if (invalidaciones.size() > tamanioMaximo) {
+            invalidaciones.values().removeIf(instante -> ahora - instante > ESPERA_MAXIMA_CARGA_NANOS);
+        }
+    }
+
+    /**
+     * Elimina todas las entradas de la caché.
+     */
+    public void invalidarTodo() {
+        invalidacionTotal = System.nanoTime();
+        entradas.clear();
+        idsPorRun.clear();
+        idsPorCorreo.clear();
+    }
+
+    /**
+     * Obtiene las estadísticas de uso de la caché.
+     *
+     * @return Objeto {@link EstadisticasCache} con los contadores actuales.
+     */
+    public EstadisticasCache getEstadisticas() {
+        return new EstadisticasCache(aciertos.sum(), fallos.sum(), expulsiones.sum(), entradas.size());
+    }
+
+    private <K> Paciente obtener(K clave, Function<K, Long> indice, Coincidencia<K> coincide,
+            Function<K, Paciente> cargador) {
+        if (clave == null) {
+            return null;
+        }
+
+        long inicioCarga = System.nanoTime();
+        Long id = indice.apply(clave);
+        Entrada entrada = id == null ? null : entradas.get(id);
+        // Sin bloqueo el índice puede apuntar a un paciente cuyo RUN o correo
+        // ya cambió; en ese caso se trata como un fallo
+        if (entrada != null && coincide.aplica(clave, entrada.paciente)) {
+            if (entrada.expiraEn - inicioCarga > 0) {
+                entrada.ultimoAcceso = reloj.incrementAndGet();
+                aciertos.increment();
+                return copiar(entrada.paciente);
+            }
+            if (entradas.remove(id, entrada)) {
+                quitarDeIndices(entrada);
+                expulsiones.increment();
+            }
+        }
+
+        fallos.increment();
+        Paciente paciente = cargador.apply(clave);
+        if (paciente == null || paciente.getId() == null) {
+            return paciente;
+        }
+
+        guardar(paciente, inicioCarga);
+        return copiar(paciente);
+    }
+
+    private void guardar(Paciente paciente, long inicioCarga) {
+        Long id = paciente.getId();
+        if (System.nanoTime() - inicioCarga > ESPERA_MAXIMA_CARGA_NANOS || invalidadoDesde(id, inicioCarga)) {
+            return;
+        }
+
+        Entrada entrada = new Entrada(copiar(paciente), System.nanoTime() + ttlNanos, reloj.incrementAndGet());
+        Entrada anterior = entradas.put(id, entrada);
+        if (anterior != null) {
+            quitarDeIndices(anterior);
+        }
+        if (paciente.getRun() != null) {
+            idsPorRun.put(paciente.getRun(), id);
+        }
+        if (paciente.getCorreo() != null) {
+            idsPorCorreo.put(paciente.getCorreo(), id);
+        }
+
+        // Si la invalidación llegó mientras se guardaba, la entrada se quita
+        // aquí o la quita la propia invalidación
+        if (invalidadoDesde(id, inicioCarga)) {
+            if (entradas.remove(id, entrada)) {
+                quitarDeIndices(entrada);
+            }
+            return;
+        }
+
+        expulsarSiExcede();
+    }
+
+    private boolean invalidadoDesde(Long id, long inicioCarga) {
+        Long invalidacion = invalidaciones.get(id);
+        return invalidacionTotal - inicioCarga >= 0 || (invalidacion != null && invalidacion - inicioCarga >= 0);
+    }
+
+    /**
+     * Expulsa las entradas usadas hace más tiempo cuando la caché supera su
+     * tamaño máximo. Se expulsa además una décima parte del tamaño, para no
+     * recorrer las entradas en cada inserción; si otro hilo ya está
+     * expulsando, este no lo espera.
+     */
+    private void expulsarSiExcede() {
+        if (entradas.size() <= tamanioMaximo || !expulsion.tryLock()) {
+            return;
+        }
+        try {
+            int exceso = entradas.size() - tamanioMaximo;
+            if (exceso <= 0) {
+                return;
+            }
+            List<Entrada> menosUsadas = entradas.values().stream()
+                    .sorted(Comparator.comparingLong(entrada -> entrada.ultimoAcceso))
+                    .limit(exceso + tamanioMaximo / 10)
+                    .toList();
+            for (Entrada entrada : menosUsadas) {
+                if (entradas.remove(entrada.paciente.getId(), entrada)) {
+                    quitarDeIndices(entrada);
+                    expulsiones.increment();
+                }
+            }
+        } finally {
+            expulsion.unlock();
+        }
+    }
+
+    private void quitar(Long id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada != null) {
+            quitarDeIndices(entrada);
+        }
+    }
+
+    private void quitarDeIndices(Entrada entrada) {
+        Long id = entrada.paciente.getId();
+        if (entrada.paciente.getRun() != null) {
+            idsPorRun.remove(entrada.paciente.getRun(), id);
+        }
+        if (entrada.paciente.getCorreo() != null) {
+            idsPorCorreo.remove(entrada.paciente.getCorreo(), id);
+        }
+    }
+
+    private static Paciente copiar(Paciente paciente) {
+        return new Paciente(paciente.getId(), paciente.getNombre(), paciente.getApellido(), paciente.getRun(),
+                paciente.getDireccion(), paciente.getFechaNacimiento(), paciente.getCorreo(),
+                paciente.getNombreNormalizado(), paciente.getApellidoNormalizado(), paciente.getVersion(),
+                paciente.getUltimaModificacion(), paciente.getSecuenciaCambio());
+    }
+
+    @FunctionalInterface
+    private interface Coincidencia<K> {
+
+        boolean aplica(K clave, Paciente paciente);
+    }
+
+    private static final class Entrada {
+
+        private final Paciente paciente;
+
+        private final long expiraEn;
+
+        private volatile long ultimoAcceso;
+
+        private Entrada(Paciente paciente, long expiraEn, long ultimoAcceso) {
+            this.paciente = paciente;
+            this.expiraEn = expiraEn;
+            this.ultimoAcceso = ultimoAcceso;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.repository.AtencionRepository;
+
+/**
+ * Configura la caché de segundo nivel de Hibernate sobre JCache, con Caffeine
+ * como proveedor embebido.
+ * <p>
+ * Cada región se crea con el tamaño máximo y el tiempo de expiración
+ * definidos en {@code hospital.cache.regiones.<region>.tamanio-maximo} y
+ * {@code hospital.cache.regiones.<region>.ttl}.
+ * <p>
+ * Cada contexto de Spring tiene su propio {@link CacheManager}: el
+ * administrador por defecto del proveedor es único en la JVM, y un segundo
+ * contexto (por ejemplo, en las pruebas) no podría volver a crear las
+ * regiones.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    private static final String PROVEEDOR = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    private static final String PREFIJO_PROPIEDADES = "hospital.cache.regiones.";
+
+    private static final long TAMANIO_MAXIMO_POR_DEFECTO = 10_000;
+
+    private static final Duration TTL_POR_DEFECTO = Duration.ofMinutes(10);
+
+    private static final List<String> REGIONES = List.of(
+            Paciente.REGION_CACHE,
+            Paciente.REGION_CACHE_RUN,
+            Atencion.REGION_CACHE,
+            AtencionRepository.REGION_ATENCIONES_POR_PACIENTE,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerHibernate(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(PROVEEDOR).getCacheManager(
+                URI.create("hospital-vm:hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : REGIONES) {
+            CaffeineConfiguration<Object, Object> configuracion = configuracionBase();
+            configuracion.setMaximumSize(OptionalLong.of(environment.getProperty(
+                    PREFIJO_PROPIEDADES + region + ".tamanio-maximo", Long.class, TAMANIO_MAXIMO_POR_DEFECTO)));
+            configuracion.setExpireAfterWrite(OptionalLong.of(environment.getProperty(
+                    PREFIJO_PROPIEDADES + region + ".ttl", Duration.class, TTL_POR_DEFECTO).toNanos()));
+            cacheManager.createCache(region, configuracion);
+        }
+
+        // Hibernate compara los resultados de la caché de consultas con estas
+        // marcas de tiempo, por lo que no deben expulsarse ni expirar
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, configuracionBase());
+
+        return cacheManager;
+    }
+
+    /**
+     * Entrega a Hibernate el {@link CacheManager} con las regiones ya creadas.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelCustomizer(CacheManager cacheManagerHibernate) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuracionBase() {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        // Hibernate guarda entradas inmutables, no es necesario copiarlas
+        configuracion.setStoreByValue(false);
+        configuracion.setStatisticsEnabled(true);
+        return configuracion;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.hospital_vm.cl.hospital_vm.metricas.MuestreoConsultasLentas;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registro muestreado de consultas lentas, en reemplazo de
+ * {@code spring.jpa.show-sql}. {@code DataSourceMedido} registra las sentencias
+ * que tardan al menos {@code hospital.sql.lentas.umbral} y
+ * {@link MuestreoConsultasLentas} deja en el registro una de cada
+ * {@code hospital.sql.lentas.muestreo}.
+ *
+ * <p>Se activa al definir {@code hospital.sql.lentas.muestreo} (ver el perfil
+ * {@code prod}).</p>
+ */
+@Configuration
+@ConditionalOnClass(LoggerContext.class)
+@ConditionalOnProperty(name = "hospital.sql.lentas.muestreo")
+public class ConsultasLentasConfig {
+
+    private MuestreoConsultasLentas filtro;
+
+    @Bean
+    public MuestreoConsultasLentas muestreoConsultasLentas(@Value("${hospital.sql.lentas.muestreo}") int cadaN) {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        filtro = new MuestreoConsultasLentas(cadaN);
+        filtro.setContext(contexto);
+        filtro.start();
+        contexto.addTurboFilter(filtro);
+        return filtro;
+    }
+
+    /**
+     * Publica todas las consultas lentas detectadas, incluidas las que el
+     * muestreo no dejó en el registro.
+     */
+    @Bean
+    public MeterBinder consultasLentasMetricas(MuestreoConsultasLentas muestreo) {
+        return registry -> FunctionCounter
+                .builder("hospital.sql.lentas", muestreo, MuestreoConsultasLentas::getDetectadas)
+                .description("Consultas SQL que superaron hospital.sql.lentas.umbral")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void retirarFiltro() {
+        if (filtro != null) {
+            ((LoggerContext) LoggerFactory.getILoggerFactory()).getTurboFilterList().remove(filtro);
+            filtro.stop();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * {@link DataSource} de JPA y {@code JdbcTemplate}, definido de forma
+ * explícita. Spring Boot no crea el suyo cuando existe un
+ * {@code ConnectionFactory} de R2DBC (el de la API {@code /v3}): en ese caso
+ * {@link DataSourceAutoConfiguration} no se aplica.
+ *
+ * <p>El pool es el mismo que crearía Spring Boot, con la configuración de
+ * {@code spring.datasource} y {@code spring.datasource.hikari}. Si la
+ * aplicación define su propio {@link DataSource}, este no se crea.</p>
+ *
+ * <p>Es una autoconfiguración (registrada en
+ * {@code META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports})
+ * y no un {@code @Configuration} del escaneo de componentes: las
+ * autoconfiguraciones se procesan después de las clases de la aplicación, de
+ * modo que {@link ConditionalOnMissingBean} ya ve los {@link DataSource}
+ * definidos en ellas.</p>
+ */
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(DataSource.class)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties propiedades) {
+        HikariDataSource dataSource = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(propiedades.getName())) {
+            dataSource.setPoolName(propiedades.getName());
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,111 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Informa los hilos virtuales que quedan fijados (pinned) a su hilo portador
+ * mientras se bloquean, por ejemplo al esperar la base de datos dentro de un
+ * bloque {@code synchronized} del driver JDBC o del pool de conexiones.
+ *
+ * <p>Escucha el evento {@code jdk.VirtualThreadPinned} de Java Flight
+ * Recorder con un umbral de {@code hospital.hilos-virtuales.umbral-fijado}.
+ * La primera vez que aparece cada pila de llamadas se registra una
+ * advertencia con ella; las siguientes solo se cuentan en la métrica
+ * {@code hospital.hilos.virtuales.fijados}. Solo se activa cuando la
+ * aplicación usa hilos virtuales ({@code spring.threads.virtual.enabled} en
+ * Java 21 o superior).</p>
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DiagnosticoHilosVirtuales implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticoHilosVirtuales.class);
+
+    private static final String EVENTO_FIJADO = "jdk.VirtualThreadPinned";
+
+    private static final int MARCOS_INFORMADOS = 20;
+
+    private final Duration umbral;
+
+    private final LongAdder fijados = new LongAdder();
+
+    private final Set<String> pilasInformadas = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream grabacion;
+
+    public DiagnosticoHilosVirtuales(@Value("${hospital.hilos-virtuales.umbral-fijado:20ms}") Duration umbral) {
+        this.umbral = umbral;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        grabacion = new RecordingStream();
+        grabacion.enable(EVENTO_FIJADO).withThreshold(umbral).withStackTrace();
+        grabacion.onEvent(EVENTO_FIJADO, this::registrar);
+        grabacion.startAsync();
+        logger.info("[iniciar] Diagnóstico de hilos virtuales fijados activo (umbral {} ms)", umbral.toMillis());
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (grabacion != null) {
+            grabacion.close();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de veces que un hilo virtual quedó fijado más que
+     * el umbral.
+     *
+     * @return Cantidad de eventos registrados.
+     */
+    public long getFijados() {
+        return fijados.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hospital.hilos.virtuales.fijados", this, DiagnosticoHilosVirtuales::getFijados)
+                .description("Veces que un hilo virtual quedó fijado a su hilo portador más que el umbral")
+                .register(registry);
+    }
+
+    private void registrar(RecordedEvent evento) {
+        fijados.increment();
+        if (evento.getStackTrace() == null) {
+            return;
+        }
+
+        List<RecordedFrame> marcos = evento.getStackTrace().getFrames();
+        String pila = marcos.stream()
+                .limit(MARCOS_INFORMADOS)
+                .map(marco -> "\tat " + marco.getMethod().getType().getName() + "." + marco.getMethod().getName()
+                        + "(" + marco.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+        // Cada pila se informa una sola vez para no inundar el log
+        if (pilasInformadas.add(pila)) {
+            logger.warn("[registrar] Hilo virtual fijado durante {} ms:\n{}", evento.getDuration().toMillis(), pila);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limita la cantidad de solicitudes que se atienden al mismo tiempo según el
+ * tamaño del pool de conexiones de Hikari.
+ *
+ * <p>Con hilos de plataforma, el pool de hilos de Tomcat ya acota la
+ * concurrencia. Con hilos virtuales cada conexión HTTP tiene su propio hilo,
+ * y miles de solicitudes simultáneas esperarían una conexión a la base de
+ * datos hasta agotar {@code spring.datasource.hikari.connection-timeout}.
+ * Este filtro deja pasar a lo más {@code hospital.guardia-pool.factor} veces
+ * el tamaño del pool; las demás esperan su turno en orden de llegada hasta
+ * {@code hospital.guardia-pool.espera-maxima} y, si no lo obtienen, reciben
+ * 503 con {@code Retry-After}.</p>
+ *
+ * <p>No se aplica a Actuator ni a la suscripción SSE de atenciones, que
+ * mantienen la conexión abierta sin usar la base de datos, ni a la API
+ * {@code /v3}, que usa su propio pool de conexiones R2DBC.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "hospital.guardia-pool.habilitada", havingValue = "true")
+public class GuardiaPoolFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuardiaPoolFilter.class);
+
+    /**
+     * Tamaño que usa Hikari cuando no se configura
+     * {@code spring.datasource.hikari.maximum-pool-size}.
+     */
+    private static final int TAMANIO_POOL_POR_DEFECTO = 10;
+
+    private final int limite;
+
+    private final long esperaMaximaNanos;
+
+    private final Semaphore permisos;
+
+    private final LongAdder rechazadas = new LongAdder();
+
+    public GuardiaPoolFilter(DataSource dataSource,
+            @Value("${hospital.guardia-pool.factor:2}") int factor,
+            @Value("${hospital.guardia-pool.espera-maxima:2s}") Duration esperaMaxima) {
+        // Hikari informa -1 hasta iniciar el pool si no se configuró el tamaño
+        HikariDataSource hikari = hikari(dataSource);
+        int tamanioPool = hikari != null && hikari.getMaximumPoolSize() > 0
+                ? hikari.getMaximumPoolSize()
+                : TAMANIO_POOL_POR_DEFECTO;
+        this.limite = Math.max(1, tamanioPool * factor);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        // Justo: las solicitudes que esperan se atienden en orden de llegada
+        this.permisos = new Semaphore(limite, true);
+        logger.info("[GuardiaPoolFilter] Máximo {} solicitudes simultáneas (pool de {} conexiones)", limite,
+                tamanioPool);
+    }
+
+    /**
+     * Obtiene el pool de Hikari, aunque el {@link DataSource} esté envuelto
+     * (ver {@code DataSourceMedido}).
+     */
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return ruta.startsWith("/actuator") || ruta.equals("/atenciones/stream") || ruta.startsWith("/h2-console")
+                || ruta.startsWith("/v3/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obtenido = false;
+        }
+
+        if (!obtenido) {
+            rechazadas.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad máxima de solicitudes simultáneas.
+     *
+     * @return Límite de solicitudes.
+     */
+    public int getLimite() {
+        return limite;
+    }
+
+    /**
+     * Obtiene la cantidad de solicitudes en espera de un permiso.
+     *
+     * @return Solicitudes en espera (aproximado).
+     */
+    public int getEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    /**
+     * Obtiene la cantidad de solicitudes rechazadas por esperar más que
+     * {@code hospital.guardia-pool.espera-maxima}.
+     *
+     * @return Cantidad de solicitudes rechazadas.
+     */
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("hospital.guardia.pool.espera", this, GuardiaPoolFilter::getEnEspera)
+                .description("Solicitudes que esperan turno para usar el pool de conexiones")
+                .register(registry);
+        FunctionCounter.builder("hospital.guardia.pool.rechazadas", this, GuardiaPoolFilter::getRechazadas)
+                .description("Solicitudes rechazadas con 503 por esperar demasiado el pool de conexiones")
+                .register(registry);
+    }
+}
@@ -0,0 +1,221 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.metricas.MuestreoConsultasLentas;
+import com.hospital_vm.cl.hospital_vm.replicas.DataSourceReplicas;
+import com.hospital_vm.cl.hospital_vm.replicas.Replica;
+import com.hospital_vm.cl.hospital_vm.shards.ConexionesShards;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Registra al iniciar la aplicación la configuración efectiva de acceso a
+ * datos: pool de conexiones, propiedades del driver JDBC, lotes y registro de
+ * SQL de Hibernate. Los valores se leen de los objetos ya creados y no de las
+ * propiedades, de modo que reflejan los valores por defecto que aplicó cada
+ * biblioteca.
+ *
+ * <p>Además advierte de combinaciones que anulan una optimización, como lotes
+ * JDBC con MySQL sin {@code rewriteBatchedStatements}.</p>
+ */
+@Component
+public class InformeConfiguracion {
+
+    private static final Logger logger = LoggerFactory.getLogger(InformeConfiguracion.class);
+
+    private static final List<String> PROPIEDADES_HIBERNATE = List.of(
+            AvailableSettings.STATEMENT_BATCH_SIZE,
+            AvailableSettings.ORDER_INSERTS,
+            AvailableSettings.ORDER_UPDATES,
+            AvailableSettings.BATCH_VERSIONED_DATA,
+            AvailableSettings.IN_CLAUSE_PARAMETER_PADDING,
+            AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE,
+            AvailableSettings.USE_SECOND_LEVEL_CACHE,
+            AvailableSettings.GENERATE_STATISTICS);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectProvider<MuestreoConsultasLentas> muestreo;
+
+    @Autowired
+    private ObjectProvider<DataSourceReplicas> replicas;
+
+    @Autowired
+    private ObjectProvider<ConexionesShards> shards;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void informar() {
+        List<String> advertencias = new ArrayList<>();
+        logger.info("[informar] Configuración efectiva:\n{}", generar(advertencias));
+        advertencias.forEach(advertencia -> logger.warn("[informar] {}", advertencia));
+    }
+
+    /**
+     * Genera el informe de la configuración efectiva.
+     *
+     * @param advertencias Lista a la que se agregan las combinaciones de
+     *                     configuración que merecen revisión.
+     * @return Informe, una línea por grupo de valores.
+     */
+    String generar(List<String> advertencias) {
+        StringBuilder informe = new StringBuilder();
+        String[] perfiles = environment.getActiveProfiles();
+        linea(informe, "Perfiles", perfiles.length == 0 ? "default" : String.join(", ", perfiles));
+
+        String url = environment.getProperty("spring.datasource.url", "");
+        boolean mysql = url.startsWith("jdbc:mysql:");
+        linea(informe, "Base de datos", ocultarClaves(url));
+
+        Properties driver = new Properties();
+        HikariDataSource hikari = hikari();
+        if (hikari != null) {
+            linea(informe, "Pool " + hikari.getPoolName(), String.format(
+                    "máximo %d, mínimo inactivas %d, espera %d ms, inactividad %d ms, vida máxima %d ms, fugas %d ms",
+                    hikari.getMaximumPoolSize(), hikari.getMinimumIdle(), hikari.getConnectionTimeout(),
+                    hikari.getIdleTimeout(), hikari.getMaxLifetime(), hikari.getLeakDetectionThreshold()));
+            driver = hikari.getDataSourceProperties();
+            linea(informe, "Driver JDBC", driver.isEmpty() ? "(sin propiedades)" : ordenadas(driver));
+        } else {
+            linea(informe, "Pool", dataSource.getClass().getName());
+        }
+
+        DataSourceReplicas enrutador = replicas.getIfAvailable();
+        if (enrutador != null) {
+            StringBuilder urls = new StringBuilder();
+            for (Replica replica : enrutador.getReplicas()) {
+                urls.append(urls.isEmpty() ? "" : ", ").append(replica.getNombre());
+                if (replica.getDataSource() instanceof HikariDataSource pool) {
+                    urls.append(' ').append(ocultarClaves(pool.getJdbcUrl()));
+                }
+            }
+            linea(informe, "Réplicas de lectura", String.format("%s, retraso máximo %d s: %s",
+                    enrutador.getEstrategia(), enrutador.getRetrasoMaximo().toSeconds(), urls));
+        } else {
+            linea(informe, "Réplicas de lectura", "(sin réplicas)");
+        }
+
+        ConexionesShards conexionesShards = shards.getIfAvailable();
+        if (conexionesShards != null) {
+            StringBuilder urls = new StringBuilder();
+            List<DataSource> pools = conexionesShards.getShards();
+            for (int shard = 0; shard < pools.size(); shard++) {
+                urls.append(urls.isEmpty() ? "" : ", ").append(EnrutadorShards.tenant(shard));
+                try {
+                    HikariDataSource pool = pools.get(shard).unwrap(HikariDataSource.class);
+                    urls.append(' ').append(ocultarClaves(pool.getJdbcUrl()));
+                } catch (SQLException e) {
+                    // Sin pool de Hikari solo se informa el nombre del shard
+                }
+            }
+            linea(informe, "Shards", String.format("%d: %s", pools.size(), urls));
+        } else {
+            linea(informe, "Shards", "(sin shards)");
+        }
+
+        Map<String, Object> hibernate = entityManagerFactory.getProperties();
+        StringBuilder valores = new StringBuilder();
+        for (String propiedad : PROPIEDADES_HIBERNATE) {
+            valores.append(valores.isEmpty() ? "" : ", ")
+                    .append(propiedad.substring("hibernate.".length())).append('=')
+                    .append(hibernate.getOrDefault(propiedad, "(por defecto)"));
+        }
+        linea(informe, "Hibernate", valores.toString());
+
+        boolean showSql = verdadero(hibernate.get(AvailableSettings.SHOW_SQL));
+        String umbralLento = environment.getProperty("hospital.sql.lentas.umbral", "200ms");
+        MuestreoConsultasLentas filtro = muestreo.getIfAvailable();
+        linea(informe, "Registro SQL", String.format("show_sql=%s, format_sql=%s, consultas lentas %s%s",
+                showSql, verdadero(hibernate.get(AvailableSettings.FORMAT_SQL)),
+                "desde " + umbralLento,
+                filtro == null ? "" : " (1 de cada " + filtro.getCadaN() + ")"));
+
+        linea(informe, "Ejecución", String.format("hilos virtuales=%s, guardia del pool=%s",
+                environment.getProperty("spring.threads.virtual.enabled", "false"),
+                environment.getProperty("hospital.guardia-pool.habilitada", "false")));
+        linea(informe, "R2DBC", String.format("%s, pool %s..%s",
+                ocultarClaves(environment.getProperty("spring.r2dbc.url", "")),
+                environment.getProperty("spring.r2dbc.pool.initial-size", "10"),
+                environment.getProperty("spring.r2dbc.pool.max-size", "10")));
+
+        int tamanioLote = entero(hibernate.get(AvailableSettings.STATEMENT_BATCH_SIZE));
+        if (mysql && tamanioLote > 1 && !verdadero(driver.get("rewriteBatchedStatements"))) {
+            advertencias.add("Lotes JDBC de " + tamanioLote
+                    + " sin rewriteBatchedStatements=true: MySQL ejecutará las sentencias de una en una");
+        }
+        if (mysql && !verdadero(driver.get("cachePrepStmts"))) {
+            advertencias.add("cachePrepStmts no está activo: cada sentencia se vuelve a preparar en el servidor");
+        }
+        if (showSql && !url.startsWith("jdbc:h2:mem:")) {
+            advertencias.add("spring.jpa.show-sql está activo con una base de datos externa: cada sentencia se "
+                    + "escribe en la salida estándar");
+        }
+        return informe.toString().stripTrailing();
+    }
+
+    private HikariDataSource hikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static void linea(StringBuilder informe, String nombre, String valor) {
+        informe.append("  ").append(nombre).append(": ").append(valor).append('\n');
+    }
+
+    private static String ordenadas(Properties propiedades) {
+        Map<String, Object> ordenadas = new TreeMap<>();
+        propiedades.forEach((clave, valor) -> ordenadas.put(String.valueOf(clave),
+                String.valueOf(clave).toLowerCase().contains("password") ? "******" : valor));
+        return ordenadas.toString();
+    }
+
+    /**
+     * Oculta las contraseñas incluidas como parámetros de una URL de conexión.
+     */
+    static String ocultarClaves(String url) {
+        return url.replaceAll("(?i)(password=)[^&;]*", "$1******");
+    }
+
+    private static boolean verdadero(Object valor) {
+        return valor != null && Boolean.parseBoolean(valor.toString().trim());
+    }
+
+    private static int entero(Object valor) {
+        try {
+            return valor == null ? 0 : Integer.parseInt(valor.toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
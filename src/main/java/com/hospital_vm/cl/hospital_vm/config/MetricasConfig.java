@@ -0,0 +1,95 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.hospital_vm.cl.hospital_vm.cache.PacienteCache;
+import com.hospital_vm.cl.hospital_vm.eventos.DifusorAtenciones;
+import com.hospital_vm.cl.hospital_vm.metricas.DataSourceMedido;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Métricas propias de la aplicación que Spring Boot no registra por sí solo.
+ * Las de HTTP, Hibernate, Hikari y los métodos {@code @Timed} de los servicios
+ * se configuran en {@code application.properties}.
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Nombre del {@link DataSource} de la aplicación, el que usan JPA y
+     * {@code JdbcTemplate}.
+     */
+    private static final String DATA_SOURCE = "dataSource";
+
+    /**
+     * Envuelve el {@link DataSource} de la aplicación con {@link DataSourceMedido}
+     * para contar las sentencias de cada solicitud y registrar las que superan
+     * {@code hospital.sql.lentas.umbral}.
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceMedidoPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && DATA_SOURCE.equals(beanName)) {
+                    return DataSourceMedido.envolver(dataSource,
+                            environment.getProperty("hospital.sql.lentas.umbral", Duration.class,
+                                    Duration.ofMillis(200)));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Publica las estadísticas de {@link PacienteCache} con los nombres
+     * estándar de Micrometer para cachés ({@code cache.gets}, etc.).
+     */
+    @Bean
+    public MeterBinder pacienteCacheMetricas(PacienteCache cache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", cache, c -> c.getEstadisticas().getAciertos())
+                    .tags("cache", "pacientes", "result", "hit")
+                    .description("Lecturas resueltas desde la caché")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", cache, c -> c.getEstadisticas().getFallos())
+                    .tags("cache", "pacientes", "result", "miss")
+                    .description("Lecturas que debieron consultar la base de datos")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", cache, c -> c.getEstadisticas().getExpulsiones())
+                    .tags("cache", "pacientes")
+                    .description("Entradas expulsadas por tamaño o por expiración")
+                    .register(registry);
+            Gauge.builder("cache.size", cache, c -> c.getEstadisticas().getTamanio())
+                    .tags("cache", "pacientes")
+                    .description("Entradas almacenadas actualmente")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Publica las suscripciones SSE abiertas y las descartadas por consumir
+     * los mensajes demasiado lento.
+     */
+    @Bean
+    public MeterBinder difusorAtencionesMetricas(DifusorAtenciones difusor) {
+        return registry -> {
+            Gauge.builder("hospital.sse.suscripciones", difusor, DifusorAtenciones::getSuscripciones)
+                    .description("Suscripciones SSE de atenciones abiertas")
+                    .register(registry);
+            FunctionCounter.builder("hospital.sse.descartadas", difusor, DifusorAtenciones::getDescartadas)
+                    .description("Suscripciones SSE cerradas por no leer los mensajes a tiempo")
+                    .register(registry);
+        };
+    }
+}
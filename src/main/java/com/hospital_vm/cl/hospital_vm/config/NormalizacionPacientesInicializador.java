@@ -0,0 +1,31 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+
+/**
+ * Completa, al iniciar la aplicación, las columnas de búsqueda de los
+ * pacientes guardados antes de que existieran.
+ */
+@Component
+public class NormalizacionPacientesInicializador {
+
+    private static final Logger logger = LoggerFactory.getLogger(NormalizacionPacientesInicializador.class);
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void normalizarPacientes() {
+        int actualizados = pacienteService.normalizarPendientes();
+        if (actualizados > 0) {
+            logger.info("[normalizarPacientes] Se calcularon las columnas de búsqueda de {} pacientes", actualizados);
+        }
+    }
+}
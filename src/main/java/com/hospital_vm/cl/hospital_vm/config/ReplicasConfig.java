@@ -0,0 +1,164 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.hospital_vm.cl.hospital_vm.replicas.DataSourceReplicas;
+import com.hospital_vm.cl.hospital_vm.replicas.EstrategiaReplicas;
+import com.hospital_vm.cl.hospital_vm.replicas.Replica;
+import com.hospital_vm.cl.hospital_vm.replicas.TransaccionesReplicasManager;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Réplicas de lectura: las transacciones {@code @Transactional(readOnly = true)}
+ * se atienden en una de las bases de datos de {@code hospital.replicas.urls}
+ * y todo lo demás en la primaria ({@code spring.datasource.url}). Ver
+ * {@link DataSourceReplicas}.
+ *
+ * <p>Se activa al definir {@code hospital.replicas.urls} (en producción, con la
+ * variable de entorno {@code HOSPITAL_REPLICAS_URLS}). Cada réplica tiene su
+ * propio pool de Hikari con la configuración de
+ * {@code spring.datasource.hikari}, en modo de solo lectura.</p>
+ *
+ * <p>El {@link DataSource} de la aplicación pasa a ser un
+ * {@link LazyConnectionDataSourceProxy}, que pide la conexión real recién en
+ * la primera sentencia, cuando ya se sabe si la transacción es de solo
+ * lectura. Además, Hibernate libera la conexión al terminar cada transacción
+ * en vez de conservarla durante toda la solicitud (open-session-in-view), para
+ * que cada transacción se enrute por separado.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "hospital.replicas.urls")
+public class ReplicasConfig {
+
+    /**
+     * Pool de la primaria, el mismo que Spring Boot crearía sin réplicas.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DataSourceReplicas replicasDataSource(HikariDataSource primariaDataSource, DataSourceProperties propiedades,
+            Environment environment,
+            @Value("${hospital.replicas.urls}") String[] urls,
+            @Value("${hospital.replicas.estrategia:ROUND_ROBIN}") EstrategiaReplicas estrategia,
+            @Value("${hospital.replicas.retraso-maximo:5s}") Duration retrasoMaximo,
+            @Value("${hospital.replicas.consulta-retraso:}") String consultaRetraso,
+            @Value("${hospital.replicas.espera-conexion:1s}") Duration esperaConexion) {
+        List<Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim()).build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("hospital-replica-" + (replicas.size() + 1));
+            pool.setReadOnly(true);
+            // Una réplica que no entrega conexiones se descarta pronto en favor de otra o de la primaria
+            pool.setConnectionTimeout(esperaConexion.toMillis());
+            replicas.add(new Replica(pool.getPoolName(), pool));
+        }
+        return new DataSourceReplicas(primariaDataSource, replicas, estrategia, retrasoMaximo,
+                consultaRetraso.isBlank() ? null : consultaRetraso);
+    }
+
+    /**
+     * {@link DataSource} de la aplicación, el que usan JPA y
+     * {@code JdbcTemplate}.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceReplicas replicasDataSource) {
+        return new LazyConnectionDataSourceProxy(replicasDataSource);
+    }
+
+    /**
+     * Hibernate pide la conexión en la primera sentencia de cada transacción
+     * y la libera al terminarla.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer conexionPorTransaccion() {
+        return propiedades -> propiedades.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Reemplaza al de Spring Boot para que las lecturas de las réplicas no se
+     * guarden en la caché de segundo nivel.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        TransaccionesReplicasManager transactionManager = new TransaccionesReplicasManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * Publica el estado de cada réplica y las lecturas que debieron hacerse en
+     * la primaria. Los pools de las réplicas publican además las métricas
+     * {@code hikaricp.*}, como el de la primaria.
+     */
+    @Bean
+    public MeterBinder replicasMetricas(DataSourceReplicas replicasDataSource) {
+        return registry -> {
+            for (Replica replica : replicasDataSource.getReplicas()) {
+                if (replica.getDataSource() instanceof HikariDataSource pool && pool.getHikariPoolMXBean() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+                Gauge.builder("hospital.replicas.disponible", replica,
+                        r -> replicasDataSource.utilizable(r) ? 1 : 0)
+                        .tags("replica", replica.getNombre())
+                        .description("1 si la réplica recibe lecturas: responde y su retraso no supera el máximo")
+                        .register(registry);
+                Gauge.builder("hospital.replicas.retraso", replica,
+                        r -> r.getRetraso() == null ? Double.NaN : r.getRetraso().toMillis() / 1000.0)
+                        .tags("replica", replica.getNombre())
+                        .description("Retraso de la réplica en segundos, según la última verificación")
+                        .register(registry);
+                Gauge.builder("hospital.replicas.conexiones", replica, Replica::getConexionesActivas)
+                        .tags("replica", replica.getNombre())
+                        .description("Conexiones de la réplica en uso")
+                        .register(registry);
+                FunctionCounter.builder("hospital.replicas.lecturas", replica, Replica::getLecturas)
+                        .tags("replica", replica.getNombre())
+                        .description("Transacciones de solo lectura atendidas por la réplica")
+                        .register(registry);
+            }
+            FunctionCounter.builder("hospital.replicas.lecturas.primaria", replicasDataSource,
+                    DataSourceReplicas::getLecturasEnPrimaria)
+                    .description("Transacciones de solo lectura atendidas por la primaria por falta de réplicas")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.service.ResumenCostosService;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+
+/**
+ * Reconstruye, al iniciar la aplicación, la tabla de resúmenes de costos por
+ * paciente para que refleje las atenciones existentes. Con shards, cada
+ * shard reconstruye la suya.
+ */
+@Component
+public class ResumenCostosInicializador {
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirResumenes() {
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            enrutador.enShard(shard, () -> {
+                resumenCostosService.reconstruir();
+                return null;
+            });
+        }
+    }
+}
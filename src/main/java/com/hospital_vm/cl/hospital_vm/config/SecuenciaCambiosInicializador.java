@@ -0,0 +1,32 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.service.CambiosService;
+
+/**
+ * Asigna, al iniciar la aplicación, la secuencia de cambios a los pacientes y
+ * atenciones guardados antes de que existiera, para que el feed de cambios
+ * pueda recorrerlos sin valores repetidos.
+ */
+@Component
+public class SecuenciaCambiosInicializador {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecuenciaCambiosInicializador.class);
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void asignarSecuencias() {
+        int actualizados = cambiosService.asignarSecuenciasPendientes();
+        if (actualizados > 0) {
+            logger.info("[asignarSecuencias] Se asignó la secuencia de cambios a {} filas", actualizados);
+        }
+    }
+}
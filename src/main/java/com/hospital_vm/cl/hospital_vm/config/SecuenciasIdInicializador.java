@@ -0,0 +1,114 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.util.List;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+import com.hospital_vm.cl.hospital_vm.shards.IdShard;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Table;
+
+/**
+ * Ajusta, al iniciar la aplicación, las secuencias de los IDs de pacientes y
+ * atenciones al mayor ID existente. Las filas guardadas cuando los IDs eran
+ * autoincrementales quedan por encima del valor inicial de la secuencia que
+ * crea Hibernate, y sin este ajuste los nuevos IDs se repetirían.
+ *
+ * <p>La secuencia se lleva a un valor desde el cual el optimizador pooled no
+ * entrega IDs existentes. Con MySQL, que no tiene secuencias, Hibernate las
+ * emula con una tabla de una fila ({@code next_val}), que se actualiza de la
+ * misma forma. Con shards, se ajusta la secuencia de cada shard según sus
+ * IDs, sin el número de shard.</p>
+ *
+ * <p>Se ejecuta antes de que el servidor acepte solicitudes, y no como los
+ * demás inicializadores al terminar el arranque, para que ninguna solicitud
+ * obtenga un ID antes del ajuste.</p>
+ */
+@Component
+public class SecuenciasIdInicializador implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecuenciasIdInicializador.class);
+
+    private static final List<Class<?>> ENTIDADES = List.of(Paciente.class, Atencion.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            enrutador.enShard(shard, () -> transactionTemplate.execute(status -> {
+                for (Class<?> entidad : ENTIDADES) {
+                    ajustar(entidad);
+                }
+                return null;
+            }));
+        }
+    }
+
+    private void ajustar(Class<?> entidad) {
+        String tabla = entidad.getAnnotation(Table.class).name();
+        IdShard configuracion;
+        try {
+            configuracion = entidad.getDeclaredField("id").getAnnotation(IdShard.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+        String secuencia = configuracion.secuencia();
+        int tamanio = configuracion.tamanioAsignacion();
+
+        Number maximo = (Number) entityManager.createNativeQuery("SELECT MAX(id) FROM " + tabla).getSingleResult();
+        if (maximo == null) {
+            return;
+        }
+        long ultimo = enrutador.isActivo() ? maximo.longValue() >> EnrutadorShards.BITS_SHARD : maximo.longValue();
+        // El optimizador pooled entrega los IDs anteriores al valor leído de la secuencia
+        long inicio = ultimo + tamanio + 1;
+
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        SequenceSupport soporte = dialect.getSequenceSupport();
+        if (soporte.supportsSequences()) {
+            long siguiente = ((Number) entityManager.createNativeQuery(soporte.getSequenceNextValString(secuencia))
+                    .getSingleResult()).longValue();
+            if (siguiente >= inicio) {
+                return;
+            }
+            ejecutar("ALTER SEQUENCE " + secuencia + " RESTART WITH " + inicio, secuencia);
+        } else if (ejecutar("UPDATE " + secuencia + " SET next_val = " + inicio + " WHERE next_val < " + inicio,
+                secuencia) == 0) {
+            return;
+        }
+        logger.info("[ajustar] Secuencia {} ajustada a {} (ID máximo de {}: {})", secuencia, inicio, tabla, maximo);
+    }
+
+    /**
+     * Ejecuta una sentencia sobre la secuencia. Solo se declara la secuencia
+     * como afectada, para no invalidar la caché de segundo nivel.
+     */
+    private int ejecutar(String sql, String secuencia) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(secuencia)
+                .executeUpdate();
+    }
+}
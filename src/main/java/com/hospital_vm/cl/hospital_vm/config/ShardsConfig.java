@@ -0,0 +1,125 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.hospital_vm.cl.hospital_vm.metricas.DataSourceMedido;
+import com.hospital_vm.cl.hospital_vm.shards.ConexionesShards;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+import com.hospital_vm.cl.hospital_vm.shards.EsquemaShards;
+import com.hospital_vm.cl.hospital_vm.shards.ResolutorShard;
+import com.hospital_vm.cl.hospital_vm.shards.SinShards;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Shards: los pacientes y sus atenciones se reparten por RUN entre las bases
+ * de datos de {@code hospital.shards.urls} (ver {@link EnrutadorShards}).
+ *
+ * <p>Cada shard es un tenant de Hibernate (multi-tenancy por base de datos):
+ * la sesión se abre en la base de datos del shard indicado por
+ * {@link ResolutorShard}, y Hibernate separa por shard la caché de segundo
+ * nivel, la de consultas y los valores reservados de las secuencias. La base
+ * de datos de {@code spring.datasource} solo se usa fuera de un shard. La API
+ * {@code /v3}, que lee de ella con R2DBC, no se registra con shards (ver
+ * {@link SinShards}): respondería 404 y búsquedas vacías para pacientes que
+ * existen.</p>
+ *
+ * <p>La cantidad de shards no se puede cambiar en una instalación con datos:
+ * el shard de un paciente es {@code CRC32(run) % N}, de modo que con otro
+ * {@code N} la mayoría de los RUN existentes pasarían a corresponder a otro
+ * shard y sus pacientes dejarían de encontrarse. Agregar shards requiere
+ * migrar las filas a su nuevo shard con la aplicación detenida.</p>
+ *
+ * <p>Cada shard tiene su pool de Hikari con la configuración de
+ * {@code spring.datasource.hikari}, y sus sentencias se cuentan y registran
+ * como las de la base de datos principal (ver {@link DataSourceMedido}).</p>
+ *
+ * <p>Requiere {@code spring.jpa.open-in-view=false}: la sesión que
+ * open-session-in-view abre al inicio de la solicitud quedaría en la base de
+ * datos de {@code spring.datasource} antes de saber el shard. Tampoco se
+ * admite junto a las réplicas de lectura.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "hospital.shards.urls")
+public class ShardsConfig {
+
+    @Bean
+    public ConexionesShards conexionesShards(DataSource dataSource, DataSourceProperties propiedades,
+            Environment environment,
+            @Value("${hospital.shards.urls}") String[] urls,
+            @Value("${hospital.sql.lentas.umbral:200ms}") Duration umbral) {
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("hospital.shards.urls requiere spring.jpa.open-in-view=false");
+        }
+        if (!environment.getProperty("hospital.replicas.urls", "").isBlank()) {
+            throw new IllegalStateException("hospital.shards.urls no se puede usar junto a hospital.replicas.urls");
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim()).build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("hospital-" + EnrutadorShards.tenant(shards.size()));
+            shards.add(DataSourceMedido.envolver(pool, umbral));
+        }
+        return new ConexionesShards(dataSource, shards);
+    }
+
+    /**
+     * Activa la multi-tenancy de Hibernate con un tenant por shard y aplica
+     * el esquema en cada shard.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardsHibernate(ConexionesShards conexionesShards) {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, conexionesShards);
+            propiedades.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ResolutorShard());
+            propiedades.put(JpaSettings.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new EsquemaShards(conexionesShards.getShards())));
+        };
+    }
+
+    /**
+     * Los pools de los shards publican las métricas {@code hikaricp.*}, como
+     * el de {@code spring.datasource}.
+     */
+    @Bean
+    public MeterBinder shardsMetricas(ConexionesShards conexionesShards) {
+        return registry -> {
+            for (DataSource shard : conexionesShards.getShards()) {
+                try {
+                    HikariDataSource pool = shard.unwrap(HikariDataSource.class);
+                    if (pool.getHikariPoolMXBean() == null) {
+                        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+}
@@ -1,22 +1,43 @@
 package com.hospital_vm.cl.hospital_vm.controller;
 
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.hospital_vm.cl.hospital_vm.dto.AtencionLoteItem;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.dto.FeedCambios;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResumenCostos;
+import com.hospital_vm.cl.hospital_vm.metricas.PresupuestoConsultas;
 import com.hospital_vm.cl.hospital_vm.model.Atencion;
 import com.hospital_vm.cl.hospital_vm.service.AtencionService;
+import com.hospital_vm.cl.hospital_vm.service.CambiosService;
+import com.hospital_vm.cl.hospital_vm.service.ResumenCostosService;
+import com.hospital_vm.cl.hospital_vm.util.Etag;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -47,37 +68,200 @@ public class AtencionController {
     private AtencionService atencionService;
 
     /**
-     * Obtiene una lista de todas las atenciones.
+     * Valor del parámetro {@code expand} que agrega los datos del paciente.
+     */
+    private static final String EXPANDIR_PACIENTE = "paciente";
+
+    /**
+     * Obtiene una lista de las atenciones, opcionalmente filtradas por rango de
+     * fechas y por paciente.
      * 
-     * @return Lista de objetos {@link Atencion}.
+     * <p>La respuesta incluye un ETag débil calculado a partir de las versiones
+     * de las atenciones y de sus pacientes. Si {@code If-None-Match} coincide
+     * se responde 304 sin leer las atenciones.</p>
+     * 
+     * @param desde       Fecha inicial (inclusive) en formato ISO (opcional).
+     * @param hasta       Fecha final (inclusive) en formato ISO (opcional).
+     * @param pacienteId  ID del paciente (opcional).
+     * @param expand      Si es {@code paciente}, se agregan los datos del
+     *                    paciente de cada atención.
+     * @param ifNoneMatch ETag de la lista que ya tiene el cliente (opcional).
+     * @return Lista de objetos {@link AtencionResumen}.
      */
-    @Operation(summary = "Listar todas las atenciones", description = "Obtiene una lista con todas las atenciones registradas.")
+    @Operation(summary = "Listar atenciones", description = "Obtiene una lista con las atenciones registradas. Se pueden filtrar por rango de fechas (desde, hasta) y por paciente. Con expand=paciente se agregan los datos de cada paciente. Si If-None-Match coincide con el ETag actual responde 304.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de atenciones obtenida correctamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Atencion.class)))
+            @ApiResponse(responseCode = "200", description = "Lista de atenciones obtenida correctamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AtencionResumen.class))),
+            @ApiResponse(responseCode = "304", description = "La lista no cambió desde el ETag indicado"),
+            @ApiResponse(responseCode = "400", description = "La fecha inicial es posterior a la fecha final")
     })
     @GetMapping
-    public ResponseEntity<List<Atencion>> listarAtenciones() { 
-        List<Atencion> atenciones = atencionService.getAllAtenciones();
-        return ResponseEntity.ok(atenciones);
+    @PresupuestoConsultas(3)
+    public ResponseEntity<List<AtencionResumen>> listarAtenciones(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long pacienteId,
+            @RequestParam(required = false) String expand,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) { 
+        boolean expandirPaciente = EXPANDIR_PACIENTE.equalsIgnoreCase(expand);
+
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // El ETag se calcula antes de leer la lista: si cambia entre ambas
+        // consultas, el cliente vuelve a pedirla con el ETag anterior
+        String etag = atencionService.getEtagAtenciones(desde, hasta, pacienteId);
+        if (Etag.coincide(ifNoneMatch, etag)) {
+            return conEtag(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag).build();
+        }
+
+        if (desde == null && hasta == null && pacienteId == null) {
+            return conEtag(ResponseEntity.ok(), etag).body(atencionService.getResumenAtenciones(expandirPaciente));
+        }
+
+        List<AtencionResumen> atenciones = atencionService.getResumenAtencionesEntreFechas(desde, hasta, pacienteId,
+                expandirPaciente);
+        return conEtag(ResponseEntity.ok(), etag).body(atenciones);
+    }
+
+    private static ResponseEntity.BodyBuilder conEtag(ResponseEntity.BodyBuilder respuesta, String etag) {
+        if (etag != null) {
+            respuesta.eTag(etag).cacheControl(CacheControl.noCache());
+        }
+        return respuesta;
+    }
+
+    /**
+     * Obtiene las atenciones creadas, modificadas o eliminadas desde la
+     * consulta anterior. La primera consulta se hace sin {@code since}; las
+     * siguientes envían el valor {@code siguiente} de la respuesta anterior.
+     * 
+     * @param since  Valor {@code siguiente} de la respuesta anterior
+     *               (opcional).
+     * @param limite Cantidad máxima de cambios a entregar (máximo
+     *               {@value CambiosService#LIMITE_MAXIMO}).
+     * @return Objeto {@link FeedCambios} con las atenciones modificadas y los
+     *         IDs de las eliminadas.
+     */
+    @Operation(summary = "Feed de cambios de atenciones", description = "Obtiene las atenciones creadas, modificadas o eliminadas desde el valor since. Si since es anterior al período de retención de las eliminaciones responde 410 y se deben volver a cargar todas las atenciones.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cambios obtenidos correctamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedCambios.class))),
+            @ApiResponse(responseCode = "410", description = "El valor since ya no es válido")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<FeedCambios<Atencion>> obtenerCambios(@RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "" + CambiosService.LIMITE_POR_DEFECTO) int limite) {
+        FeedCambios<Atencion> cambios = atencionService.getCambios(since, limite);
+        if (cambios == null) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok(cambios);
+    }
+
+    /**
+     * Exporta todas las atenciones en formato NDJSON (un objeto JSON por línea).
+     * La respuesta se escribe a medida que se leen las filas, sin cargar la
+     * tabla completa en memoria. Si el cliente acepta gzip, la respuesta se
+     * comprime.
+     * 
+     * @param acceptEncoding Cabecera {@code Accept-Encoding} del cliente.
+     * @return Flujo NDJSON con todas las atenciones.
+     */
+    @Operation(summary = "Exportar todas las atenciones", description = "Exporta todas las atenciones como NDJSON en streaming, con compresión gzip opcional.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación generada correctamente", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Atencion.class)))
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarAtenciones(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                GZIPOutputStream salidaGzip = new GZIPOutputStream(salida, 8192);
+                atencionService.exportarAtenciones(salidaGzip);
+                salidaGzip.finish();
+            } else {
+                atencionService.exportarAtenciones(salida);
+            }
+        };
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    /**
+     * Abre un flujo Server-Sent Events con las atenciones creadas, modificadas
+     * o eliminadas de los pacientes indicados, a medida que ocurren. Cada
+     * evento se llama {@code creado}, {@code actualizado} o {@code eliminado}
+     * y contiene la atención en formato JSON. Si el cliente no lee los
+     * eventos a tiempo, el servidor cierra el flujo; al reconectarse, el
+     * cliente debe volver a cargar las atenciones.
+     * 
+     * @param pacienteIds IDs de los pacientes (máximo
+     *                    {@value AtencionService#PACIENTES_SUSCRIPCION_MAXIMO}).
+     * @return Flujo de eventos SSE.
+     */
+    @Operation(summary = "Atenciones en vivo", description = "Abre un flujo Server-Sent Events con los cambios de las atenciones de los pacientes indicados. Reemplaza la consulta periódica de las atenciones de cada paciente.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flujo abierto", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = AtencionResumen.class))),
+            @ApiResponse(responseCode = "400", description = "No se indicaron pacientes o se indicaron demasiados"),
+            @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de suscripciones simultáneas")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirAtenciones(@RequestParam List<Long> pacienteIds) {
+        Set<Long> ids = new HashSet<>(pacienteIds);
+        ids.remove(null);
+        if (ids.isEmpty() || ids.size() > AtencionService.PACIENTES_SUSCRIPCION_MAXIMO) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SseEmitter emitter = atencionService.suscribirAtenciones(ids);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
     }
 
     /**
      * Obtiene una lista de atenciones asociadas a un paciente específico.
      * 
-     * @param idPaciente ID del paciente cuyas atenciones se desean obtener.
-     * @return Lista de objetos {@link Atencion} asociados al paciente.
+     * <p>La respuesta incluye un ETag débil; si {@code If-None-Match} coincide
+     * se responde 304 sin leer las atenciones.</p>
+     * 
+     * @param idPaciente  ID del paciente cuyas atenciones se desean obtener.
+     * @param expand      Si es {@code paciente}, se agregan los datos del
+     *                    paciente.
+     * @param ifNoneMatch ETag de la lista que ya tiene el cliente (opcional).
+     * @return Lista de objetos {@link AtencionResumen} asociados al paciente.
      */
-    @Operation(summary = "Obtener atenciones por paciente", description = "Obtiene una lista de atenciones para un paciente específico según su ID.")
+    @Operation(summary = "Obtener atenciones por paciente", description = "Obtiene una lista de atenciones para un paciente específico según su ID. Si If-None-Match coincide con el ETag actual responde 304.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Atenciones encontradas", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Atencion.class))),
+            @ApiResponse(responseCode = "200", description = "Atenciones encontradas", content = @Content(mediaType = "application/json", schema = @Schema(implementation = AtencionResumen.class))),
+            @ApiResponse(responseCode = "304", description = "Las atenciones no cambiaron desde el ETag indicado"),
             @ApiResponse(responseCode = "404", description = "No se encontraron atenciones para el paciente")
     })
     @GetMapping("/pacientes/{idPaciente}")
-    public ResponseEntity<List<Atencion>> obtenerAtencionesPorPaciente(@PathVariable Long idPaciente) {
+    @PresupuestoConsultas(3)
+    public ResponseEntity<List<AtencionResumen>> obtenerAtencionesPorPaciente(@PathVariable Long idPaciente,
+            @RequestParam(required = false) String expand,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("[obtenerAtencionesPorPaciente] Inicio");
         logger.debug("[obtenerAtencionesPorPaciente] Obteeniendo atenciones para el paciente con ID: {}", idPaciente);
 
-        List<Atencion> atenciones = atencionService.getAtencionesByPacienteId(idPaciente);
+        String etag = atencionService.getEtagAtenciones(null, null, idPaciente);
+        if (Etag.coincide(ifNoneMatch, etag)) {
+            logger.debug("[obtenerAtencionesPorPaciente] Sin cambios para el paciente con ID: {}", idPaciente);
+            return conEtag(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag).build();
+        }
+
+        List<AtencionResumen> atenciones = atencionService.getResumenAtencionesByPacienteId(idPaciente,
+                EXPANDIR_PACIENTE.equalsIgnoreCase(expand));
 
         if (atenciones == null || atenciones.isEmpty()) {
             logger.warn("No se encontraron atenciones para el paciente con ID: {}", idPaciente);
@@ -86,7 +270,45 @@ public class AtencionController {
 
         logger.info("[obtenerAtencionesPorPaciente] Se encontraron {} atenciones para el paciente con ID: {}", atenciones.size(), idPaciente);
         logger.info("[obtenerAtencionesPorPaciente] Fin", atenciones.size(), idPaciente);
-        return ResponseEntity.ok(atenciones);
+        return conEtag(ResponseEntity.ok(), etag).body(atenciones);
+    }
+
+    /**
+     * Obtiene el resumen de costos (cantidad, total y promedio) de las
+     * atenciones de un paciente, calculado en la base de datos.
+     * 
+     * @param idPaciente ID del paciente.
+     * @return Objeto {@link ResumenCostos} del paciente.
+     */
+    @Operation(summary = "Resumen de costos por paciente", description = "Obtiene la cantidad, el costo total y el costo promedio de las atenciones de un paciente.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumen obtenido correctamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResumenCostos.class))),
+            @ApiResponse(responseCode = "404", description = "Paciente no encontrado")
+    })
+    @GetMapping("/pacientes/{idPaciente}/resumen")
+    public ResponseEntity<ResumenCostos> obtenerResumenCostos(@PathVariable Long idPaciente) {
+        ResumenCostos resumen = atencionService.getResumenCostos(idPaciente);
+        if (resumen == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(resumen);
+    }
+
+    /**
+     * Obtiene los pacientes con mayor costo total de atenciones.
+     * 
+     * @param limite Cantidad de pacientes a obtener (máximo
+     *               {@value ResumenCostosService#LIMITE_TOP_MAXIMO}).
+     * @return Lista de objetos {@link ResumenCostos} ordenados por costo total
+     *         descendente.
+     */
+    @Operation(summary = "Pacientes con mayor costo", description = "Obtiene los pacientes con mayor costo total de atenciones.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reporte obtenido correctamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResumenCostos.class)))
+    })
+    @GetMapping("/reportes/top-pacientes")
+    public ResponseEntity<List<ResumenCostos>> obtenerTopPacientesPorCosto(@RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(atencionService.getTopPacientesPorCosto(limite));
     }
 
     /**
@@ -126,4 +348,25 @@ public class AtencionController {
         }
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevaAtencion);
     }
+
+    /**
+     * Crea un conjunto de atenciones, posiblemente de distintos pacientes, en
+     * una sola solicitud.
+     * 
+     * @param items Lista de atenciones con el ID de su paciente.
+     * @return Objeto {@link ResultadoLote} con el resultado de cada atención.
+     */
+    @Operation(summary = "Crear atenciones por lotes", description = "Crea un conjunto de atenciones de distintos pacientes. Las atenciones de pacientes inexistentes se informan como fallidas sin abortar el lote.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote procesado", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoLote.class))),
+            @ApiResponse(responseCode = "413", description = "El lote supera el tamaño máximo permitido")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> crearAtenciones(@RequestBody List<AtencionLoteItem> items) {
+        if (items.size() > AtencionService.TAMANIO_LOTE_MAXIMO) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        ResultadoLote resultado = atencionService.createAtenciones(items);
+        return ResponseEntity.ok(resultado);
+    }
 }
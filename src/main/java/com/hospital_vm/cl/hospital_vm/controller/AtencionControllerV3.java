@@ -0,0 +1,53 @@
+package com.hospital_vm.cl.hospital_vm.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.service.AtencionReactivaService;
+import com.hospital_vm.cl.hospital_vm.shards.SinShards;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+
+/**
+ * Controlador REST de solo lectura de atenciones, no bloqueante. Ver
+ * {@link PacienteControllerV3}.
+ */
+@RestController
+@Conditional(SinShards.class)
+@RequestMapping("/v3/atenciones")
+@Tag(name = "Atenciones v3", description = "Consultas no bloqueantes de atenciones de pacientes")
+public class AtencionControllerV3 {
+
+    @Autowired
+    private AtencionReactivaService atencionReactivaService;
+
+    /**
+     * Obtiene las atenciones de un paciente, enviándolas a medida que el
+     * cliente las lee.
+     *
+     * @param idPaciente ID del paciente cuyas atenciones se desean obtener.
+     * @return Flujo de objetos {@link AtencionResumen}; vacío si el paciente no
+     *         tiene atenciones.
+     */
+    @Operation(summary = "Obtener atenciones por paciente (streaming)", description = "Obtiene las atenciones de un paciente como NDJSON, o como arreglo JSON si se solicita application/json. A diferencia de /atenciones/pacientes/{idPaciente}, responde 200 con un flujo vacío si no hay atenciones.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Atenciones del paciente", content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = AtencionResumen.class)))
+    })
+    @GetMapping(value = "/pacientes/{idPaciente}", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_JSON_VALUE })
+    public Flux<AtencionResumen> obtenerAtencionesPorPaciente(@PathVariable Long idPaciente) {
+        return atencionReactivaService.getResumenAtencionesByPacienteId(idPaciente);
+    }
+}
@@ -0,0 +1,38 @@
+package com.hospital_vm.cl.hospital_vm.controller;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.hospital_vm.cl.hospital_vm.shards.CambioDeShardException;
+
+/**
+ * Respuestas HTTP de las excepciones de los servicios que comparten todos los
+ * controladores.
+ */
+@RestControllerAdvice
+public class ManejadorExcepciones {
+
+    /**
+     * Responde 412 cuando la fila no tiene la versión indicada en
+     * {@code If-Match} o fue modificada por otra solicitud al mismo tiempo.
+     *
+     * @return Respuesta con código de estado HTTP 412.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> versionNoCoincide() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    /**
+     * Responde 409 cuando el cambio llevaría la fila a otro shard.
+     *
+     * @return Respuesta con código de estado HTTP 409.
+     */
+    @ExceptionHandler(CambioDeShardException.class)
+    public ResponseEntity<Void> cambioDeShard() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
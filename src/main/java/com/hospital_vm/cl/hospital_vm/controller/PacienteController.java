@@ -3,6 +3,8 @@ package com.hospital_vm.cl.hospital_vm.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,10 +14,20 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.hospital_vm.cl.hospital_vm.dto.EstadisticasCache;
+import com.hospital_vm.cl.hospital_vm.dto.FeedCambios;
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
+import com.hospital_vm.cl.hospital_vm.dto.VersionFila;
 import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.CambiosService;
 import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.util.Cursor;
+import com.hospital_vm.cl.hospital_vm.util.Etag;
 import org.springframework.web.bind.annotation.PutMapping;
 
 /**
@@ -31,32 +43,122 @@ import org.springframework.web.bind.annotation.PutMapping;
 @RequestMapping("/pacientes")
 public class PacienteController {
 
+    /**
+     * Cabecera con el cursor de la página siguiente.
+     */
+    public static final String CABECERA_CURSOR_SIGUIENTE = "X-Next-Cursor";
+
+    /**
+     * Cabecera con el cursor de la página anterior.
+     */
+    public static final String CABECERA_CURSOR_ANTERIOR = "X-Prev-Cursor";
+
     @Autowired
     private PacienteService pacienteService;
 
     /**
-     * Obtiene una lista de todos los pacientes.
-     * @return Lista de objetos {@link Paciente}.
+     * Obtiene una página de pacientes ordenados por ID.
+     * Los cursores de navegación se devuelven en las cabeceras
+     * {@value #CABECERA_CURSOR_SIGUIENTE} y {@value #CABECERA_CURSOR_ANTERIOR}.
+     * 
+     * <p>La respuesta incluye un ETag débil calculado a partir del ID y la
+     * versión de los pacientes de la página. Si {@code If-None-Match} coincide,
+     * se responde 304 consultando solo las versiones.</p>
+     * 
+     * @param cursor      Cursor opaco de la página a obtener (opcional).
+     * @param tamanio     Cantidad de pacientes por página.
+     * @param ifNoneMatch ETag de la página que ya tiene el cliente (opcional).
+     * @return Lista de objetos {@link Paciente} de la página solicitada.
      */
     @GetMapping
-    public ResponseEntity<List<Paciente>> listarPacientes() {
-        List<Paciente> pacientes = pacienteService.getAllPacientes();
-        return ResponseEntity.ok(pacientes);
+    public ResponseEntity<List<Paciente>> listarPacientes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PacienteService.TAMANIO_PAGINA_POR_DEFECTO) int tamanio,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Cursor cursorDecodificado = null;
+        if (cursor != null) {
+            cursorDecodificado = Cursor.decodificar(cursor);
+            if (cursorDecodificado == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        if (ifNoneMatch != null) {
+            Pagina<VersionFila> versiones = pacienteService.getVersionesPagina(cursorDecodificado, tamanio);
+            String etag = Etag.dePagina(versiones, VersionFila::getId, VersionFila::getVersion);
+            if (Etag.coincide(ifNoneMatch, etag)) {
+                return cabecerasPagina(ResponseEntity.status(HttpStatus.NOT_MODIFIED), versiones, etag).build();
+            }
+        }
+
+        Pagina<Paciente> pagina = pacienteService.getPacientesPagina(cursorDecodificado, tamanio);
+        String etag = Etag.dePagina(pagina, Paciente::getId, Paciente::getVersion);
+        return cabecerasPagina(ResponseEntity.ok(), pagina, etag).body(pagina.getElementos());
+    }
+
+    private static ResponseEntity.BodyBuilder cabecerasPagina(ResponseEntity.BodyBuilder respuesta, Pagina<?> pagina,
+            String etag) {
+        if (pagina.getCursorSiguiente() != null) {
+            respuesta.header(CABECERA_CURSOR_SIGUIENTE, pagina.getCursorSiguiente());
+        }
+        if (pagina.getCursorAnterior() != null) {
+            respuesta.header(CABECERA_CURSOR_ANTERIOR, pagina.getCursorAnterior());
+        }
+        return respuesta.eTag(etag).cacheControl(CacheControl.noCache());
+    }
+
+    /**
+     * Obtiene los pacientes creados, modificados o eliminados desde la
+     * consulta anterior, para mantener una copia actualizada sin volver a leer
+     * todos los pacientes. La primera consulta se hace sin {@code since}; las
+     * siguientes envían el valor {@code siguiente} de la respuesta anterior.
+     * 
+     * @param since  Valor {@code siguiente} de la respuesta anterior
+     *               (opcional).
+     * @param limite Cantidad máxima de cambios a entregar (máximo
+     *               {@value CambiosService#LIMITE_MAXIMO}).
+     * @return Objeto {@link FeedCambios} con los pacientes modificados y los
+     *         IDs de los eliminados, o 410 si {@code since} es anterior al
+     *         período de retención y se deben volver a cargar todos.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<FeedCambios<Paciente>> obtenerCambios(@RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "" + CambiosService.LIMITE_POR_DEFECTO) int limite) {
+        FeedCambios<Paciente> cambios = pacienteService.getCambios(since, limite);
+        if (cambios == null) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok(cambios);
     }
 
     /**
      * Obtiene un paciente por su ID.
      * 
-     * @param id ID del paciente a buscar.
+     * La respuesta incluye la versión del paciente en la cabecera {@code ETag}.
+     * Si {@code If-None-Match} coincide con la versión actual se responde 304
+     * sin obtener el paciente completo.
+     * 
+     * @param id          ID del paciente a buscar.
+     * @param ifNoneMatch ETag del paciente que ya tiene el cliente (opcional).
      * @return Objeto {@link Paciente} correspondiente al ID proporcionado.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Paciente> obtenerPacientePorId(@PathVariable Long id) {
+    public ResponseEntity<Paciente> obtenerPacientePorId(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = pacienteService.getVersionPaciente(id);
+            if (version != null && Etag.coincide(ifNoneMatch, Etag.de(version))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(Etag.de(version))
+                        .cacheControl(CacheControl.noCache()).build();
+            }
+        }
+
         Paciente paciente = pacienteService.getPacienteById(id);
         if (paciente == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(paciente);
+        return ResponseEntity.ok().eTag(Etag.de(paciente.getVersion())).cacheControl(CacheControl.noCache())
+                .body(paciente);
     }
 
     /**
@@ -72,20 +174,38 @@ public class PacienteController {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoPaciente);
     }
 
+    /**
+     * Guarda un conjunto de pacientes en una sola solicitud.
+     * Los pacientes cuyo RUN ya existe no se vuelven a insertar.
+     * 
+     * @param pacientes Lista de objetos {@link Paciente} a guardar.
+     * @return Objeto {@link ResultadoLote} con el resultado de cada paciente.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResultadoLote> guardarPacientes(@RequestBody List<Paciente> pacientes) {
+        if (pacientes.size() > PacienteService.TAMANIO_LOTE_MAXIMO) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        ResultadoLote resultado = pacienteService.saveAll(pacientes);
+        return ResponseEntity.ok(resultado);
+    }
+
     /**
      * Actualiza completamente la información de un paciente existente.
      * 
      * @param id       ID del paciente a actualizar.
      * @param paciente Objeto {@link Paciente} con la nueva información.
+     * @param ifMatch  ETag que debe tener el paciente (opcional).
      * @return Objeto {@link Paciente} actualizado.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Paciente> actualizarPaciente(@PathVariable Long id, @RequestBody Paciente paciente) {
-        Paciente pacienteActualizado = pacienteService.updatePaciente(id, paciente);
+    public ResponseEntity<Paciente> actualizarPaciente(@PathVariable Long id, @RequestBody Paciente paciente,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Paciente pacienteActualizado = pacienteService.updatePaciente(id, paciente, Etag.versionEsperada(ifMatch));
         if (pacienteActualizado == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(pacienteActualizado);
+        return ResponseEntity.ok().eTag(Etag.de(pacienteActualizado.getVersion())).body(pacienteActualizado);
     }
 
     /**
@@ -94,32 +214,64 @@ public class PacienteController {
      * @param id       ID del paciente a actualizar.
      * @param paciente Objeto {@link Paciente} con la información parcial a
      *                 actualizar.
+     * @param ifMatch  ETag que debe tener el paciente (opcional).
      * @return Objeto {@link Paciente} actualizado parcialmente.
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Paciente> actualizarPacienteParcial(@PathVariable Long id, @RequestBody Paciente paciente) {
-        Paciente pacienteActualizado = pacienteService.patchPaciente(id, paciente);
+    public ResponseEntity<Paciente> actualizarPacienteParcial(@PathVariable Long id, @RequestBody Paciente paciente,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Paciente pacienteActualizado = pacienteService.patchPaciente(id, paciente, Etag.versionEsperada(ifMatch));
         if (pacienteActualizado == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(pacienteActualizado);
+        return ResponseEntity.ok().eTag(Etag.de(pacienteActualizado.getVersion())).body(pacienteActualizado);
     }
 
     /**
      * Elimina un paciente del sistema por su ID.
      * 
-     * @param id ID del paciente a eliminar.
+     * @param id      ID del paciente a eliminar.
+     * @param ifMatch ETag que debe tener el paciente (opcional).
      * @return Respuesta con código de estado HTTP.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> eliminarPaciente(@PathVariable Long id) {
-        if (pacienteService.getPacienteById(id) == null) {
+    public ResponseEntity<Void> eliminarPaciente(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!pacienteService.deletePaciente(id, Etag.versionEsperada(ifMatch))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        pacienteService.deletePaciente(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    /**
+     * Obtiene las estadísticas de la caché de pacientes.
+     * 
+     * @return Objeto {@link EstadisticasCache} con aciertos, fallos y
+     *         expulsiones.
+     */
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<EstadisticasCache> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(pacienteService.getEstadisticasCache());
+    }
+
+    /**
+     * Busca pacientes por prefijo de nombre y apellido, sin distinguir
+     * mayúsculas ni tildes. Pensado para búsquedas mientras se escribe.
+     * 
+     * @param q       Texto a buscar, por ejemplo {@code "ana per"}.
+     * @param pagina  Número de página (desde 0).
+     * @param tamanio Cantidad de resultados por página.
+     * @return Lista de objetos {@link Paciente} ordenados por relevancia; vacía
+     *         si no hay coincidencias.
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<Paciente>> buscarPacientes(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "" + PacienteService.TAMANIO_BUSQUEDA_POR_DEFECTO) int tamanio) {
+        List<Paciente> pacientes = pacienteService.buscarPacientes(q, pagina, tamanio);
+        return ResponseEntity.ok(pacientes);
+    }
+
     /**
      * Busca un paciente por su nombre con JQPL.
      * 
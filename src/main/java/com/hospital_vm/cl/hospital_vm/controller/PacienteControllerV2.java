@@ -1,10 +1,12 @@
 package com.hospital_vm.cl.hospital_vm.controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,11 +16,16 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.hospital_vm.cl.hospital_vm.assemblers.PacienteModelAssembler;
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
 import com.hospital_vm.cl.hospital_vm.model.Paciente;
 import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.util.Cursor;
+import com.hospital_vm.cl.hospital_vm.util.Etag;
 import org.springframework.web.bind.annotation.PutMapping;
 
 /**
@@ -41,24 +48,51 @@ public class PacienteControllerV2 {
     private PacienteModelAssembler assembler;
 
     /**
-     * Obtiene una lista de todos los pacientes.
-     * @return Lista de objetos {@link Paciente}.
+     * Obtiene una página de pacientes ordenados por ID, con enlaces a la página
+     * siguiente y anterior.
+     * 
+     * @param cursor  Cursor opaco de la página a obtener (opcional).
+     * @param tamanio Cantidad de pacientes por página.
+     * @return Colección de objetos {@link Paciente} de la página solicitada.
      */
     @GetMapping
-    public ResponseEntity<List<EntityModel<Paciente>>> listarPacientes() {
-        List<EntityModel<Paciente>> pacientes = pacienteService.getAllPacientes().stream().map(assembler::toModel)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(pacientes);
+    public ResponseEntity<CollectionModel<EntityModel<Paciente>>> listarPacientes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PacienteService.TAMANIO_PAGINA_POR_DEFECTO) int tamanio) {
+        Cursor cursorDecodificado = null;
+        if (cursor != null) {
+            cursorDecodificado = Cursor.decodificar(cursor);
+            if (cursorDecodificado == null) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        Pagina<Paciente> pagina = pacienteService.getPacientesPagina(cursorDecodificado, tamanio);
+        return ResponseEntity.ok(assembler.toPaginaModel(pagina, cursor, tamanio));
     }
 
     /**
      * Obtiene un paciente por su ID.
      * 
-     * @param id ID del paciente a buscar.
+     * La respuesta incluye la versión del paciente en la cabecera {@code ETag}.
+     * Si {@code If-None-Match} coincide con la versión actual se responde 304
+     * sin obtener el paciente ni generar sus enlaces.
+     * 
+     * @param id          ID del paciente a buscar.
+     * @param ifNoneMatch ETag del paciente que ya tiene el cliente (opcional).
      * @return Objeto {@link Paciente} correspondiente al ID proporcionado.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<EntityModel<Paciente>> obtenerPacientePorId(@PathVariable Long id) {
+    public ResponseEntity<EntityModel<Paciente>> obtenerPacientePorId(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = pacienteService.getVersionPaciente(id);
+            if (version != null && Etag.coincide(ifNoneMatch, Etag.de(version))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(Etag.de(version))
+                        .cacheControl(CacheControl.noCache()).build();
+            }
+        }
+
         Paciente paciente = pacienteService.getPacienteById(id);
         if (paciente == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -66,7 +100,8 @@ public class PacienteControllerV2 {
 
         EntityModel<Paciente> pacienteModel = assembler.toModel(paciente);
 
-        return ResponseEntity.ok(pacienteModel);
+        return ResponseEntity.ok().eTag(Etag.de(paciente.getVersion())).cacheControl(CacheControl.noCache())
+                .body(pacienteModel);
     }
 
     /**
@@ -90,15 +125,17 @@ public class PacienteControllerV2 {
      * 
      * @param id       ID del paciente a actualizar.
      * @param paciente Objeto {@link Paciente} con la nueva información.
+     * @param ifMatch  ETag que debe tener el paciente (opcional).
      * @return Objeto {@link Paciente} actualizado.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Paciente> actualizarPaciente(@PathVariable Long id, @RequestBody Paciente paciente) {
-        Paciente pacienteActualizado = pacienteService.updatePaciente(id, paciente);
+    public ResponseEntity<Paciente> actualizarPaciente(@PathVariable Long id, @RequestBody Paciente paciente,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Paciente pacienteActualizado = pacienteService.updatePaciente(id, paciente, Etag.versionEsperada(ifMatch));
         if (pacienteActualizado == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(pacienteActualizado);
+        return ResponseEntity.ok().eTag(Etag.de(pacienteActualizado.getVersion())).body(pacienteActualizado);
     }
 
     /**
@@ -107,29 +144,32 @@ public class PacienteControllerV2 {
      * @param id       ID del paciente a actualizar.
      * @param paciente Objeto {@link Paciente} con la información parcial a
      *                 actualizar.
+     * @param ifMatch  ETag que debe tener el paciente (opcional).
      * @return Objeto {@link Paciente} actualizado parcialmente.
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Paciente> actualizarPacienteParcial(@PathVariable Long id, @RequestBody Paciente paciente) {
-        Paciente pacienteActualizado = pacienteService.patchPaciente(id, paciente);
+    public ResponseEntity<Paciente> actualizarPacienteParcial(@PathVariable Long id, @RequestBody Paciente paciente,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Paciente pacienteActualizado = pacienteService.patchPaciente(id, paciente, Etag.versionEsperada(ifMatch));
         if (pacienteActualizado == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(pacienteActualizado);
+        return ResponseEntity.ok().eTag(Etag.de(pacienteActualizado.getVersion())).body(pacienteActualizado);
     }
 
     /**
      * Elimina un paciente del sistema por su ID.
      * 
-     * @param id ID del paciente a eliminar.
+     * @param id      ID del paciente a eliminar.
+     * @param ifMatch ETag que debe tener el paciente (opcional).
      * @return Respuesta con código de estado HTTP.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> eliminarPaciente(@PathVariable Long id) {
-        if (pacienteService.getPacienteById(id) == null) {
+    public ResponseEntity<Void> eliminarPaciente(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!pacienteService.deletePaciente(id, Etag.versionEsperada(ifMatch))) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        pacienteService.deletePaciente(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
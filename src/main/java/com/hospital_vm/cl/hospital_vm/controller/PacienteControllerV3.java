@@ -0,0 +1,77 @@
+package com.hospital_vm.cl.hospital_vm.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.PacienteReactivoService;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.shards.SinShards;
+import com.hospital_vm.cl.hospital_vm.util.Etag;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador REST de solo lectura de pacientes, no bloqueante, pensado para
+ * clientes con muchas consultas simultáneas (aplicación móvil, tótems).
+ *
+ * <p>Los métodos devuelven {@link Mono} o {@link Flux}: el hilo de Tomcat se
+ * libera apenas se arma la consulta y la respuesta se escribe cuando R2DBC
+ * entrega las filas. Los listados se envían como NDJSON (un objeto JSON por
+ * línea) a medida que el cliente los lee; si el cliente pide
+ * {@code application/json} se entregan como un arreglo.</p>
+ *
+ * <p>Lee de la base de datos de {@code spring.datasource}, por lo que no se
+ * registra cuando los pacientes se reparten en shards (ver
+ * {@link SinShards}).</p>
+ */
+@RestController
+@Conditional(SinShards.class)
+@RequestMapping("/v3/pacientes")
+public class PacienteControllerV3 {
+
+    @Autowired
+    private PacienteReactivoService pacienteReactivoService;
+
+    /**
+     * Obtiene un paciente por su ID.
+     *
+     * La respuesta incluye la versión del paciente en la cabecera {@code ETag}.
+     *
+     * @param id ID del paciente a buscar.
+     * @return Objeto {@link Paciente} correspondiente al ID proporcionado, o 404
+     *         si no existe.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Paciente>> obtenerPacientePorId(@PathVariable Long id) {
+        return pacienteReactivoService.getPacienteById(id)
+                .map(paciente -> ResponseEntity.ok().eTag(Etag.de(paciente.getVersion())).body(paciente))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Busca pacientes por prefijo de nombre y apellido, sin distinguir
+     * mayúsculas ni tildes, con el mismo orden de relevancia que
+     * {@code GET /pacientes/buscar}.
+     *
+     * @param q       Texto a buscar, por ejemplo {@code "ana per"}.
+     * @param pagina  Número de página (desde 0).
+     * @param tamanio Cantidad de resultados por página.
+     * @return Flujo de objetos {@link Paciente} ordenados por relevancia; vacío
+     *         si no hay coincidencias.
+     */
+    @GetMapping(value = "/buscar", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public Flux<Paciente> buscarPacientes(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "" + PacienteService.TAMANIO_BUSQUEDA_POR_DEFECTO) int tamanio) {
+        return pacienteReactivoService.buscarPacientes(q, pagina, tamanio);
+    }
+}
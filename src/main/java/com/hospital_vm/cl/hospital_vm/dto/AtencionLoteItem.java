@@ -0,0 +1,27 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Elemento de una carga de atenciones por lotes.
+ * Asocia una atención con el ID del paciente al que pertenece.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtencionLoteItem {
+
+    /**
+     * ID del paciente al que se asociará la atención.
+     */
+    private Long pacienteId;
+
+    /**
+     * Datos de la atención (sin el paciente).
+     */
+    private Atencion atencion;
+}
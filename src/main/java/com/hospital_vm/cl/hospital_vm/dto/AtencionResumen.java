@@ -0,0 +1,49 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección liviana de una atención para los listados.
+ * Incluye solo el ID del paciente; los datos completos del paciente se
+ * agregan únicamente cuando se solicitan de forma explícita.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AtencionResumen {
+
+    private Long id;
+
+    private LocalDate fechaAtencion;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime horaAtencion;
+
+    private Double costo;
+
+    private Long pacienteId;
+
+    /**
+     * Paciente de la atención. Solo se informa si se solicitó expandirlo.
+     */
+    private Paciente paciente;
+
+    /**
+     * Constructor utilizado por las consultas JPQL de proyección.
+     */
+    public AtencionResumen(Long id, LocalDate fechaAtencion, LocalTime horaAtencion, Double costo, Long pacienteId) {
+        this.id = id;
+        this.fechaAtencion = fechaAtencion;
+        this.horaAtencion = horaAtencion;
+        this.costo = costo;
+        this.pacienteId = pacienteId;
+    }
+}
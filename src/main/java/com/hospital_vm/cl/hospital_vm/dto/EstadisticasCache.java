@@ -0,0 +1,34 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estadísticas de uso de una caché en memoria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCache {
+
+    /**
+     * Cantidad de lecturas resueltas desde la caché.
+     */
+    private long aciertos;
+
+    /**
+     * Cantidad de lecturas que debieron consultar la base de datos.
+     */
+    private long fallos;
+
+    /**
+     * Cantidad de entradas expulsadas por tamaño o por expiración.
+     */
+    private long expulsiones;
+
+    /**
+     * Cantidad de entradas almacenadas actualmente.
+     */
+    private int tamanio;
+}
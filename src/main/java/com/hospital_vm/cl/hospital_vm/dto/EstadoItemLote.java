@@ -0,0 +1,22 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+/**
+ * Estado final de un elemento procesado en una operación por lotes.
+ */
+public enum EstadoItemLote {
+
+    /**
+     * El elemento se insertó en la base de datos.
+     */
+    CREADO,
+
+    /**
+     * El elemento ya existía y no se volvió a insertar.
+     */
+    EXISTENTE,
+
+    /**
+     * El elemento no se pudo procesar.
+     */
+    FALLIDO
+}
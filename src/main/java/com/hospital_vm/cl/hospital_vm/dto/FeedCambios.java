@@ -0,0 +1,40 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambios ocurridos desde una consulta anterior del feed de cambios.
+ *
+ * @param <T> Tipo de las entidades modificadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedCambios<T> {
+
+    /**
+     * Entidades creadas o modificadas, con su estado actual, ordenadas por
+     * secuencia de cambio.
+     */
+    private List<T> modificados;
+
+    /**
+     * IDs de las entidades eliminadas.
+     */
+    private List<Long> eliminados;
+
+    /**
+     * Valor que se debe enviar en {@code since} para obtener los cambios
+     * siguientes.
+     */
+    private Long siguiente;
+
+    /**
+     * Indica si quedaron cambios sin incluir por el límite de la respuesta.
+     */
+    private boolean hayMas;
+}
@@ -0,0 +1,22 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ID, nombre y apellido de un paciente, obtenidos sin cargar la entidad
+ * completa. Se utilizan para calcular las columnas de búsqueda de los
+ * pacientes registrados antes de que existieran.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NombrePaciente {
+
+    private Long id;
+
+    private String nombre;
+
+    private String apellido;
+}
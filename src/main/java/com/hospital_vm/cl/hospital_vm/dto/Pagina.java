@@ -0,0 +1,37 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de resultados obtenida mediante paginación por cursor (keyset).
+ * Contiene los elementos de la página y los cursores opacos para navegar
+ * a la página siguiente o anterior.
+ *
+ * @param <T> Tipo de los elementos de la página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Pagina<T> {
+
+    /**
+     * Elementos de la página, ordenados por ID ascendente.
+     */
+    private List<T> elementos;
+
+    /**
+     * Cursor para obtener la página siguiente o {@code null} si no hay más
+     * elementos.
+     */
+    private String cursorSiguiente;
+
+    /**
+     * Cursor para obtener la página anterior o {@code null} si es la primera
+     * página.
+     */
+    private String cursorAnterior;
+}
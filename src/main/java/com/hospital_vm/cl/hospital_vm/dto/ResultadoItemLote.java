@@ -0,0 +1,50 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado del procesamiento de un elemento dentro de una operación por
+ * lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoItemLote {
+
+    /**
+     * Posición del elemento en la solicitud original.
+     */
+    private int indice;
+
+    /**
+     * Estado final del elemento.
+     */
+    private EstadoItemLote estado;
+
+    /**
+     * ID del registro creado o existente, o {@code null} si el elemento falló.
+     */
+    private Long id;
+
+    /**
+     * Descripción del error si el elemento falló.
+     */
+    private String error;
+
+    public static ResultadoItemLote creado(int indice, Long id) {
+        return new ResultadoItemLote(indice, EstadoItemLote.CREADO, id, null);
+    }
+
+    public static ResultadoItemLote existente(int indice, Long id) {
+        return new ResultadoItemLote(indice, EstadoItemLote.EXISTENTE, id, null);
+    }
+
+    public static ResultadoItemLote fallido(int indice, String error) {
+        return new ResultadoItemLote(indice, EstadoItemLote.FALLIDO, null, error);
+    }
+}
@@ -0,0 +1,46 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una operación por lotes.
+ * Contiene el resultado de cada elemento, en el mismo orden de la solicitud,
+ * y los totales por estado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLote {
+
+    private int creados;
+
+    private int existentes;
+
+    private int fallidos;
+
+    private List<ResultadoItemLote> items;
+
+    /**
+     * Construye el resultado de un lote calculando los totales por estado.
+     * 
+     * @param items Resultados de cada elemento del lote.
+     * @return Objeto {@link ResultadoLote} con los totales.
+     */
+    public static ResultadoLote de(List<ResultadoItemLote> items) {
+        int creados = 0;
+        int existentes = 0;
+        int fallidos = 0;
+        for (ResultadoItemLote item : items) {
+            switch (item.getEstado()) {
+                case CREADO -> creados++;
+                case EXISTENTE -> existentes++;
+                case FALLIDO -> fallidos++;
+            }
+        }
+        return new ResultadoLote(creados, existentes, fallidos, items);
+    }
+}
@@ -0,0 +1,51 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de los costos de las atenciones de un paciente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCostos {
+
+    private Long pacienteId;
+
+    /**
+     * Cantidad de atenciones del paciente.
+     */
+    private long cantidad;
+
+    /**
+     * Suma de los costos de las atenciones.
+     */
+    private double total;
+
+    /**
+     * Costo promedio por atención, o 0 si el paciente no tiene atenciones.
+     */
+    private double promedio;
+
+    /**
+     * Constructor utilizado por las consultas JPQL de agregación.
+     */
+    public ResumenCostos(Long pacienteId, Long cantidad, Double total) {
+        this.pacienteId = pacienteId;
+        this.cantidad = cantidad != null ? cantidad : 0;
+        this.total = total != null ? total : 0;
+        this.promedio = this.cantidad > 0 ? this.total / this.cantidad : 0;
+    }
+
+    /**
+     * Crea el resumen de un paciente sin atenciones.
+     * 
+     * @param pacienteId ID del paciente.
+     * @return Objeto {@link ResumenCostos} con valores en cero.
+     */
+    public static ResumenCostos vacio(Long pacienteId) {
+        return new ResumenCostos(pacienteId, 0L, 0.0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agregado de las versiones de un conjunto de filas, obtenido con una sola
+ * consulta. Cambia si se agrega o elimina una fila (cantidad y suma de IDs) o
+ * si se modifica alguna (las versiones solo aumentan).
+ *
+ * <p>Las sumas no bastan para distinguir todos los contenidos: una fila que
+ * sale del conjunto y otra que entra con un ID y una versión que compensan
+ * las sumas darían el mismo agregado. Por eso se incluye también la mayor
+ * secuencia de cambio de las filas y de sus pacientes, que aumenta con cada
+ * modificación (ver {@code RelojCambios}).</p>
+ */
+@Data
+@NoArgsConstructor
+public class ResumenVersiones {
+
+    private long cantidad;
+
+    private long sumaIds;
+
+    private long sumaVersiones;
+
+    private long maximaSecuencia;
+
+    private long maximaSecuenciaPacientes;
+
+    /**
+     * Constructor utilizado por las consultas JPQL de agregación.
+     */
+    public ResumenVersiones(Long cantidad, Long sumaIds, Long sumaVersiones, Long maximaSecuencia,
+            Long maximaSecuenciaPacientes) {
+        this.cantidad = cantidad != null ? cantidad : 0;
+        this.sumaIds = sumaIds != null ? sumaIds : 0;
+        this.sumaVersiones = sumaVersiones != null ? sumaVersiones : 0;
+        this.maximaSecuencia = maximaSecuencia != null ? maximaSecuencia : 0;
+        this.maximaSecuenciaPacientes = maximaSecuenciaPacientes != null ? maximaSecuenciaPacientes : 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hospital_vm.cl.hospital_vm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ID y versión de una fila, obtenidos sin cargar la entidad completa. Se
+ * utilizan para calcular el ETag de una página y responder 304 si no cambió.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionFila {
+
+    private Long id;
+
+    private Long version;
+}
@@ -0,0 +1,368 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.model.TipoEvento;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Distribuye en vivo, mediante Server-Sent Events, los cambios de las
+ * atenciones a los clientes suscritos a sus pacientes.
+ *
+ * <p>Cada suscripción tiene una cola acotada de
+ * {@code hospital.atenciones.sse.buffer} mensajes, que un hilo de envío
+ * entrega al cliente. Quien modifica una atención solo agrega el mensaje a
+ * las colas, sin esperar el envío; si la cola de una suscripción está llena,
+ * el cliente no está leyendo al ritmo de los cambios y se le cierra la
+ * conexión, para que pueda reconectarse y volver a cargar las atenciones.</p>
+ *
+ * <p>Solo el hilo de envío de una suscripción usa su emisor: los métodos del
+ * emisor son {@code synchronized}, y un envío detenido en un cliente lento
+ * bloquearía a cualquier otro hilo que intente cerrarlo. Por eso quien
+ * escribe, y el latido, solo marcan la suscripción como cerrada, y el hilo de
+ * envío la completa al terminar el envío en curso. Los envíos usan a lo más
+ * {@code hospital.atenciones.sse.hilos} hilos; cada suscripción tiene como
+ * máximo un envío pendiente, por lo que la cola de envíos no supera la
+ * cantidad de suscripciones. Si aun así se rechaza un envío, la suscripción
+ * se descarta. Una suscripción cuyo envío lleva más de
+ * {@code hospital.atenciones.sse.espera-envio} se descarta en el siguiente
+ * latido; su hilo queda libre cuando vence la espera de escritura del
+ * servidor, y mientras tanto los demás clientes comparten el resto de los
+ * hilos.</p>
+ *
+ * <p>Los mensajes se difunden después de confirmar la transacción del
+ * cambio, de modo que nunca se informa un cambio que luego se revierte.</p>
+ */
+@Component
+public class DifusorAtenciones {
+
+    private static final Logger logger = LoggerFactory.getLogger(DifusorAtenciones.class);
+
+    private static final Set<DataWithMediaType> LATIDO = SseEmitter.event().comment("latido").build();
+
+    private final ConcurrentHashMap<Long, Set<Suscripcion>> suscripcionesPorPaciente = new ConcurrentHashMap<>();
+
+    private final Set<Suscripcion> suscripciones = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Suscripciones abiertas más las que se están creando, para respetar el
+     * máximo aunque se suscriban varios clientes a la vez.
+     */
+    private final AtomicInteger reservadas = new AtomicInteger();
+
+    private final LongAdder descartadas = new LongAdder();
+
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService envio;
+
+    private final int capacidad;
+
+    private final int maximoSuscripciones;
+
+    private final long timeoutMillis;
+
+    private final long esperaEnvioNanos;
+
+    /**
+     * @param hilos Máximo de hilos de envío, que se cierran tras un minuto
+     *              inactivos.
+     */
+    public DifusorAtenciones(ObjectMapper objectMapper,
+            @Value("${hospital.atenciones.sse.buffer:256}") int capacidad,
+            @Value("${hospital.atenciones.sse.max-suscripciones:1000}") int maximoSuscripciones,
+            @Value("${hospital.atenciones.sse.timeout:30m}") Duration timeout,
+            @Value("${hospital.atenciones.sse.hilos:4}") int hilos,
+            @Value("${hospital.atenciones.sse.espera-envio:10s}") Duration esperaEnvio) {
+        this.objectMapper = objectMapper;
+        this.capacidad = capacidad;
+        this.maximoSuscripciones = maximoSuscripciones;
+        this.timeoutMillis = timeout.toMillis();
+        this.esperaEnvioNanos = esperaEnvio.toNanos();
+
+        AtomicInteger numero = new AtomicInteger();
+        ThreadPoolExecutor ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(maximoSuscripciones), tarea -> {
+                    Thread hilo = new Thread(tarea, "sse-atenciones-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        ejecutor.allowCoreThreadTimeOut(true);
+        this.envio = ejecutor;
+    }
+
+    /**
+     * Crea una suscripción a los cambios de las atenciones de los pacientes
+     * indicados.
+     *
+     * @param pacienteIds IDs de los pacientes.
+     * @return Emisor SSE de la suscripción, o {@code null} si se alcanzó el
+     *         máximo de suscripciones simultáneas.
+     */
+    public SseEmitter suscribir(Set<Long> pacienteIds) {
+        if (reservadas.incrementAndGet() > maximoSuscripciones) {
+            reservadas.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter;
+        Suscripcion suscripcion;
+        try {
+            emitter = crearEmitter(timeoutMillis);
+            suscripcion = new Suscripcion(emitter, Set.copyOf(pacienteIds), capacidad);
+        } catch (RuntimeException e) {
+            reservadas.decrementAndGet();
+            throw e;
+        }
+        emitter.onCompletion(() -> quitar(suscripcion));
+        emitter.onTimeout(() -> quitar(suscripcion));
+        emitter.onError(error -> quitar(suscripcion));
+
+        // El cupo reservado se libera al quitar la suscripción
+        suscripciones.add(suscripcion);
+        for (Long pacienteId : suscripcion.pacienteIds) {
+            suscripcionesPorPaciente.compute(pacienteId, (id, actuales) -> {
+                Set<Suscripcion> conjunto = actuales != null ? actuales : ConcurrentHashMap.newKeySet();
+                conjunto.add(suscripcion);
+                return conjunto;
+            });
+        }
+        return emitter;
+    }
+
+    /**
+     * Crea el emisor de una suscripción.
+     */
+    SseEmitter crearEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Informa el cambio de una atención a los suscriptores de su paciente,
+     * una vez confirmada la transacción en curso. Si nadie está suscrito al
+     * paciente, no hace nada.
+     *
+     * @param atencion Atención modificada.
+     * @param tipo     Tipo de cambio, que se usa como nombre del evento SSE.
+     */
+    public void notificar(AtencionResumen atencion, TipoEvento tipo) {
+        Long pacienteId = atencion.getPacienteId();
+        if (pacienteId == null || !suscripcionesPorPaciente.containsKey(pacienteId)) {
+            return;
+        }
+
+        Set<DataWithMediaType> mensaje;
+        try {
+            // Se serializa una sola vez para todos los suscriptores
+            String json = objectMapper.writeValueAsString(atencion);
+            mensaje = SseEmitter.event()
+                    .name(tipo.name().toLowerCase(Locale.ROOT))
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.warn("[notificar] No se pudo serializar la atención {}: {}", atencion.getId(), e.getMessage());
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    difundir(pacienteId, mensaje);
+                }
+            });
+        } else {
+            difundir(pacienteId, mensaje);
+        }
+    }
+
+    /**
+     * Envía periódicamente un comentario SSE a todas las suscripciones, para
+     * que los proxies no cierren las conexiones inactivas y para detectar los
+     * clientes desconectados. Descarta las suscripciones con un envío
+     * detenido por más de {@code hospital.atenciones.sse.espera-envio}.
+     */
+    @Scheduled(fixedDelayString = "${hospital.atenciones.sse.latido:15s}")
+    public void enviarLatidos() {
+        long ahora = System.nanoTime();
+        for (Suscripcion suscripcion : suscripciones) {
+            long inicio = suscripcion.inicioEnvio;
+            if (inicio != 0 && ahora - inicio > esperaEnvioNanos) {
+                descartar(suscripcion);
+            } else {
+                encolar(suscripcion, LATIDO);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de suscripciones abiertas.
+     *
+     * @return Cantidad de suscripciones.
+     */
+    public int getSuscripciones() {
+        return suscripciones.size();
+    }
+
+    /**
+     * Obtiene la cantidad de suscripciones cerradas por no leer los mensajes
+     * a tiempo.
+     *
+     * @return Cantidad de suscripciones descartadas.
+     */
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        envio.shutdownNow();
+        for (Suscripcion suscripcion : suscripciones) {
+            quitar(suscripcion);
+            suscripcion.emitter.complete();
+        }
+    }
+
+    private void difundir(Long pacienteId, Set<DataWithMediaType> mensaje) {
+        Set<Suscripcion> destinatarios = suscripcionesPorPaciente.get(pacienteId);
+        if (destinatarios == null) {
+            return;
+        }
+        for (Suscripcion suscripcion : destinatarios) {
+            encolar(suscripcion, mensaje);
+        }
+    }
+
+    private void encolar(Suscripcion suscripcion, Set<DataWithMediaType> mensaje) {
+        if (suscripcion.cerrada) {
+            return;
+        }
+        if (!suscripcion.pendientes.offer(mensaje)) {
+            // Consumidor lento: se cierra en lugar de bloquear a quien escribe
+            descartar(suscripcion);
+            return;
+        }
+        programarEnvio(suscripcion);
+    }
+
+    /**
+     * Cierra una suscripción que no lee a tiempo. El emisor lo completa el
+     * hilo de envío.
+     */
+    private void descartar(Suscripcion suscripcion) {
+        if (quitar(suscripcion)) {
+            descartadas.increment();
+        }
+        programarEnvio(suscripcion);
+    }
+
+    private void programarEnvio(Suscripcion suscripcion) {
+        if (suscripcion.enviando.compareAndSet(false, true)) {
+            try {
+                envio.execute(() -> enviar(suscripcion));
+            } catch (RejectedExecutionException e) {
+                // Ningún hilo usa el emisor, porque no había un envío en curso
+                if (quitar(suscripcion)) {
+                    descartadas.increment();
+                }
+                suscripcion.emitter.complete();
+            }
+        }
+    }
+
+    private void enviar(Suscripcion suscripcion) {
+        try {
+            do {
+                Set<DataWithMediaType> mensaje;
+                while (!suscripcion.cerrada && (mensaje = suscripcion.pendientes.poll()) != null) {
+                    suscripcion.inicioEnvio = System.nanoTime();
+                    suscripcion.emitter.send(mensaje);
+                    suscripcion.inicioEnvio = 0;
+                }
+                if (suscripcion.cerrada) {
+                    // Queda marcada como enviando para no programar otro envío
+                    suscripcion.pendientes.clear();
+                    suscripcion.emitter.complete();
+                    return;
+                }
+                suscripcion.enviando.set(false);
+                // Un mensaje encolado justo después de vaciar la cola no
+                // programó otro envío, porque este seguía marcado como activo;
+                // lo mismo ocurre con una suscripción cerrada en ese momento
+            } while ((suscripcion.cerrada || !suscripcion.pendientes.isEmpty())
+                    && suscripcion.enviando.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // El cliente se desconectó o la respuesta ya terminó
+            quitar(suscripcion);
+        }
+    }
+
+    private boolean quitar(Suscripcion suscripcion) {
+        suscripcion.cerrada = true;
+        if (!suscripciones.remove(suscripcion)) {
+            return false;
+        }
+        reservadas.decrementAndGet();
+        for (Long pacienteId : suscripcion.pacienteIds) {
+            suscripcionesPorPaciente.computeIfPresent(pacienteId, (id, actuales) -> {
+                actuales.remove(suscripcion);
+                return actuales.isEmpty() ? null : actuales;
+            });
+        }
+        return true;
+    }
+
+    private static final class Suscripcion {
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> pacienteIds;
+
+        private final BlockingQueue<Set<DataWithMediaType>> pendientes;
+
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private volatile boolean cerrada;
+
+        /**
+         * Instante ({@link System#nanoTime()}) en que comenzó el envío en
+         * curso, o 0 si no se está enviando.
+         */
+        private volatile long inicioEnvio;
+
+        private Suscripcion(SseEmitter emitter, Set<Long> pacienteIds, int capacidad) {
+            this.emitter = emitter;
+            this.pacienteIds = pacienteIds;
+            this.pendientes = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+}
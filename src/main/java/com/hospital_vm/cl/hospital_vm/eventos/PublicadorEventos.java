@@ -0,0 +1,86 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+import com.hospital_vm.cl.hospital_vm.repository.EventoCambioRepository;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+
+/**
+ * Publica en segundo plano los eventos de cambio pendientes.
+ *
+ * <p>Cada {@code hospital.eventos.intervalo} se leen los eventos pendientes
+ * en lotes de a lo más {@code hospital.eventos.tamanio-lote}, se entregan al
+ * {@link SumideroEventos} configurado y se eliminan de la tabla. La tabla de
+ * pendientes actúa como cola persistente: las solicitudes nunca esperan al
+ * sumidero y, si este se atrasa o falla, los eventos se acumulan en la base
+ * de datos en lugar de en memoria, y solo se lee el lote siguiente cuando el
+ * anterior fue entregado. La entrega es al menos una vez.</p>
+ *
+ * <p>Con shards, cada shard tiene su tabla de pendientes y se publican uno
+ * tras otro.</p>
+ */
+@Component
+public class PublicadorEventos {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicadorEventos.class);
+
+    @Autowired
+    private EventoCambioRepository eventoCambioRepository;
+
+    @Autowired
+    private SumideroEventos sumidero;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
+    @Value("${hospital.eventos.tamanio-lote:500}")
+    private int tamanioLote;
+
+    /**
+     * Publica los eventos pendientes hasta vaciar la tabla o hasta que el
+     * sumidero falle.
+     *
+     * @return Cantidad de eventos publicados.
+     */
+    @Scheduled(fixedDelayString = "${hospital.eventos.intervalo:1s}")
+    public int publicarPendientes() {
+        int publicados = 0;
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            publicados += enrutador.enShard(shard, this::publicarPendientesDelShard);
+        }
+        return publicados;
+    }
+
+    private int publicarPendientesDelShard() {
+        int publicados = 0;
+        List<EventoCambio> lote;
+        do {
+            lote = eventoCambioRepository.findPendientes(PageRequest.of(0, tamanioLote));
+            if (lote.isEmpty()) {
+                break;
+            }
+            try {
+                sumidero.publicar(lote);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("[publicarPendientes] No se pudieron publicar {} eventos, se reintentará: {}",
+                        lote.size(), e.getMessage());
+                break;
+            }
+            // Se eliminan por ID, porque un evento con ID menor puede
+            // confirmarse después de uno mayor
+            eventoCambioRepository.deleteAllByIdInBatch(lote.stream().map(EventoCambio::getId).toList());
+            publicados += lote.size();
+        } while (lote.size() == tamanioLote);
+        return publicados;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+
+/**
+ * Sumidero que agrega los eventos a un archivo en formato NDJSON (un objeto
+ * JSON por línea). Es el sumidero por defecto.
+ *
+ * <p>Cada lote se escribe con una sola operación y se sincroniza con el
+ * disco antes de confirmarse, para que un evento no se elimine de la tabla
+ * de pendientes sin haber quedado en el archivo.</p>
+ *
+ * <p>La escritura se protege con un {@link ReentrantLock} y no con
+ * {@code synchronized}, para que un hilo virtual que espera el disco no
+ * quede fijado a su hilo portador.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "hospital.eventos.sumidero", havingValue = "archivo", matchIfMissing = true)
+public class SumideroArchivo implements SumideroEventos {
+
+    private final Path archivo;
+
+    private final ObjectWriter writer;
+
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    public SumideroArchivo(
+            @Value("${hospital.eventos.archivo:eventos/cambios.ndjson}") Path archivo,
+            ObjectMapper objectMapper) {
+        this.archivo = archivo;
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void publicar(List<EventoCambio> eventos) throws IOException {
+        ByteArrayOutputStream lineas = new ByteArrayOutputStream(eventos.size() * 256);
+        for (EventoCambio evento : eventos) {
+            writer.writeValue(lineas, evento);
+            lineas.write('\n');
+        }
+
+        escritura.lock();
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = ByteBuffer.wrap(lineas.toByteArray());
+                while (bytes.hasRemaining()) {
+                    canal.write(bytes);
+                }
+                canal.force(false);
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+}
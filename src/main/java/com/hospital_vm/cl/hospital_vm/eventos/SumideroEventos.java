@@ -0,0 +1,25 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+
+/**
+ * Destino al que {@link PublicadorEventos} entrega los eventos de cambio.
+ * La implementación se elige con la propiedad
+ * {@code hospital.eventos.sumidero}.
+ */
+public interface SumideroEventos {
+
+    /**
+     * Publica un lote de eventos, en el orden recibido. Si el método termina
+     * sin errores, los eventos se consideran entregados y se eliminan de la
+     * tabla de pendientes; si falla, el lote completo se reintenta más tarde,
+     * por lo que un evento puede entregarse más de una vez.
+     *
+     * @param eventos Eventos a publicar.
+     * @throws IOException Si no se pudo entregar el lote.
+     */
+    void publicar(List<EventoCambio> eventos) throws IOException;
+}
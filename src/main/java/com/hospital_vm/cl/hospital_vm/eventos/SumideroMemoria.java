@@ -0,0 +1,56 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+
+/**
+ * Sumidero que conserva los eventos en memoria, pensado para las pruebas.
+ * Guarda como máximo {@code hospital.eventos.memoria.capacidad} eventos y
+ * descarta los más antiguos al superarla.
+ */
+@Component
+@ConditionalOnProperty(name = "hospital.eventos.sumidero", havingValue = "memoria")
+public class SumideroMemoria implements SumideroEventos {
+
+    private final int capacidad;
+
+    private final Deque<EventoCambio> eventos = new ArrayDeque<>();
+
+    public SumideroMemoria(@Value("${hospital.eventos.memoria.capacidad:10000}") int capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    @Override
+    public synchronized void publicar(List<EventoCambio> lote) {
+        for (EventoCambio evento : lote) {
+            if (eventos.size() == capacidad) {
+                eventos.removeFirst();
+            }
+            eventos.addLast(evento);
+        }
+    }
+
+    /**
+     * Obtiene los eventos publicados, del más antiguo al más reciente.
+     *
+     * @return Copia de la lista de eventos.
+     */
+    public synchronized List<EventoCambio> getEventos() {
+        return new ArrayList<>(eventos);
+    }
+
+    /**
+     * Descarta todos los eventos publicados.
+     */
+    public synchronized void limpiar() {
+        eventos.clear();
+    }
+}
@@ -0,0 +1,205 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Cuenta las sentencias SQL que ejecuta cada solicitud HTTP (ver
+ * {@link ContadorConsultas}) y:
+ * <ul>
+ * <li>las informa en la cabecera {@value #CABECERA}, agregada justo antes de
+ * escribir la respuesta;</li>
+ * <li>las registra en la métrica {@value #METRICA}, etiquetada con el método y
+ * el patrón de la URI (las mismas etiquetas de
+ * {@code http.server.requests});</li>
+ * <li>las compara con el {@link PresupuestoConsultas} del método del
+ * controlador, si lo declara.</li>
+ * </ul>
+ *
+ * <p>El presupuesto se compara justo antes de confirmar la respuesta, con las
+ * sentencias ejecutadas hasta ese momento. En modo estricto, si se superó, la
+ * solicitud falla antes de escribir la respuesta, de modo que el cliente
+ * recibe un error y no un 200. Las sentencias ejecutadas después de confirmar
+ * la respuesta (p. ej. cargas diferidas durante la serialización) ya no
+ * pueden cambiar el código de estado: si superan el presupuesto, solo se
+ * registran como error.</p>
+ *
+ * <p>Si la respuesta continúa en otro hilo (p. ej. exportaciones en
+ * streaming), solo se cuentan las sentencias ejecutadas antes y no se agrega
+ * la cabecera.</p>
+ */
+@Component
+public class ConsultasPorSolicitudFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsultasPorSolicitudFilter.class);
+
+    public static final String METRICA = "hospital.http.consultas";
+
+    public static final String CABECERA = "X-Consultas-SQL";
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private final boolean presupuestoEstricto;
+
+    public ConsultasPorSolicitudFilter(ObjectProvider<MeterRegistry> registry,
+            @Value("${hospital.sql.presupuesto.estricto:false}") boolean presupuestoEstricto) {
+        this.registry = registry;
+        this.presupuestoEstricto = presupuestoEstricto;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContadorConsultas.iniciar();
+        RespuestaConConteo respuesta = new RespuestaConConteo(request, response);
+        int consultas;
+        try {
+            chain.doFilter(request, respuesta);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                respuesta.informar();
+            }
+            respuesta.cerrar();
+            consultas = ContadorConsultas.finalizar();
+        }
+
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry != null) {
+            DistributionSummary.builder(METRICA)
+                    .description("Sentencias SQL ejecutadas por solicitud HTTP")
+                    .baseUnit("consultas")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri != null ? uri.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(consultas);
+        }
+        if (!respuesta.excedida) {
+            verificarPresupuesto(request, consultas, response.isCommitted());
+        }
+    }
+
+    /**
+     * Compara las sentencias ejecutadas con el presupuesto del método del
+     * controlador.
+     *
+     * @param consultas  Sentencias ejecutadas.
+     * @param confirmada Si la respuesta ya se confirmó; en ese caso el modo
+     *                   estricto solo registra el error.
+     * @return {@code true} si se superó el presupuesto.
+     */
+    private boolean verificarPresupuesto(HttpServletRequest request, int consultas, boolean confirmada) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod metodo)) {
+            return false;
+        }
+        PresupuestoConsultas presupuesto = metodo.getMethodAnnotation(PresupuestoConsultas.class);
+        if (presupuesto == null || consultas <= presupuesto.value()) {
+            return false;
+        }
+        String mensaje = String.format("%s %s (%s) ejecutó %d sentencias SQL; su presupuesto es %d",
+                request.getMethod(), request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                metodo.getShortLogMessage(), consultas, presupuesto.value());
+        if (!presupuestoEstricto) {
+            logger.warn("[verificarPresupuesto] {}", mensaje);
+        } else if (confirmada) {
+            logger.error("[verificarPresupuesto] {}, después de confirmar la respuesta", mensaje);
+        } else {
+            throw new IllegalStateException(mensaje);
+        }
+        return true;
+    }
+
+    /**
+     * Agrega la cabecera {@value #CABECERA} y verifica el presupuesto antes de
+     * que se confirme la respuesta, con las sentencias ejecutadas hasta ese
+     * momento.
+     */
+    private final class RespuestaConConteo extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        private final Thread hilo = Thread.currentThread();
+
+        private volatile boolean informada;
+
+        /**
+         * Si ya se superó el presupuesto, para no volver a informarlo al
+         * terminar la solicitud.
+         */
+        private boolean excedida;
+
+        RespuestaConConteo(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        void informar() {
+            // Solo desde el hilo de la solicitud: en otro hilo no hay conteo
+            if (!informada && hilo == Thread.currentThread() && !isCommitted()) {
+                int consultas = ContadorConsultas.actual();
+                setHeader(CABECERA, String.valueOf(consultas));
+                informada = true;
+                excedida = verificarPresupuesto(request, consultas, false);
+            }
+            informada = true;
+        }
+
+        void cerrar() {
+            informada = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            informar();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            informar();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            informar();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            informar();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            informar();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            informar();
+            super.sendRedirect(location);
+        }
+    }
+}
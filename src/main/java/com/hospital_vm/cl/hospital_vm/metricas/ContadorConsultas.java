@@ -0,0 +1,83 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cuenta las sentencias SQL que se ejecutan en el hilo actual, informadas por
+ * {@link DataSourceMedido}. El conteo solo se realiza entre {@link #iniciar()}
+ * y {@link #finalizar()}; fuera de ese intervalo no se hace nada. Las tareas
+ * que la solicitud delega a otros hilos se cuentan si se envuelven con
+ * {@link #propagar(Supplier)}.
+ */
+public final class ContadorConsultas {
+
+    private static final ThreadLocal<AtomicInteger> CONTADOR = new ThreadLocal<>();
+
+    private ContadorConsultas() {
+    }
+
+    /**
+     * Comienza a contar las sentencias del hilo actual.
+     */
+    public static void iniciar() {
+        CONTADOR.set(new AtomicInteger());
+    }
+
+    /**
+     * Obtiene la cantidad de sentencias ejecutadas desde {@link #iniciar()}
+     * sin dejar de contar, o 0 si no se está contando.
+     */
+    public static int actual() {
+        AtomicInteger contador = CONTADOR.get();
+        return contador == null ? 0 : contador.get();
+    }
+
+    /**
+     * Deja de contar y devuelve la cantidad de sentencias ejecutadas desde
+     * {@link #iniciar()}, o 0 si no se estaba contando.
+     */
+    public static int finalizar() {
+        AtomicInteger contador = CONTADOR.get();
+        CONTADOR.remove();
+        return contador == null ? 0 : contador.get();
+    }
+
+    /**
+     * Envuelve una tarea que se ejecutará en otro hilo para que sus
+     * sentencias se sumen al conteo del hilo actual. Si no se está contando,
+     * devuelve la misma tarea.
+     *
+     * @param tarea Tarea a ejecutar en otro hilo.
+     * @return Tarea que cuenta sus sentencias en el conteo del hilo actual.
+     */
+    public static <T> Supplier<T> propagar(Supplier<T> tarea) {
+        AtomicInteger contador = CONTADOR.get();
+        if (contador == null) {
+            return tarea;
+        }
+        return () -> {
+            AtomicInteger anterior = CONTADOR.get();
+            CONTADOR.set(contador);
+            try {
+                return tarea.get();
+            } finally {
+                if (anterior == null) {
+                    CONTADOR.remove();
+                } else {
+                    CONTADOR.set(anterior);
+                }
+            }
+        };
+    }
+
+    /**
+     * Registra una sentencia ejecutada en el hilo actual.
+     */
+    static void registrar() {
+        AtomicInteger contador = CONTADOR.get();
+        if (contador != null) {
+            contador.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Envuelve un {@link DataSource} para medir cada sentencia SQL ejecutada por
+ * sus conexiones, sin importar si la ejecuta Hibernate, un
+ * {@code JdbcTemplate} o el código de la aplicación.
+ *
+ * <p>Cada ejecución se informa a {@link ContadorConsultas}. Las que tardan al
+ * menos el umbral configurado se registran en esta categoría (ver
+ * {@link MuestreoConsultasLentas}) con el SQL y la forma de sus parámetros:
+ * el tipo y, para textos y binarios, el largo. Los valores no se registran
+ * porque contienen datos de pacientes.</p>
+ *
+ * <p>Los envoltorios delegan {@code unwrap} e {@code isWrapperFor}, de modo
+ * que quienes necesitan el pool de Hikari lo siguen obteniendo.</p>
+ */
+public final class DataSourceMedido {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceMedido.class);
+
+    /**
+     * Valor registrado por {@code setNull}, para distinguirlo de un parámetro
+     * no asignado.
+     */
+    private static final Object NULO = new Object();
+
+    private DataSourceMedido() {
+    }
+
+    /**
+     * Envuelve un {@link DataSource}.
+     *
+     * @param dataSource DataSource original.
+     * @param umbral     Duración desde la cual una sentencia se registra como
+     *                   lenta.
+     * @return DataSource que mide las sentencias de sus conexiones.
+     */
+    public static DataSource envolver(DataSource dataSource, Duration umbral) {
+        long umbralNanos = umbral.toNanos();
+        return envoltorio(DataSource.class, dataSource, (destino, metodo, args) -> {
+            Object resultado = metodo.invoke(destino, args);
+            return resultado instanceof Connection conexion && "getConnection".equals(metodo.getName())
+                    ? envoltorio(Connection.class, conexion, new Conexion(umbralNanos))
+                    : resultado;
+        });
+    }
+
+    /**
+     * Forma de los parámetros de una sentencia, por ejemplo
+     * {@code [Long, String(12), null]}.
+     */
+    static String forma(List<Object> parametros) {
+        StringBuilder forma = new StringBuilder("[");
+        for (int i = 0; i < parametros.size(); i++) {
+            Object valor = parametros.get(i);
+            if (i > 0) {
+                forma.append(", ");
+            }
+            if (valor == null) {
+                forma.append('?');
+            } else if (valor == NULO) {
+                forma.append("null");
+            } else if (valor instanceof CharSequence texto) {
+                forma.append("String(").append(texto.length()).append(')');
+            } else if (valor instanceof byte[] bytes) {
+                forma.append("byte[").append(bytes.length).append(']');
+            } else {
+                forma.append(valor.getClass().getSimpleName());
+            }
+        }
+        return forma.append(']').toString();
+    }
+
+    /**
+     * Invocación sobre el objeto envuelto.
+     */
+    @FunctionalInterface
+    private interface Delegacion {
+        Object invocar(Object destino, Method metodo, Object[] args) throws Exception;
+    }
+
+    private static <T> T envoltorio(Class<T> tipo, Object destino, Delegacion delegacion) {
+        InvocationHandler manejador = (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    try {
+                        return delegacion.invocar(destino, metodo, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        };
+        return tipo.cast(Proxy.newProxyInstance(DataSourceMedido.class.getClassLoader(), new Class<?>[] { tipo },
+                manejador));
+    }
+
+    /**
+     * Envuelve las sentencias que crea una conexión.
+     */
+    private record Conexion(long umbralNanos) implements Delegacion {
+
+        @Override
+        public Object invocar(Object destino, Method metodo, Object[] args) throws Exception {
+            Object resultado = metodo.invoke(destino, args);
+            if (resultado instanceof Statement sentencia) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String texto ? texto : null;
+                return envoltorio(metodo.getReturnType(), sentencia, new Sentencia(sql, umbralNanos));
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Mide las ejecuciones de una sentencia y recuerda sus parámetros.
+     */
+    private static final class Sentencia implements Delegacion {
+
+        private final String sql;
+
+        private final long umbralNanos;
+
+        private final List<Object> parametros = new ArrayList<>();
+
+        private int lotes;
+
+        Sentencia(String sql, long umbralNanos) {
+            this.sql = sql;
+            this.umbralNanos = umbralNanos;
+        }
+
+        @Override
+        public Object invocar(Object destino, Method metodo, Object[] args) throws Exception {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("execute")) {
+                return ejecutar(destino, metodo, args);
+            }
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                parametro(indice, "setNull".equals(nombre) ? NULO : args[1]);
+            } else if ("addBatch".equals(nombre)) {
+                lotes++;
+            } else if ("clearParameters".equals(nombre)) {
+                parametros.clear();
+            } else if ("clearBatch".equals(nombre)) {
+                lotes = 0;
+            }
+            return metodo.invoke(destino, args);
+        }
+
+        private Object ejecutar(Object destino, Method metodo, Object[] args) throws Exception {
+            long inicio = System.nanoTime();
+            try {
+                return metodo.invoke(destino, args);
+            } finally {
+                long duracion = System.nanoTime() - inicio;
+                ContadorConsultas.registrar();
+                if (duracion >= umbralNanos) {
+                    String texto = args != null && args.length > 0 && args[0] instanceof String sqlDirecto
+                            ? sqlDirecto
+                            : sql;
+                    logger.warn("[consultaLenta] {} ms, parámetros {}{}: {}",
+                            TimeUnit.NANOSECONDS.toMillis(duracion), forma(parametros),
+                            lotes > 0 ? ", lotes " + lotes : "", texto);
+                }
+                if ("executeBatch".equals(metodo.getName()) || "executeLargeBatch".equals(metodo.getName())) {
+                    lotes = 0;
+                }
+            }
+        }
+
+        private void parametro(int indice, Object valor) {
+            while (parametros.size() < indice) {
+                parametros.add(null);
+            }
+            parametros.set(indice - 1, valor);
+        }
+    }
+}
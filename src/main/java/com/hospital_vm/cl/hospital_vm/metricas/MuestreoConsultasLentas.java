@@ -0,0 +1,67 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Filtro de Logback que deja pasar solo una de cada {@code n} entradas del
+ * registro de consultas lentas de {@link DataSourceMedido}.
+ *
+ * <p>Una consulta lenta suele repetirse en cada solicitud que la usa; con el
+ * muestreo el registro conserva ejemplos de cada una sin crecer al ritmo del
+ * tráfico. Todas las entradas, registradas o no, se cuentan en
+ * {@link #getDetectadas()}. Las demás categorías no se ven afectadas.</p>
+ */
+public class MuestreoConsultasLentas extends TurboFilter {
+
+    /**
+     * Categoría en la que se registran las consultas lentas.
+     */
+    public static final String CATEGORIA = DataSourceMedido.class.getName();
+
+    private final int cadaN;
+
+    private final AtomicLong detectadas = new AtomicLong();
+
+    /**
+     * @param cadaN Se registra una de cada {@code cadaN} consultas lentas; con
+     *              1 se registran todas.
+     * @throws IllegalArgumentException si {@code cadaN} es menor que 1.
+     */
+    public MuestreoConsultasLentas(int cadaN) {
+        if (cadaN < 1) {
+            throw new IllegalArgumentException("El muestreo debe ser 1 o mayor: " + cadaN);
+        }
+        this.cadaN = cadaN;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        // Sin mensaje es solo una consulta de nivel (isWarnEnabled): la resuelve el nivel configurado
+        if (format == null || !CATEGORIA.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return detectadas.getAndIncrement() % cadaN == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    /**
+     * Obtiene la cantidad de consultas lentas registradas desde que se inició
+     * el filtro, incluidas las descartadas por el muestreo.
+     *
+     * @return Consultas lentas detectadas.
+     */
+    public long getDetectadas() {
+        return detectadas.get();
+    }
+
+    public int getCadaN() {
+        return cadaN;
+    }
+}
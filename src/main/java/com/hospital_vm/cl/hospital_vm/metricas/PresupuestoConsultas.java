@@ -0,0 +1,28 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cantidad máxima de sentencias SQL que puede ejecutar una solicitud atendida
+ * por el método anotado de un controlador, sin importar cuántos resultados
+ * devuelva. Superarla suele indicar un problema N+1.
+ *
+ * <p>{@link ConsultasPorSolicitudFilter} la verifica en cada solicitud: la
+ * registra como advertencia o, con
+ * {@code hospital.sql.presupuesto.estricto=true} (perfil de pruebas), hace
+ * fallar la solicitud.</p>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PresupuestoConsultas {
+
+    /**
+     * Sentencias SQL permitidas por solicitud.
+     */
+    int value();
+}
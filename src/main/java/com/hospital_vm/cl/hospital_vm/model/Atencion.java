@@ -1,13 +1,29 @@
 package com.hospital_vm.cl.hospital_vm.model;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hospital_vm.cl.hospital_vm.shards.IdShard;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,33 +33,54 @@ import lombok.NoArgsConstructor;
  * Contiene información como fecha, hora, costo, paciente asociado y un comentario.
  */
 @Entity
-@Table(name = "atencion")
+@Table(name = "atencion", indexes = {
+        @Index(name = "idx_atencion_paciente_fecha", columnList = "id_paciente, fecha_atencion"),
+        @Index(name = "idx_atencion_fecha", columnList = "fecha_atencion"),
+        @Index(name = "idx_atencion_secuencia_cambio", columnList = "secuencia_cambio")
+})
+@EntityListeners(MarcaCambiosListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Atencion.REGION_CACHE)
+@NamedEntityGraph(name = Atencion.GRAFO_CON_PACIENTE, attributeNodes = @NamedAttributeNode("paciente"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Atencion {
+public class Atencion implements ConCambios {
+
+    /**
+     * Nombre del grafo de entidad que carga la atención junto a su paciente.
+     */
+    public static final String GRAFO_CON_PACIENTE = "Atencion.paciente";
+
+    /**
+     * Región de la caché de segundo nivel de Hibernate para las atenciones.
+     */
+    public static final String REGION_CACHE = "atencion";
 
     /**
      * Identificador único de la atención.
-     * Generado automáticamente por la base de datos.
+     * Generado a partir de una secuencia con optimizador pooled, lo que permite
+     * que Hibernate agrupe las inserciones en lotes JDBC.
+     * Con shards, incluye el número de shard de su paciente (ver {@link IdShard}).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdShard(secuencia = "atencion_seq", tamanioAsignacion = 50)
     private Long id;
 
     /**
      * Fecha de la atención.
-     * Este campo es obligatorio.
+     * Este campo es obligatorio y está indexado para las consultas por rango de
+     * fechas.
      */
     @Column(name = "fecha_atencion", nullable = false)
-    private String fechaAtencion;
+    private LocalDate fechaAtencion;
 
     /**
      * Hora de la atención.
      * Este campo es obligatorio.
      */
     @Column(name = "hora_atencion", nullable = false)
-    private String horaAtencion;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime horaAtencion;
 
     /**
      * Costo de la atención.
@@ -62,9 +99,36 @@ public class Atencion {
     /**
      * Paciente asociado a la atención.
      * Este campo es obligatorio y representa una relación muchos-a-uno con la entidad {@link Paciente}.
+     * Se carga de forma diferida; las consultas que lo necesitan usan el grafo
+     * {@value #GRAFO_CON_PACIENTE}.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_paciente", nullable = false)
     private Paciente paciente;
 
+    /**
+     * Versión de la atención para el control de concurrencia optimista.
+     */
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Fecha y hora de la última modificación de la atención.
+     */
+    @Column(name = "ultima_modificacion")
+    private Instant ultimaModificacion;
+
+    /**
+     * Posición de la última modificación de la atención en la secuencia de cambios
+     * (ver {@link com.hospital_vm.cl.hospital_vm.util.RelojCambios}). Permite
+     * obtener las atenciones modificadas desde una consulta anterior.
+     */
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "secuencia_cambio", nullable = false)
+    private Long secuenciaCambio;
+
 }
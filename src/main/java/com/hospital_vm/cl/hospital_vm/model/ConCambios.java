@@ -0,0 +1,16 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+import java.time.Instant;
+
+/**
+ * Entidad que registra cuándo se modificó por última vez, para el feed de
+ * cambios. Los valores los asigna {@link MarcaCambiosListener}.
+ */
+public interface ConCambios {
+
+    Long getSecuenciaCambio();
+
+    void setUltimaModificacion(Instant ultimaModificacion);
+
+    void setSecuenciaCambio(Long secuenciaCambio);
+}
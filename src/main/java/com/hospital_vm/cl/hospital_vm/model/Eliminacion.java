@@ -0,0 +1,62 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marca que deja la eliminación de un paciente o de una atención, para que el
+ * feed de cambios pueda informarla a quienes ya tenían una copia. Las marcas
+ * se conservan durante {@code hospital.cambios.retencion}.
+ */
+@Entity
+@Table(name = "eliminacion", indexes = {
+        @Index(name = "idx_eliminacion_entidad_secuencia", columnList = "entidad, secuencia_cambio")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Eliminacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eliminacion_seq")
+    @SequenceGenerator(name = "eliminacion_seq", sequenceName = "eliminacion_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Tipo de entidad eliminada.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entidad", nullable = false, length = 20)
+    private EntidadEvento entidad;
+
+    /**
+     * ID de la entidad eliminada.
+     */
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    /**
+     * Posición de la eliminación en la secuencia de cambios.
+     */
+    @Column(name = "secuencia_cambio", nullable = false)
+    private Long secuenciaCambio;
+
+    /**
+     * Momento de la eliminación.
+     */
+    @Column(name = "fecha", nullable = false)
+    private Instant fecha;
+}
@@ -0,0 +1,17 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+/**
+ * Entidad a la que se refiere un {@link EventoCambio}.
+ */
+public enum EntidadEvento {
+
+    /**
+     * Un {@link Paciente}.
+     */
+    PACIENTE,
+
+    /**
+     * Una {@link Atencion}.
+     */
+    ATENCION
+}
@@ -0,0 +1,75 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento de cambio de un paciente o de una atención, pendiente de publicar.
+ * Los servicios lo insertan en la misma transacción que el cambio, por lo
+ * que solo existe si el cambio se confirmó; el publicador lo elimina una vez
+ * que lo entregó al sumidero configurado.
+ */
+@Entity
+@Table(name = "evento_cambio")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoCambio {
+
+    /**
+     * Identificador del evento. Crece con el orden de inserción, aunque dos
+     * transacciones concurrentes pueden confirmar sus eventos en otro orden.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_cambio_seq")
+    @SequenceGenerator(name = "evento_cambio_seq", sequenceName = "evento_cambio_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Tipo de entidad modificada.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entidad", nullable = false, length = 20)
+    private EntidadEvento entidad;
+
+    /**
+     * ID de la entidad modificada.
+     */
+    @Column(name = "entidad_id", nullable = false)
+    private Long entidadId;
+
+    /**
+     * Tipo de cambio.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 20)
+    private TipoEvento tipo;
+
+    /**
+     * Momento en que se registró el cambio.
+     */
+    @Column(name = "fecha", nullable = false)
+    private Instant fecha;
+
+    /**
+     * Estado de la entidad después del cambio (o antes de eliminarla), en
+     * formato JSON.
+     */
+    @JsonRawValue
+    @Column(name = "datos", length = 4000)
+    private String datos;
+}
@@ -0,0 +1,22 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+import java.time.Instant;
+
+import com.hospital_vm.cl.hospital_vm.util.RelojCambios;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Asigna la fecha de modificación y la secuencia de cambio a las entidades
+ * {@link ConCambios} cada vez que se insertan o se modifican.
+ */
+public class MarcaCambiosListener {
+
+    @PrePersist
+    @PreUpdate
+    public void marcar(ConCambios entidad) {
+        entidad.setUltimaModificacion(Instant.now());
+        entidad.setSecuenciaCambio(RelojCambios.siguiente());
+    }
+}
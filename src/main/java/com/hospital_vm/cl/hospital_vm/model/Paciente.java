@@ -1,11 +1,27 @@
 package com.hospital_vm.cl.hospital_vm.model;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.hospital_vm.cl.hospital_vm.shards.IdShard;
+import com.hospital_vm.cl.hospital_vm.util.Normalizador;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,18 +32,38 @@ import lombok.NoArgsConstructor;
  * nacimiento y correo electrónico.
  */
 @Entity
-@Table(name = "paciente")
+@Table(name = "paciente", indexes = {
+        @Index(name = "idx_paciente_nombre_normalizado", columnList = "nombre_normalizado, apellido_normalizado"),
+        @Index(name = "idx_paciente_apellido_normalizado", columnList = "apellido_normalizado, nombre_normalizado"),
+        @Index(name = "idx_paciente_secuencia_cambio", columnList = "secuencia_cambio")
+})
+@EntityListeners(MarcaCambiosListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Paciente.REGION_CACHE)
+@NaturalIdCache(region = Paciente.REGION_CACHE_RUN)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Paciente {
+public class Paciente implements ConCambios {
+
+    /**
+     * Región de la caché de segundo nivel de Hibernate para los pacientes.
+     */
+    public static final String REGION_CACHE = "paciente";
+
+    /**
+     * Región de la caché de segundo nivel que resuelve RUN a ID.
+     */
+    public static final String REGION_CACHE_RUN = "paciente-run";
 
     /**
      * Identificador único del paciente.
-     * Generado automáticamente por la base de datos.
+     * Generado a partir de una secuencia con optimizador pooled, lo que permite
+     * que Hibernate agrupe las inserciones en lotes JDBC.
+     * Con shards, incluye el número de shard del paciente (ver {@link IdShard}).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdShard(secuencia = "paciente_seq", tamanioAsignacion = 50)
     private Long id;
 
     /**
@@ -47,7 +83,10 @@ public class Paciente {
     /**
      * RUN (Rol Único Nacional) del paciente.
      * Este campo es obligatorio, único y tiene un máximo de 13 caracteres.
+     * Es el identificador natural del paciente, por lo que las búsquedas por
+     * RUN pueden resolverse desde la caché de segundo nivel.
      */
+    @NaturalId(mutable = true)
     @Column(name = "run", nullable = false, unique = true, length = 13)
     private String run;
 
@@ -71,4 +110,56 @@ public class Paciente {
      */
     @Column(name = "correo", nullable = false)
     private String correo;
-}
\ No newline at end of file
+
+    /**
+     * Nombre normalizado (sin tildes y en minúsculas) para las búsquedas por
+     * prefijo. Se calcula automáticamente al guardar el paciente.
+     */
+    @JsonIgnore
+    @Column(name = "nombre_normalizado")
+    private String nombreNormalizado;
+
+    /**
+     * Apellido normalizado (sin tildes y en minúsculas) para las búsquedas por
+     * prefijo. Se calcula automáticamente al guardar el paciente.
+     */
+    @JsonIgnore
+    @Column(name = "apellido_normalizado")
+    private String apellidoNormalizado;
+
+    /**
+     * Versión del paciente para el control de concurrencia optimista.
+     * Se incrementa en cada actualización y se expone como ETag.
+     */
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Fecha y hora de la última modificación del paciente.
+     */
+    @Column(name = "ultima_modificacion")
+    private Instant ultimaModificacion;
+
+    /**
+     * Posición de la última modificación del paciente en la secuencia de cambios
+     * (ver {@link com.hospital_vm.cl.hospital_vm.util.RelojCambios}). Permite
+     * obtener los pacientes modificados desde una consulta anterior.
+     */
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "secuencia_cambio", nullable = false)
+    private Long secuenciaCambio;
+
+    /**
+     * Recalcula las columnas de búsqueda a partir del nombre y el apellido.
+     */
+    @PrePersist
+    @PreUpdate
+    public void normalizar() {
+        this.nombreNormalizado = Normalizador.normalizar(nombre);
+        this.apellidoNormalizado = Normalizador.normalizar(apellido);
+    }
+}
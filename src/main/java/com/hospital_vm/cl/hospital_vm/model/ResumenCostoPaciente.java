@@ -0,0 +1,45 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad que mantiene, por paciente, la cantidad y el costo total de sus
+ * atenciones. Se actualiza de forma incremental cada vez que se crea,
+ * actualiza o elimina una atención, para responder los resúmenes de costos
+ * sin recorrer la tabla de atenciones.
+ */
+@Entity
+@Table(name = "resumen_costo_paciente", indexes = {
+        @Index(name = "idx_resumen_costo_total", columnList = "total")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCostoPaciente {
+
+    /**
+     * ID del paciente al que corresponde el resumen.
+     */
+    @Id
+    @Column(name = "id_paciente")
+    private Long pacienteId;
+
+    /**
+     * Cantidad de atenciones del paciente.
+     */
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad;
+
+    /**
+     * Suma de los costos de las atenciones del paciente.
+     */
+    @Column(name = "total", nullable = false)
+    private Double total;
+}
@@ -0,0 +1,22 @@
+package com.hospital_vm.cl.hospital_vm.model;
+
+/**
+ * Tipo de cambio registrado en un {@link EventoCambio}.
+ */
+public enum TipoEvento {
+
+    /**
+     * La entidad se insertó en la base de datos.
+     */
+    CREADO,
+
+    /**
+     * La entidad existente se modificó.
+     */
+    ACTUALIZADO,
+
+    /**
+     * La entidad se eliminó.
+     */
+    ELIMINADO
+}
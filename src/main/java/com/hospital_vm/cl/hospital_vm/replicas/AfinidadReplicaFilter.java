@@ -0,0 +1,33 @@
+package com.hospital_vm.cl.hospital_vm.replicas;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Hace que todas las transacciones de solo lectura de una solicitud usen la
+ * misma réplica (ver {@link DataSourceReplicas}). Sin esto, el ETag y la lista
+ * de una misma respuesta podrían leerse de réplicas con distinto retraso.
+ */
+@Component
+@ConditionalOnProperty(name = "hospital.replicas.urls")
+public class AfinidadReplicaFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        DataSourceReplicas.iniciarAfinidad();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceReplicas.finalizarAfinidad();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.hospital_vm.cl.hospital_vm.replicas;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link DataSource} que entrega conexiones de una réplica de lectura a las
+ * transacciones {@code @Transactional(readOnly = true)} y de la primaria a
+ * todo lo demás.
+ *
+ * <p>La réplica se elige según la {@link EstrategiaReplicas}, entre las que
+ * respondieron a la última verificación y cuyo retraso no supera
+ * {@code retrasoMaximo}. Si una réplica falla al entregar una conexión deja de
+ * usarse hasta la próxima verificación; si no queda ninguna, la lectura se
+ * hace en la primaria. Dentro de una solicitud HTTP todas las lecturas usan la
+ * misma réplica (ver {@link AfinidadReplicaFilter}), para que dos consultas
+ * de la misma respuesta, como el ETag y la lista, no vean estados distintos.</p>
+ *
+ * <p>La decisión se toma al pedir la conexión, por eso debe usarse detrás de
+ * un {@code LazyConnectionDataSourceProxy} y con Hibernate liberando la
+ * conexión al terminar cada transacción (ver {@code ReplicasConfig}).</p>
+ */
+public class DataSourceReplicas extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceReplicas.class);
+
+    /**
+     * Réplica elegida en la solicitud actual, si se inició la afinidad. Un
+     * arreglo vacío indica que aún no se eligió.
+     */
+    private static final ThreadLocal<Replica[]> AFINIDAD = new ThreadLocal<>();
+
+    private final DataSource primaria;
+
+    private final List<Replica> replicas;
+
+    private final EstrategiaReplicas estrategia;
+
+    private final Duration retrasoMaximo;
+
+    private final String consultaRetraso;
+
+    private final AtomicInteger turno = new AtomicInteger();
+
+    private final LongAdder lecturasEnPrimaria = new LongAdder();
+
+    /**
+     * @param primaria        Base de datos primaria.
+     * @param replicas        Réplicas de lectura.
+     * @param estrategia      Forma de elegir la réplica.
+     * @param retrasoMaximo   Retraso a partir del cual una réplica deja de
+     *                        recibir lecturas.
+     * @param consultaRetraso Consulta que informa el retraso de una réplica en
+     *                        segundos (en MySQL, {@code SHOW REPLICA STATUS}),
+     *                        o {@code null} para considerar que no se retrasan.
+     */
+    public DataSourceReplicas(DataSource primaria, List<Replica> replicas, EstrategiaReplicas estrategia,
+            Duration retrasoMaximo, String consultaRetraso) {
+        this.primaria = primaria;
+        this.replicas = List.copyOf(replicas);
+        this.estrategia = estrategia;
+        this.retrasoMaximo = retrasoMaximo;
+        this.consultaRetraso = consultaRetraso;
+    }
+
+    /**
+     * Hace que las lecturas del hilo actual usen una misma réplica hasta
+     * {@link #finalizarAfinidad()}, mientras siga disponible.
+     */
+    public static void iniciarAfinidad() {
+        AFINIDAD.set(new Replica[1]);
+    }
+
+    /**
+     * Termina la afinidad iniciada con {@link #iniciarAfinidad()}.
+     */
+    public static void finalizarAfinidad() {
+        AFINIDAD.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return primaria.getConnection();
+        }
+
+        Replica[] afinidad = AFINIDAD.get();
+        if (afinidad != null && afinidad[0] != null && utilizable(afinidad[0])) {
+            Connection conexion = conectar(afinidad[0]);
+            if (conexion != null) {
+                return conexion;
+            }
+        }
+        for (Replica replica : candidatas()) {
+            Connection conexion = conectar(replica);
+            if (conexion != null) {
+                if (afinidad != null) {
+                    afinidad[0] = replica;
+                }
+                return conexion;
+            }
+        }
+
+        lecturasEnPrimaria.increment();
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Las conexiones usan las credenciales de cada pool");
+    }
+
+    /**
+     * Obtiene las réplicas utilizables en el orden en que se deben intentar.
+     */
+    private List<Replica> candidatas() {
+        int inicio = Math.floorMod(turno.getAndIncrement(), replicas.size());
+        List<Replica> candidatas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (utilizable(replica)) {
+                candidatas.add(replica);
+            }
+        }
+        if (estrategia == EstrategiaReplicas.MENOS_CARGADA) {
+            // El orden es estable: con la misma carga se respeta el turno
+            candidatas.sort(Comparator.comparingInt(Replica::getConexionesActivas));
+        }
+        return candidatas;
+    }
+
+    private Connection conectar(Replica replica) {
+        try {
+            return replica.entregar(replica.getDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            if (replica.marcarNoDisponible()) {
+                logger.warn("[getConnection] La réplica {} no entregó una conexión, se deja de usar hasta la "
+                        + "próxima verificación: {}", replica.getNombre(), e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Indica si la réplica puede recibir lecturas: respondió a la última
+     * verificación y su retraso es conocido y no supera el máximo.
+     */
+    public boolean utilizable(Replica replica) {
+        Duration retraso = replica.getRetraso();
+        return replica.isDisponible() && retraso != null && retraso.compareTo(retrasoMaximo) <= 0;
+    }
+
+    /**
+     * Verifica periódicamente que cada réplica responda y mide su retraso.
+     * Se registra cada vez que una réplica deja de recibir lecturas o vuelve
+     * a recibirlas.
+     */
+    @Scheduled(fixedDelayString = "${hospital.replicas.intervalo-verificacion:5s}")
+    public void verificar() {
+        for (Replica replica : replicas) {
+            boolean antes = utilizable(replica);
+            try (Connection conexion = replica.getDataSource().getConnection()) {
+                if (!conexion.isValid(1)) {
+                    throw new SQLException("La conexión no es válida");
+                }
+                replica.actualizar(true, consultaRetraso == null ? Duration.ZERO : medirRetraso(conexion));
+            } catch (SQLException | RuntimeException e) {
+                replica.actualizar(false, replica.getRetraso());
+                logger.debug("[verificar] La réplica {} no responde: {}", replica.getNombre(), e.getMessage());
+            }
+
+            boolean despues = utilizable(replica);
+            if (antes && !despues) {
+                logger.warn("[verificar] La réplica {} deja de recibir lecturas: {}", replica.getNombre(),
+                        describir(replica));
+            } else if (!antes && despues) {
+                logger.info("[verificar] La réplica {} vuelve a recibir lecturas: {}", replica.getNombre(),
+                        describir(replica));
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la consulta de retraso. Se usa la columna
+     * {@code Seconds_Behind_Source} (o {@code Seconds_Behind_Master} en
+     * versiones anteriores de MySQL) si existe y, si no, la primera.
+     *
+     * @return Retraso de la réplica o {@code null} si no está replicando.
+     */
+    private Duration medirRetraso(Connection conexion) throws SQLException {
+        try (Statement sentencia = conexion.createStatement();
+                ResultSet resultado = sentencia.executeQuery(consultaRetraso)) {
+            if (!resultado.next()) {
+                return null;
+            }
+            int columna = 1;
+            ResultSetMetaData metadatos = resultado.getMetaData();
+            for (int i = 1; i <= metadatos.getColumnCount(); i++) {
+                String nombre = metadatos.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(nombre)
+                        || "Seconds_Behind_Master".equalsIgnoreCase(nombre)) {
+                    columna = i;
+                    break;
+                }
+            }
+            long segundos = resultado.getLong(columna);
+            return resultado.wasNull() ? null : Duration.ofSeconds(segundos);
+        }
+    }
+
+    private String describir(Replica replica) {
+        if (!replica.isDisponible()) {
+            return "no responde";
+        }
+        if (replica.getRetraso() == null) {
+            return "no está replicando";
+        }
+        return "retraso de " + replica.getRetraso().toSeconds() + " s (máximo " + retrasoMaximo.toSeconds() + " s)";
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public EstrategiaReplicas getEstrategia() {
+        return estrategia;
+    }
+
+    public Duration getRetrasoMaximo() {
+        return retrasoMaximo;
+    }
+
+    /**
+     * Obtiene las transacciones de solo lectura que se hicieron en la primaria
+     * porque no había réplicas utilizables.
+     */
+    public long getLecturasEnPrimaria() {
+        return lecturasEnPrimaria.sum();
+    }
+
+    /**
+     * Permite llegar al pool de la primaria (por ejemplo, a Hikari) a través
+     * de este {@link DataSource}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : primaria.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primaria.isWrapperFor(iface);
+    }
+
+    /**
+     * Cierra los pools de las réplicas. La primaria la cierra quien la creó.
+     */
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.hospital_vm.cl.hospital_vm.replicas;
+
+/**
+ * Forma en que {@link DataSourceReplicas} elige la réplica de cada
+ * transacción de solo lectura.
+ */
+public enum EstrategiaReplicas {
+
+    /**
+     * Las réplicas disponibles se turnan en orden.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Se elige la réplica disponible con menos conexiones en uso; los empates
+     * se resuelven por turno.
+     */
+    MENOS_CARGADA
+}
@@ -0,0 +1,118 @@
+package com.hospital_vm.cl.hospital_vm.replicas;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica de lectura de la base de datos y su estado: si responde, cuánto se
+ * retrasa respecto de la primaria y cuántas conexiones tiene entregadas. El
+ * estado lo mantiene {@link DataSourceReplicas}.
+ */
+public final class Replica {
+
+    private final String nombre;
+
+    private final DataSource dataSource;
+
+    private final AtomicInteger conexionesActivas = new AtomicInteger();
+
+    private final LongAdder lecturas = new LongAdder();
+
+    private volatile boolean disponible = true;
+
+    /**
+     * Retraso de la última verificación; {@code null} si la réplica no está
+     * replicando o no se pudo medir.
+     */
+    private volatile Duration retraso = Duration.ZERO;
+
+    public Replica(String nombre, DataSource dataSource) {
+        this.nombre = nombre;
+        this.dataSource = dataSource;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public Duration getRetraso() {
+        return retraso;
+    }
+
+    /**
+     * Obtiene las conexiones de la réplica que están en uso.
+     */
+    public int getConexionesActivas() {
+        return conexionesActivas.get();
+    }
+
+    /**
+     * Obtiene las conexiones entregadas desde el inicio para transacciones de
+     * solo lectura.
+     */
+    public long getLecturas() {
+        return lecturas.sum();
+    }
+
+    void actualizar(boolean disponible, Duration retraso) {
+        this.retraso = retraso;
+        this.disponible = disponible;
+    }
+
+    /**
+     * Marca la réplica como no disponible hasta la próxima verificación.
+     *
+     * @return {@code true} si estaba disponible.
+     */
+    boolean marcarNoDisponible() {
+        boolean antes = disponible;
+        disponible = false;
+        return antes;
+    }
+
+    /**
+     * Cuenta una conexión entregada y la envuelve para descontarla al
+     * cerrarla (una sola vez, aunque se cierre varias).
+     */
+    Connection entregar(Connection conexion) {
+        conexionesActivas.incrementAndGet();
+        lecturas.increment();
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Replica.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "equals":
+                            return proxy == argumentos[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (cerrada.compareAndSet(false, true)) {
+                                conexionesActivas.decrementAndGet();
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,34 @@
+package com.hospital_vm.cl.hospital_vm.replicas;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link JpaTransactionManager} que evita que las lecturas hechas en una
+ * réplica se guarden en la caché de segundo nivel de Hibernate: en las
+ * transacciones de solo lectura la sesión solo lee de la caché
+ * ({@link CacheMode#GET}). Una réplica retrasada dejaría en la caché una
+ * versión anterior a la de la primaria, y la caché la entregaría también a
+ * las lecturas que deben ver la última versión.
+ *
+ * <p>El modo se fija al comenzar cada transacción, porque con
+ * open-session-in-view la misma sesión se usa en varias transacciones de la
+ * solicitud.</p>
+ */
+public class TransaccionesReplicasManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager
+                .getResource(obtainEntityManagerFactory());
+        if (holder != null) {
+            holder.getEntityManager().unwrap(Session.class)
+                    .setCacheMode(definition.isReadOnly() ? CacheMode.GET : CacheMode.NORMAL);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Consultas no bloqueantes de atenciones mediante R2DBC, para la API de
+ * lectura {@code /v3}.
+ */
+@Repository
+public class AtencionReactivaRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Obtiene las atenciones de un paciente, ordenadas por ID.
+     *
+     * @param pacienteId ID del paciente.
+     * @return Flujo de objetos {@link AtencionResumen}.
+     */
+    public Flux<AtencionResumen> findResumenByPacienteId(Long pacienteId) {
+        return databaseClient.sql("SELECT id, fecha_atencion, hora_atencion, costo, id_paciente FROM atencion "
+                + "WHERE id_paciente = :pacienteId ORDER BY id")
+                .bind("pacienteId", pacienteId)
+                .map(AtencionReactivaRepository::aResumen)
+                .all();
+    }
+
+    private static AtencionResumen aResumen(Readable fila) {
+        return new AtencionResumen(
+                fila.get("id", Long.class),
+                fila.get("fecha_atencion", LocalDate.class),
+                fila.get("hora_atencion", LocalTime.class),
+                fila.get("costo", Double.class),
+                fila.get("id_paciente", Long.class));
+    }
+}
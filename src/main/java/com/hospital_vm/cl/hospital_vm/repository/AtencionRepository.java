@@ -1,14 +1,197 @@
 package com.hospital_vm.cl.hospital_vm.repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.dto.ResumenCostos;
+import com.hospital_vm.cl.hospital_vm.dto.ResumenVersiones;
 import com.hospital_vm.cl.hospital_vm.model.Atencion;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface AtencionRepository extends JpaRepository<Atencion, Long> {
 
+    /**
+     * Cantidad de filas que el driver JDBC obtiene por cada viaje a la base de
+     * datos al recorrer un {@link Stream} de atenciones.
+     */
+    String FETCH_SIZE_EXPORTACION = "500";
+
+    /**
+     * Región de la caché de consultas para las atenciones de un paciente.
+     * Hibernate la invalida cada vez que cambia la tabla de atenciones.
+     */
+    String REGION_ATENCIONES_POR_PACIENTE = "atenciones-por-paciente";
+
+    /**
+     * Obtiene las atenciones de un paciente junto a su paciente, en una sola
+     * consulta.
+     * 
+     * @param pacienteId ID del paciente.
+     * @return Lista de objetos {@link Atencion} del paciente.
+     */
+    @EntityGraph(Atencion.GRAFO_CON_PACIENTE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_ATENCIONES_POR_PACIENTE)
+    })
     public List<Atencion> findByPacienteId(Long pacienteId);
+
+    /**
+     * Obtiene la proyección liviana de todas las atenciones, sin cargar a los
+     * pacientes.
+     * 
+     * @return Lista de objetos {@link AtencionResumen} ordenados por ID.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.AtencionResumen(a.id, a.fechaAtencion, a.horaAtencion, a.costo, a.paciente.id) "
+            + "FROM Atencion a ORDER BY a.id")
+    List<AtencionResumen> findAllResumen();
+
+    /**
+     * Obtiene la proyección liviana de las atenciones de un paciente.
+     * 
+     * @param pacienteId ID del paciente.
+     * @return Lista de objetos {@link AtencionResumen} ordenados por ID.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.AtencionResumen(a.id, a.fechaAtencion, a.horaAtencion, a.costo, a.paciente.id) "
+            + "FROM Atencion a WHERE a.paciente.id = :pacienteId ORDER BY a.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGION_ATENCIONES_POR_PACIENTE)
+    })
+    List<AtencionResumen> findResumenByPacienteId(Long pacienteId);
+
+    /**
+     * Obtiene la proyección liviana de las atenciones en un rango de fechas.
+     * Se resuelve con un recorrido por rango del índice sobre la fecha.
+     * 
+     * @param desde Fecha inicial (inclusive).
+     * @param hasta Fecha final (inclusive).
+     * @return Lista de objetos {@link AtencionResumen} ordenados por fecha y
+     *         hora.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.AtencionResumen(a.id, a.fechaAtencion, a.horaAtencion, a.costo, a.paciente.id) "
+            + "FROM Atencion a WHERE a.fechaAtencion BETWEEN :desde AND :hasta "
+            + "ORDER BY a.fechaAtencion, a.horaAtencion, a.id")
+    List<AtencionResumen> findResumenByFechaEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene la proyección liviana de las atenciones de un paciente en un rango
+     * de fechas. Se resuelve con el índice compuesto (paciente, fecha).
+     * 
+     * @param pacienteId ID del paciente.
+     * @param desde      Fecha inicial (inclusive).
+     * @param hasta      Fecha final (inclusive).
+     * @return Lista de objetos {@link AtencionResumen} ordenados por fecha y
+     *         hora.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.AtencionResumen(a.id, a.fechaAtencion, a.horaAtencion, a.costo, a.paciente.id) "
+            + "FROM Atencion a WHERE a.paciente.id = :pacienteId AND a.fechaAtencion BETWEEN :desde AND :hasta "
+            + "ORDER BY a.fechaAtencion, a.horaAtencion, a.id")
+    List<AtencionResumen> findResumenByPacienteIdAndFechaEntre(Long pacienteId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Resume en una sola fila las versiones y secuencias de cambio de las
+     * atenciones en un rango de fechas y de sus pacientes, sin leer las
+     * atenciones.
+     * 
+     * @param desde Fecha inicial (inclusive).
+     * @param hasta Fecha final (inclusive).
+     * @return Objeto {@link ResumenVersiones} de las atenciones del rango.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.ResumenVersiones(COUNT(a), SUM(a.id), "
+            + "SUM(a.version + a.paciente.version), MAX(a.secuenciaCambio), MAX(a.paciente.secuenciaCambio)) FROM Atencion a WHERE a.fechaAtencion BETWEEN :desde AND :hasta")
+    ResumenVersiones resumirVersionesEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Resume en una sola fila las versiones y secuencias de cambio de las
+     * atenciones de un paciente en un rango de fechas y las del paciente, sin
+     * leer las atenciones.
+     * 
+     * @param pacienteId ID del paciente.
+     * @param desde      Fecha inicial (inclusive).
+     * @param hasta      Fecha final (inclusive).
+     * @return Objeto {@link ResumenVersiones} de las atenciones del paciente.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.ResumenVersiones(COUNT(a), SUM(a.id), "
+            + "SUM(a.version + a.paciente.version), MAX(a.secuenciaCambio), MAX(a.paciente.secuenciaCambio)) FROM Atencion a "
+            + "WHERE a.paciente.id = :pacienteId AND a.fechaAtencion BETWEEN :desde AND :hasta")
+    ResumenVersiones resumirVersionesPorPacienteEntre(Long pacienteId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Recorre todas las atenciones, junto a su paciente, como un cursor de
+     * solo avance. Las filas se leen desde la base de datos a medida que se
+     * consume el {@link Stream}, por lo que debe invocarse dentro de una
+     * transacción y cerrarse al terminar.
+     * 
+     * @return Stream de objetos {@link Atencion} ordenados por ID.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE_EXPORTACION),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a FROM Atencion a JOIN FETCH a.paciente ORDER BY a.id")
+    Stream<Atencion> streamAll();
+
+    /**
+     * Calcula en la base de datos la cantidad y el costo total de las
+     * atenciones de un paciente.
+     * 
+     * @param pacienteId ID del paciente.
+     * @return Objeto {@link ResumenCostos} o {@code null} si el paciente no
+     *         tiene atenciones.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.ResumenCostos(a.paciente.id, COUNT(a), SUM(a.costo)) "
+            + "FROM Atencion a WHERE a.paciente.id = :pacienteId GROUP BY a.paciente.id")
+    ResumenCostos resumirCostosPorPaciente(Long pacienteId);
+
+    /**
+     * Calcula en la base de datos los pacientes con mayor costo total de
+     * atenciones.
+     * 
+     * @param pageable Cantidad de pacientes a obtener.
+     * @return Lista de objetos {@link ResumenCostos} ordenados por costo total
+     *         descendente.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.ResumenCostos(a.paciente.id, COUNT(a), SUM(a.costo)) "
+            + "FROM Atencion a GROUP BY a.paciente.id ORDER BY SUM(a.costo) DESC")
+    List<ResumenCostos> findTopPacientesPorCosto(Pageable pageable);
+
+    /**
+     * Obtiene las atenciones modificadas en un tramo de la secuencia de
+     * cambios, junto a su paciente.
+     * 
+     * @param desde    Secuencia inicial (exclusiva).
+     * @param hasta    Secuencia final (inclusiva).
+     * @param pageable Cantidad máxima de atenciones a obtener.
+     * @return Lista de objetos {@link Atencion} ordenados por secuencia.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT a FROM Atencion a JOIN FETCH a.paciente WHERE a.secuenciaCambio > :desde "
+            + "AND a.secuenciaCambio <= :hasta ORDER BY a.secuenciaCambio")
+    List<Atencion> findCambiadas(long desde, long hasta, Pageable pageable);
+
+    /**
+     * Asigna a las atenciones guardadas antes de que existiera la secuencia de
+     * cambios su ID negativo como secuencia, con una única sentencia y sin modificar
+     * su versión.
+     * 
+     * @return Cantidad de atenciones actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE Atencion a SET a.secuenciaCambio = -a.id WHERE a.secuenciaCambio = 0")
+    int asignarSecuenciaPendiente();
 }
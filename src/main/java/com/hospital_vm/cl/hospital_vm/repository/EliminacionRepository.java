@@ -0,0 +1,43 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.hospital_vm.cl.hospital_vm.model.Eliminacion;
+import com.hospital_vm.cl.hospital_vm.model.EntidadEvento;
+
+/**
+ * Repositorio para las marcas de eliminación ({@link Eliminacion}).
+ */
+@Repository
+public interface EliminacionRepository extends JpaRepository<Eliminacion, Long> {
+
+    /**
+     * Obtiene las eliminaciones de un tipo de entidad en un tramo de la
+     * secuencia de cambios.
+     * 
+     * @param entidad  Tipo de entidad.
+     * @param desde    Secuencia inicial (exclusiva).
+     * @param hasta    Secuencia final (inclusiva).
+     * @param pageable Cantidad máxima de eliminaciones a obtener.
+     * @return Lista de eliminaciones ordenadas por secuencia.
+     */
+    @Query("SELECT e FROM Eliminacion e WHERE e.entidad = :entidad AND e.secuenciaCambio > :desde "
+            + "AND e.secuenciaCambio <= :hasta ORDER BY e.secuenciaCambio")
+    List<Eliminacion> findEntre(EntidadEvento entidad, long desde, long hasta, Pageable pageable);
+
+    /**
+     * Elimina las marcas anteriores a una posición de la secuencia de cambios.
+     * 
+     * @param limite Secuencia límite (exclusiva).
+     * @return Cantidad de marcas eliminadas.
+     */
+    @Modifying
+    @Query("DELETE FROM Eliminacion e WHERE e.secuenciaCambio < :limite")
+    int deleteAnteriores(long limite);
+}
@@ -0,0 +1,27 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+
+/**
+ * Repositorio para los eventos de cambio pendientes de publicar
+ * ({@link EventoCambio}).
+ */
+@Repository
+public interface EventoCambioRepository extends JpaRepository<EventoCambio, Long> {
+
+    /**
+     * Obtiene los eventos pendientes más antiguos.
+     * 
+     * @param pageable Cantidad máxima de eventos a obtener.
+     * @return Lista de eventos ordenados por ID.
+     */
+    @Query("SELECT e FROM EventoCambio e ORDER BY e.id")
+    List<EventoCambio> findPendientes(Pageable pageable);
+}
@@ -0,0 +1,125 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consultas no bloqueantes de pacientes mediante R2DBC, para la API de
+ * lectura {@code /v3}.
+ *
+ * <p>Lee las mismas tablas que {@link PacienteRepository}, pero sin pasar
+ * por JPA: las filas se convierten directamente en objetos
+ * {@link Paciente} desacoplados, que no deben guardarse con JPA.</p>
+ */
+@Repository
+public class PacienteReactivoRepository {
+
+    private static final String COLUMNAS = "SELECT id, nombre, apellido, run, direccion, fecha_nacimiento, correo, "
+            + "nombre_normalizado, apellido_normalizado, version, ultima_modificacion FROM paciente ";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Obtiene un paciente por su ID.
+     *
+     * @param id ID del paciente.
+     * @return Paciente encontrado, o un {@link Mono} vacío si no existe.
+     */
+    public Mono<Paciente> findById(Long id) {
+        return databaseClient.sql(COLUMNAS + "WHERE id = :id")
+                .bind("id", id)
+                .map(PacienteReactivoRepository::aPaciente)
+                .one();
+    }
+
+    /**
+     * Busca pacientes por prefijo del nombre y del apellido normalizados,
+     * recorriendo el índice que comienza por el nombre.
+     *
+     * @param patronNombre   Patrón {@code LIKE} para el nombre normalizado.
+     * @param patronApellido Patrón {@code LIKE} para el apellido normalizado.
+     * @param limite         Cantidad máxima de resultados.
+     * @return Pacientes ordenados por nombre normalizado.
+     */
+    public Flux<Paciente> buscarPorPrefijoNombre(String patronNombre, String patronApellido, int limite) {
+        return databaseClient.sql(COLUMNAS + "WHERE nombre_normalizado LIKE :patronNombre ESCAPE '!' "
+                + "AND apellido_normalizado LIKE :patronApellido ESCAPE '!' "
+                + "ORDER BY nombre_normalizado, id LIMIT :limite")
+                .bind("patronNombre", patronNombre)
+                .bind("patronApellido", patronApellido)
+                .bind("limite", limite)
+                .map(PacienteReactivoRepository::aPaciente)
+                .all();
+    }
+
+    /**
+     * Busca pacientes por prefijo del apellido y del nombre normalizados,
+     * recorriendo el índice que comienza por el apellido.
+     *
+     * @param patronApellido Patrón {@code LIKE} para el apellido normalizado.
+     * @param patronNombre   Patrón {@code LIKE} para el nombre normalizado.
+     * @param limite         Cantidad máxima de resultados.
+     * @return Pacientes ordenados por apellido normalizado.
+     */
+    public Flux<Paciente> buscarPorPrefijoApellido(String patronApellido, String patronNombre, int limite) {
+        return databaseClient.sql(COLUMNAS + "WHERE apellido_normalizado LIKE :patronApellido ESCAPE '!' "
+                + "AND nombre_normalizado LIKE :patronNombre ESCAPE '!' "
+                + "ORDER BY apellido_normalizado, id LIMIT :limite")
+                .bind("patronApellido", patronApellido)
+                .bind("patronNombre", patronNombre)
+                .bind("limite", limite)
+                .map(PacienteReactivoRepository::aPaciente)
+                .all();
+    }
+
+    private static Paciente aPaciente(Readable fila) {
+        Paciente paciente = new Paciente();
+        paciente.setId(fila.get("id", Long.class));
+        paciente.setNombre(fila.get("nombre", String.class));
+        paciente.setApellido(fila.get("apellido", String.class));
+        paciente.setRun(fila.get("run", String.class));
+        paciente.setDireccion(fila.get("direccion", String.class));
+        paciente.setFechaNacimiento(fila.get("fecha_nacimiento", String.class));
+        paciente.setCorreo(fila.get("correo", String.class));
+        paciente.setNombreNormalizado(fila.get("nombre_normalizado", String.class));
+        paciente.setApellidoNormalizado(fila.get("apellido_normalizado", String.class));
+        paciente.setVersion(fila.get("version", Long.class));
+        paciente.setUltimaModificacion(aInstant(fila.get("ultima_modificacion")));
+        return paciente;
+    }
+
+    /**
+     * Convierte una columna de fecha y hora al tipo que entrega cada driver:
+     * H2 la lee con zona horaria y MySQL sin ella, en UTC (como la guarda
+     * Hibernate).
+     */
+    private static Instant aInstant(Object valor) {
+        if (valor instanceof Instant instante) {
+            return instante;
+        }
+        if (valor instanceof OffsetDateTime fecha) {
+            return fecha.toInstant();
+        }
+        if (valor instanceof ZonedDateTime fecha) {
+            return fecha.toInstant();
+        }
+        if (valor instanceof LocalDateTime fecha) {
+            return fecha.toInstant(ZoneOffset.UTC);
+        }
+        return null;
+    }
+}
@@ -1,12 +1,24 @@
 package com.hospital_vm.cl.hospital_vm.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.hospital_vm.cl.hospital_vm.dto.NombrePaciente;
+import com.hospital_vm.cl.hospital_vm.dto.VersionFila;
 import com.hospital_vm.cl.hospital_vm.model.Paciente;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repositorio para gestionar las operaciones de acceso a datos de la entidad
@@ -15,7 +27,20 @@ import java.util.List;
  * operaciones CRUD básicas.
  */
 @Repository
-public interface PacienteRepository extends JpaRepository<Paciente, Long> {
+public interface PacienteRepository extends JpaRepository<Paciente, Long>, PacienteRepositoryPersonalizado {
+
+    /**
+     * Busca un paciente por su ID. A diferencia del {@code findById} de Spring
+     * Data, no abre una transacción de solo lectura, que se atendería en una
+     * réplica de lectura: lo usa la caché de pacientes, que no debe guardar la
+     * versión atrasada de una réplica.
+     * 
+     * @param id ID del paciente.
+     * @return Paciente encontrado, si existe.
+     */
+    @Override
+    @Transactional
+    Optional<Paciente> findById(Long id);
 
     /**
      * Busca un paciente por su correo electrónico.
@@ -35,6 +60,25 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
      */
     public Paciente findByRun(String run);
 
+    /**
+     * Busca los pacientes cuyos RUN estén en la colección indicada, en una
+     * sola consulta.
+     * 
+     * @param runs RUN de los pacientes a buscar.
+     * @return Lista de objetos {@link Paciente} existentes con esos RUN.
+     */
+    List<Paciente> findByRunIn(Collection<String> runs);
+
+    /**
+     * Obtiene cuáles de los IDs indicados corresponden a pacientes existentes,
+     * en una sola consulta y sin cargar las entidades.
+     * 
+     * @param ids IDs de pacientes a verificar.
+     * @return Conjunto con los IDs que existen.
+     */
+    @Query("SELECT p.id FROM Paciente p WHERE p.id IN :ids")
+    Set<Long> findIdsExistentes(Collection<Long> ids);
+
     /**
      * Busca pacientes por su nombre utilizando JPQL.
      * 
@@ -52,4 +96,138 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
      */
     @Query(value = "SELECT * FROM paciente WHERE nombre = :nombre", nativeQuery = true)
     List<Paciente> findByNombreNative(String nombre);
-}
\ No newline at end of file
+
+    /**
+     * Obtiene los pacientes con ID mayor al indicado, en orden ascendente.
+     * Se utiliza para la paginación por keyset hacia adelante, aprovechando el
+     * índice de la clave primaria en lugar de un OFFSET.
+     * 
+     * @param despuesDe ID a partir del cual (exclusivo) se buscan pacientes.
+     * @param pageable  Límite de resultados a obtener.
+     * @return Lista de objetos {@link Paciente} ordenados por ID ascendente.
+     */
+    @Query("SELECT p FROM Paciente p WHERE p.id > :despuesDe ORDER BY p.id ASC")
+    List<Paciente> findSiguientes(Long despuesDe, Pageable pageable);
+
+    /**
+     * Obtiene los pacientes con ID menor al indicado, en orden descendente.
+     * Se utiliza para la paginación por keyset hacia atrás.
+     * 
+     * @param antesDe  ID antes del cual (exclusivo) se buscan pacientes.
+     * @param pageable Límite de resultados a obtener.
+     * @return Lista de objetos {@link Paciente} ordenados por ID descendente.
+     */
+    @Query("SELECT p FROM Paciente p WHERE p.id < :antesDe ORDER BY p.id DESC")
+    List<Paciente> findAnteriores(Long antesDe, Pageable pageable);
+
+    /**
+     * Obtiene el ID y la versión de los pacientes con ID mayor al indicado, en
+     * orden ascendente, sin cargar las entidades.
+     * 
+     * @param despuesDe ID a partir del cual (exclusivo) se buscan pacientes.
+     * @param pageable  Límite de resultados a obtener.
+     * @return Lista de objetos {@link VersionFila} ordenados por ID ascendente.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.VersionFila(p.id, p.version) FROM Paciente p "
+            + "WHERE p.id > :despuesDe ORDER BY p.id ASC")
+    List<VersionFila> findVersionesSiguientes(Long despuesDe, Pageable pageable);
+
+    /**
+     * Obtiene el ID y la versión de los pacientes con ID menor al indicado, en
+     * orden descendente, sin cargar las entidades.
+     * 
+     * @param antesDe  ID antes del cual (exclusivo) se buscan pacientes.
+     * @param pageable Límite de resultados a obtener.
+     * @return Lista de objetos {@link VersionFila} ordenados por ID descendente.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.VersionFila(p.id, p.version) FROM Paciente p "
+            + "WHERE p.id < :antesDe ORDER BY p.id DESC")
+    List<VersionFila> findVersionesAnteriores(Long antesDe, Pageable pageable);
+
+    /**
+     * Obtiene solo la versión de un paciente.
+     * 
+     * @param id ID del paciente.
+     * @return Versión del paciente o {@code null} si no existe.
+     */
+    @Query("SELECT p.version FROM Paciente p WHERE p.id = :id")
+    Long findVersionById(Long id);
+
+    /**
+     * Busca pacientes por prefijo del nombre y del apellido normalizados,
+     * recorriendo el índice que comienza por el nombre.
+     * 
+     * @param patronNombre   Patrón {@code LIKE} para el nombre normalizado.
+     * @param patronApellido Patrón {@code LIKE} para el apellido normalizado.
+     * @param pageable       Límite de resultados a obtener.
+     * @return Lista de objetos {@link Paciente} ordenados por nombre normalizado.
+     */
+    @Query("SELECT p FROM Paciente p WHERE p.nombreNormalizado LIKE :patronNombre ESCAPE '!' "
+            + "AND p.apellidoNormalizado LIKE :patronApellido ESCAPE '!' ORDER BY p.nombreNormalizado, p.id")
+    List<Paciente> buscarPorPrefijoNombre(String patronNombre, String patronApellido, Pageable pageable);
+
+    /**
+     * Busca pacientes por prefijo del apellido y del nombre normalizados,
+     * recorriendo el índice que comienza por el apellido.
+     * 
+     * @param patronApellido Patrón {@code LIKE} para el apellido normalizado.
+     * @param patronNombre   Patrón {@code LIKE} para el nombre normalizado.
+     * @param pageable       Límite de resultados a obtener.
+     * @return Lista de objetos {@link Paciente} ordenados por apellido
+     *         normalizado.
+     */
+    @Query("SELECT p FROM Paciente p WHERE p.apellidoNormalizado LIKE :patronApellido ESCAPE '!' "
+            + "AND p.nombreNormalizado LIKE :patronNombre ESCAPE '!' ORDER BY p.apellidoNormalizado, p.id")
+    List<Paciente> buscarPorPrefijoApellido(String patronApellido, String patronNombre, Pageable pageable);
+
+    /**
+     * Obtiene el nombre y el apellido de los pacientes cuyas columnas de
+     * búsqueda aún no fueron calculadas, sin cargar las entidades.
+     * 
+     * @param pageable Límite de resultados a obtener.
+     * @return Lista de objetos {@link NombrePaciente} sin nombre normalizado.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.NombrePaciente(p.id, p.nombre, p.apellido) "
+            + "FROM Paciente p WHERE p.nombreNormalizado IS NULL ORDER BY p.id")
+    List<NombrePaciente> findNombresSinNormalizar(Pageable pageable);
+
+    /**
+     * Guarda las columnas de búsqueda de un paciente con un UPDATE directo,
+     * que no pasa por la entidad: no cambia la versión ni la secuencia de
+     * cambios, porque los datos del paciente no cambian.
+     * 
+     * @param id                  ID del paciente.
+     * @param nombreNormalizado   Nombre normalizado.
+     * @param apellidoNormalizado Apellido normalizado.
+     * @return Cantidad de pacientes actualizados.
+     */
+    @Modifying
+    @Query("UPDATE Paciente p SET p.nombreNormalizado = :nombreNormalizado, "
+            + "p.apellidoNormalizado = :apellidoNormalizado WHERE p.id = :id")
+    int guardarNormalizacion(Long id, String nombreNormalizado, String apellidoNormalizado);
+
+    /**
+     * Obtiene los pacientes modificados en un tramo de la secuencia de
+     * cambios.
+     * 
+     * @param desde    Secuencia inicial (exclusiva).
+     * @param hasta    Secuencia final (inclusiva).
+     * @param pageable Cantidad máxima de pacientes a obtener.
+     * @return Lista de objetos {@link Paciente} ordenados por secuencia.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT p FROM Paciente p WHERE p.secuenciaCambio > :desde AND p.secuenciaCambio <= :hasta "
+            + "ORDER BY p.secuenciaCambio")
+    List<Paciente> findCambiados(long desde, long hasta, Pageable pageable);
+
+    /**
+     * Asigna a los pacientes guardados antes de que existiera la secuencia de
+     * cambios su ID negativo como secuencia, con una única sentencia y sin modificar
+     * su versión.
+     * 
+     * @return Cantidad de pacientes actualizados.
+     */
+    @Modifying
+    @Query("UPDATE Paciente p SET p.secuenciaCambio = -p.id WHERE p.secuenciaCambio = 0")
+    int asignarSecuenciaPendiente();
+}
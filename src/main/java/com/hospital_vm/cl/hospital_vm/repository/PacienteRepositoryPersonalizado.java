@@ -0,0 +1,21 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+/**
+ * Consultas de {@link PacienteRepository} que no pueden expresarse como
+ * métodos derivados ni con {@code @Query}.
+ */
+public interface PacienteRepositoryPersonalizado {
+
+    /**
+     * Busca un paciente por su RUN usando el identificador natural, de modo que
+     * la búsqueda se resuelva desde la caché de segundo nivel cuando es
+     * posible.
+     * 
+     * @param run RUN del paciente.
+     * @return Objeto {@link Paciente} correspondiente al RUN proporcionado o
+     *         {@code null} si no se encuentra.
+     */
+    Paciente buscarPorRun(String run);
+}
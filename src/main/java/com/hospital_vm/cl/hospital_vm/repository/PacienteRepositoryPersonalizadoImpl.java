@@ -0,0 +1,31 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementación de {@link PacienteRepositoryPersonalizado}.
+ */
+public class PacienteRepositoryPersonalizadoImpl implements PacienteRepositoryPersonalizado {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * La transacción no es de solo lectura para que la búsqueda se haga en la
+     * primaria: la usa la caché de pacientes y la verificación de RUN
+     * duplicado al crear un paciente.
+     */
+    @Override
+    @Transactional
+    public Paciente buscarPorRun(String run) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Paciente.class)
+                .load(run);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hospital_vm.cl.hospital_vm.repository;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.hospital_vm.cl.hospital_vm.dto.ResumenCostos;
+import com.hospital_vm.cl.hospital_vm.model.ResumenCostoPaciente;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Repositorio para la tabla de resúmenes de costos por paciente
+ * ({@link ResumenCostoPaciente}).
+ */
+@Repository
+public interface ResumenCostoPacienteRepository extends JpaRepository<ResumenCostoPaciente, Long> {
+
+    /**
+     * Tabla que modifican las sentencias nativas de este repositorio. Se
+     * declara para que Hibernate solo invalide lo que depende de ella en la
+     * caché de segundo nivel, y no la caché completa.
+     */
+    String TABLA = "resumen_costo_paciente";
+
+    /**
+     * Suma los valores indicados al resumen de un paciente con una única
+     * sentencia, sin leer la fila previamente.
+     * 
+     * @param pacienteId    ID del paciente.
+     * @param deltaCantidad Variación de la cantidad de atenciones.
+     * @param deltaTotal    Variación del costo total.
+     * @return Cantidad de filas actualizadas (0 si el paciente aún no tiene
+     *         resumen).
+     */
+    @Modifying
+    @Query("UPDATE ResumenCostoPaciente r SET r.cantidad = r.cantidad + :deltaCantidad, r.total = r.total + :deltaTotal "
+            + "WHERE r.pacienteId = :pacienteId")
+    int incrementar(Long pacienteId, long deltaCantidad, double deltaTotal);
+
+    /**
+     * Inserta el resumen vacío de un paciente.
+     * 
+     * @param pacienteId ID del paciente.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO resumen_costo_paciente (id_paciente, cantidad, total) VALUES (:pacienteId, 0, 0)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLA))
+    void insertarVacio(Long pacienteId);
+
+    /**
+     * Elimina todos los resúmenes.
+     */
+    @Modifying
+    @Query("DELETE FROM ResumenCostoPaciente")
+    void eliminarTodos();
+
+    /**
+     * Recalcula todos los resúmenes a partir de la tabla de atenciones.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO resumen_costo_paciente (id_paciente, cantidad, total) "
+            + "SELECT id_paciente, COUNT(*), SUM(costo) FROM atencion GROUP BY id_paciente", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = TABLA))
+    void insertarDesdeAtenciones();
+
+    /**
+     * Obtiene los pacientes con mayor costo total, usando el índice sobre el
+     * total.
+     * 
+     * @param pageable Cantidad de pacientes a obtener.
+     * @return Lista de objetos {@link ResumenCostos} ordenados por costo total
+     *         descendente.
+     */
+    @Query("SELECT new com.hospital_vm.cl.hospital_vm.dto.ResumenCostos(r.pacienteId, r.cantidad, r.total) "
+            + "FROM ResumenCostoPaciente r WHERE r.cantidad > 0 ORDER BY r.total DESC")
+    List<ResumenCostos> findTopPorTotal(Pageable pageable);
+}
@@ -0,0 +1,33 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Service;
+
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.repository.AtencionReactivaRepository;
+import com.hospital_vm.cl.hospital_vm.shards.SinShards;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Servicio de lectura no bloqueante de atenciones, usado por la API
+ * {@code /v3}. Las escrituras siguen pasando por {@link AtencionService}.
+ */
+@Service
+@Conditional(SinShards.class)
+public class AtencionReactivaService {
+
+    @Autowired
+    private AtencionReactivaRepository atencionReactivaRepository;
+
+    /**
+     * Obtiene la proyección liviana de las atenciones de un paciente.
+     *
+     * @param pacienteId ID del paciente.
+     * @return Flujo de objetos {@link AtencionResumen} ordenados por ID.
+     */
+    public Flux<AtencionResumen> getResumenAtencionesByPacienteId(Long pacienteId) {
+        return atencionReactivaRepository.findResumenByPacienteId(pacienteId);
+    }
+}
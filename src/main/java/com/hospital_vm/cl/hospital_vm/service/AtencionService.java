@@ -1,61 +1,565 @@
 package com.hospital_vm.cl.hospital_vm.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionLoteItem;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.dto.FeedCambios;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResumenCostos;
+import com.hospital_vm.cl.hospital_vm.dto.ResumenVersiones;
+import com.hospital_vm.cl.hospital_vm.eventos.DifusorAtenciones;
 import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.model.TipoEvento;
 import com.hospital_vm.cl.hospital_vm.repository.AtencionRepository;
+import com.hospital_vm.cl.hospital_vm.shards.CambioDeShardException;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+import com.hospital_vm.cl.hospital_vm.util.Etag;
+import com.hospital_vm.cl.hospital_vm.util.Excepciones;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Servicio para gestionar las atenciones.
+ *
+ * <p>Con shards (ver {@link EnrutadorShards}), cada atención se guarda en el
+ * shard de su paciente. Las operaciones sobre una atención o sobre las de un
+ * paciente se ejecutan en ese shard, y las listas y reportes de todas las
+ * atenciones consultan todos los shards y combinan los resultados.</p>
+ */
 @Service
+@Timed("hospital.servicio")
 public class AtencionService {
 
+    /**
+     * Cantidad de atenciones exportadas entre cada limpieza del contexto de
+     * persistencia.
+     */
+    static final int LOTE_EXPORTACION = 1000;
+
+    /**
+     * Cantidad máxima de atenciones aceptadas en una sola solicitud por lotes.
+     */
+    public static final int TAMANIO_LOTE_MAXIMO = 50_000;
+
+    /**
+     * Cantidad de atenciones procesadas por transacción en una carga por lotes.
+     */
+    static final int TAMANIO_SUBLOTE = 500;
+
+    /**
+     * Cantidad máxima de pacientes en una suscripción en vivo.
+     */
+    public static final int PACIENTES_SUSCRIPCION_MAXIMO = 200;
+
+    /**
+     * Límites usados cuando una consulta por rango de fechas no indica uno de
+     * sus extremos.
+     */
+    private static final LocalDate FECHA_MINIMA = LocalDate.of(1900, 1, 1);
+    private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Orden de las listas de atenciones por rango de fechas.
+     */
+    private static final Comparator<AtencionResumen> POR_FECHA_Y_HORA = Comparator
+            .comparing(AtencionResumen::getFechaAtencion)
+            .thenComparing(AtencionResumen::getHoraAtencion)
+            .thenComparing(AtencionResumen::getId);
+
     @Autowired
     private AtencionRepository atencionRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResumenCostosService resumenCostosService;
+
     @Autowired
     private PacienteService pacienteService;
 
+    @Autowired
+    private EventosService eventosService;
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @Autowired
+    private DifusorAtenciones difusorAtenciones;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
     public List<Atencion> getAllAtenciones() {
-        return atencionRepository.findAll();
+        return enrutador.mezclar(atencionRepository::findAll, Comparator.comparing(Atencion::getId),
+                Integer.MAX_VALUE);
     }
     
+    /**
+     * Obtiene la proyección liviana de todas las atenciones.
+     * 
+     * @param expandirPaciente Si es {@code true}, se agregan los datos de los
+     *                         pacientes, obtenidos en consultas por bloques.
+     * @return Lista de objetos {@link AtencionResumen}.
+     */
+    public List<AtencionResumen> getResumenAtenciones(boolean expandirPaciente) {
+        List<AtencionResumen> atenciones = enrutador.mezclar(atencionRepository::findAllResumen,
+                Comparator.comparing(AtencionResumen::getId), Integer.MAX_VALUE);
+        if (expandirPaciente) {
+            expandirPacientes(atenciones);
+        }
+        return atenciones;
+    }
+
+    /**
+     * Obtiene la proyección liviana de las atenciones en un rango de fechas,
+     * opcionalmente filtradas por paciente.
+     * 
+     * @param desde            Fecha inicial (inclusive) o {@code null} para no
+     *                         acotar el inicio.
+     * @param hasta            Fecha final (inclusive) o {@code null} para no
+     *                         acotar el fin.
+     * @param pacienteId       ID del paciente o {@code null} para todos los
+     *                         pacientes.
+     * @param expandirPaciente Si es {@code true}, se agregan los datos de los
+     *                         pacientes.
+     * @return Lista de objetos {@link AtencionResumen} ordenados por fecha y
+     *         hora.
+     */
+    public List<AtencionResumen> getResumenAtencionesEntreFechas(LocalDate desde, LocalDate hasta, Long pacienteId,
+            boolean expandirPaciente) {
+        LocalDate inicio = desde != null ? desde : FECHA_MINIMA;
+        LocalDate fin = hasta != null ? hasta : FECHA_MAXIMA;
+
+        List<AtencionResumen> atenciones = pacienteId != null
+                ? enrutador.leer(enrutador.shardDeId(pacienteId),
+                        () -> atencionRepository.findResumenByPacienteIdAndFechaEntre(pacienteId, inicio, fin))
+                : enrutador.mezclar(() -> atencionRepository.findResumenByFechaEntre(inicio, fin),
+                        POR_FECHA_Y_HORA, Integer.MAX_VALUE);
+        if (expandirPaciente) {
+            expandirPacientes(atenciones);
+        }
+        return atenciones;
+    }
+
+    /**
+     * Calcula el ETag de una lista de atenciones con una consulta de
+     * agregación sobre sus versiones y secuencias de cambio y las de sus
+     * pacientes, sin leer las atenciones. Cambia si se crea, modifica o
+     * elimina alguna atención del rango, o si se modifica alguno de sus
+     * pacientes.
+     * 
+     * @param desde      Fecha inicial (inclusive) o {@code null} para no acotar
+     *                   el inicio.
+     * @param hasta      Fecha final (inclusive) o {@code null} para no acotar
+     *                   el fin.
+     * @param pacienteId ID del paciente o {@code null} para todos los
+     *                   pacientes.
+     * @return ETag débil de la lista.
+     */
+    public String getEtagAtenciones(LocalDate desde, LocalDate hasta, Long pacienteId) {
+        LocalDate inicio = desde != null ? desde : FECHA_MINIMA;
+        LocalDate fin = hasta != null ? hasta : FECHA_MAXIMA;
+
+        if (pacienteId != null) {
+            return Etag.deResumen(enrutador.leer(enrutador.shardDeId(pacienteId),
+                    () -> atencionRepository.resumirVersionesPorPacienteEntre(pacienteId, inicio, fin)));
+        }
+        // Las cantidades y sumas de cada shard se suman; de las secuencias se conserva la mayor
+        ResumenVersiones resumen = new ResumenVersiones(0L, 0L, 0L, Long.MIN_VALUE, Long.MIN_VALUE);
+        for (ResumenVersiones parte : enrutador.reunir(() -> atencionRepository.resumirVersionesEntre(inicio, fin))) {
+            resumen.setCantidad(resumen.getCantidad() + parte.getCantidad());
+            resumen.setSumaIds(resumen.getSumaIds() + parte.getSumaIds());
+            resumen.setSumaVersiones(resumen.getSumaVersiones() + parte.getSumaVersiones());
+            resumen.setMaximaSecuencia(Math.max(resumen.getMaximaSecuencia(), parte.getMaximaSecuencia()));
+            resumen.setMaximaSecuenciaPacientes(
+                    Math.max(resumen.getMaximaSecuenciaPacientes(), parte.getMaximaSecuenciaPacientes()));
+        }
+        return Etag.deResumen(resumen);
+    }
+
+    private void expandirPacientes(List<AtencionResumen> atenciones) {
+        if (atenciones.isEmpty()) {
+            return;
+        }
+        Set<Long> pacienteIds = new HashSet<>();
+        atenciones.forEach(atencion -> pacienteIds.add(atencion.getPacienteId()));
+        Map<Long, Paciente> pacientes = pacienteService.getPacientesByIds(pacienteIds);
+        atenciones.forEach(atencion -> atencion.setPaciente(pacientes.get(atencion.getPacienteId())));
+    }
+
+    /**
+     * Obtiene la proyección liviana de las atenciones de un paciente.
+     * 
+     * @param pacienteId       ID del paciente.
+     * @param expandirPaciente Si es {@code true}, se agregan los datos del
+     *                         paciente.
+     * @return Lista de objetos {@link AtencionResumen}.
+     */
+    public List<AtencionResumen> getResumenAtencionesByPacienteId(Long pacienteId, boolean expandirPaciente) {
+        return enrutador.leer(enrutador.shardDeId(pacienteId), () -> {
+            List<AtencionResumen> atenciones = atencionRepository.findResumenByPacienteId(pacienteId);
+            if (expandirPaciente && !atenciones.isEmpty()) {
+                Paciente paciente = pacienteService.getPacienteById(pacienteId);
+                atenciones.forEach(atencion -> atencion.setPaciente(paciente));
+            }
+            return atenciones;
+        });
+    }
+
+    /**
+     * Obtiene las atenciones creadas, modificadas o eliminadas desde una
+     * consulta anterior del feed de cambios.
+     * 
+     * @param desde  Valor de {@code siguiente} de la consulta anterior, o
+     *               {@code null} para obtener todas las atenciones.
+     * @param limite Cantidad máxima de cambios a entregar.
+     * @return Objeto {@link FeedCambios}, o {@code null} si {@code desde} ya no
+     *         es válido y se deben volver a cargar todas las atenciones.
+     */
+    public FeedCambios<Atencion> getCambios(Long desde, int limite) {
+        return cambiosService.getCambiosAtenciones(desde, limite);
+    }
+
+    /**
+     * Abre una suscripción en vivo a los cambios de las atenciones de un
+     * conjunto de pacientes.
+     * 
+     * @param pacienteIds IDs de los pacientes.
+     * @return Emisor SSE de la suscripción, o {@code null} si se alcanzó el
+     *         máximo de suscripciones simultáneas.
+     */
+    public SseEmitter suscribirAtenciones(Set<Long> pacienteIds) {
+        return difusorAtenciones.suscribir(pacienteIds);
+    }
+
     public Atencion getAtencionById(Long id) {
-        return atencionRepository.findById(id).orElse(null);
+        return enrutador.leer(enrutador.shardDeId(id), () -> atencionRepository.findById(id).orElse(null));
     }
 
     public Atencion createAtencion(Atencion atencion) {
-        return atencionRepository.save(atencion);
+        Long pacienteId = atencion.getPaciente() != null ? atencion.getPaciente().getId() : null;
+        return enrutador.enShardDeId(pacienteId, () -> transactionTemplate.execute(status -> {
+            Atencion nuevaAtencion = atencionRepository.save(atencion);
+            registrarEnResumen(nuevaAtencion, 1);
+            eventosService.registrarAtencion(nuevaAtencion, TipoEvento.CREADO);
+            return nuevaAtencion;
+        }));
     }
 
     public Atencion createAtencionByPacienteID(Atencion atencion, Long pacienteId) {
-        // Verifica si el paciente existe
-        if (pacienteService.getPacienteById(pacienteId) == null) {
-            return null; // o lanzar una excepción
+        return enrutador.enShardDeId(pacienteId, () -> transactionTemplate.execute(status -> {
+            // Verifica si el paciente existe
+            if (pacienteService.getPacienteById(pacienteId) == null) {
+                return null; // o lanzar una excepción
+            }
+
+            // Asigna el paciente a la atención. La caché devuelve una copia
+            // desconectada, por lo que la asociación usa una referencia
+            // administrada por el contexto de persistencia
+            atencion.setPaciente(entityManager.getReference(Paciente.class, pacienteId));
+
+            Atencion nuevaAtencion = atencionRepository.save(atencion);
+            registrarEnResumen(nuevaAtencion, 1);
+            eventosService.registrarAtencion(nuevaAtencion, TipoEvento.CREADO);
+            return nuevaAtencion;
+        }));
+    }
+
+    /**
+     * Crea un conjunto de atenciones, posiblemente de distintos pacientes.
+     * Las atenciones se procesan en sublotes de {@value #TAMANIO_SUBLOTE}: por
+     * cada sublote se verifica la existencia de todos los pacientes en una
+     * sola consulta y las atenciones se insertan con lotes JDBC en una única
+     * transacción, usando referencias a los pacientes sin cargarlos. Las
+     * atenciones de pacientes inexistentes se informan como fallidas sin
+     * abortar el resto del lote. Con shards, las atenciones de cada sublote se
+     * insertan en el shard de su paciente.
+     * 
+     * @param items Lista de atenciones con el ID de su paciente.
+     * @return Objeto {@link ResultadoLote} con el resultado de cada atención,
+     *         en el mismo orden de la lista recibida.
+     */
+    public ResultadoLote createAtenciones(List<AtencionLoteItem> items) {
+        List<ResultadoItemLote> resultados = new ArrayList<>(Collections.nCopies(items.size(), null));
+
+        for (int inicio = 0; inicio < items.size(); inicio += TAMANIO_SUBLOTE) {
+            int fin = Math.min(inicio + TAMANIO_SUBLOTE, items.size());
+            guardarSublote(items, inicio, fin, resultados);
+        }
+
+        return ResultadoLote.de(resultados);
+    }
+
+    private void guardarSublote(List<AtencionLoteItem> items, int inicio, int fin,
+            List<ResultadoItemLote> resultados) {
+        Set<Long> pacienteIds = new HashSet<>();
+        for (int i = inicio; i < fin; i++) {
+            String error = validarItem(items.get(i));
+            if (error != null) {
+                resultados.set(i, ResultadoItemLote.fallido(i, error));
+            } else {
+                pacienteIds.add(items.get(i).getPacienteId());
+            }
+        }
+
+        Set<Long> existentes = pacienteService.getIdsExistentes(pacienteIds);
+
+        List<Integer> validos = new ArrayList<>();
+        for (int i = inicio; i < fin; i++) {
+            if (resultados.get(i) != null) {
+                continue;
+            }
+            if (existentes.contains(items.get(i).getPacienteId())) {
+                validos.add(i);
+            } else {
+                resultados.set(i, ResultadoItemLote.fallido(i, "Paciente no encontrado"));
+            }
         }
 
-        // Asigna el paciente a la atención
-        atencion.setPaciente(pacienteService.getPacienteById(pacienteId));
+        enrutador.agrupar(validos, i -> enrutador.shardDeId(items.get(i).getPacienteId())).forEach((shard, indices) ->
+                enrutador.enShard(shard, () -> {
+                    insertarValidos(items, indices, resultados);
+                    return null;
+                }));
+    }
+
+    private void insertarValidos(List<AtencionLoteItem> items, List<Integer> indices,
+            List<ResultadoItemLote> resultados) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, double[]> totalesPorPaciente = new HashMap<>();
+                for (int i : indices) {
+                    Atencion atencion = prepararAtencion(items.get(i));
+                    entityManager.persist(atencion);
+                    eventosService.registrarAtencion(atencion, TipoEvento.CREADO);
+                    double[] totales = totalesPorPaciente.computeIfAbsent(items.get(i).getPacienteId(), id -> new double[2]);
+                    totales[0]++;
+                    totales[1] += atencion.getCosto();
+                }
+                entityManager.flush();
+                entityManager.clear();
+
+                totalesPorPaciente.forEach((pacienteId, totales) ->
+                        resumenCostosService.registrar(pacienteId, (long) totales[0], totales[1]));
+            });
 
-        return atencionRepository.save(atencion);
+            for (int i : indices) {
+                resultados.set(i, ResultadoItemLote.creado(i, items.get(i).getAtencion().getId()));
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            // Se reintenta cada atención por separado para aislar las que fallan
+            for (int i : indices) {
+                AtencionLoteItem item = items.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Atencion atencion = prepararAtencion(item);
+                        entityManager.persist(atencion);
+                        eventosService.registrarAtencion(atencion, TipoEvento.CREADO);
+                        entityManager.flush();
+                        resumenCostosService.registrar(item.getPacienteId(), 1, atencion.getCosto());
+                    });
+                    resultados.set(i, ResultadoItemLote.creado(i, item.getAtencion().getId()));
+                } catch (DataAccessException | PersistenceException ex) {
+                    resultados.set(i, ResultadoItemLote.fallido(i, Excepciones.mensajeCausaRaiz(ex)));
+                }
+            }
+        }
     }
 
-    public Atencion updateAtencion(Long id, Atencion atencion) {
-        if (atencionRepository.existsById(id)) {
-            atencion.setId(id);
-            return atencionRepository.save(atencion);
+    private Atencion prepararAtencion(AtencionLoteItem item) {
+        Atencion atencion = item.getAtencion();
+        atencion.setId(null);
+        atencion.setVersion(null);
+        atencion.setPaciente(entityManager.getReference(Paciente.class, item.getPacienteId()));
+        return atencion;
+    }
+
+    private static String validarItem(AtencionLoteItem item) {
+        if (item == null || item.getAtencion() == null) {
+            return "La atención es obligatoria";
+        }
+        if (item.getPacienteId() == null) {
+            return "El ID del paciente es obligatorio";
+        }
+        Atencion atencion = item.getAtencion();
+        if (atencion.getFechaAtencion() == null || atencion.getHoraAtencion() == null
+                || atencion.getCosto() == null) {
+            return "Faltan campos obligatorios";
         }
         return null;
     }
 
+    /**
+     * Actualiza una atención existente. La atención se modifica sobre la
+     * instancia ya cargada (normalmente desde la caché de segundo nivel), de
+     * modo que solo se ejecuta el UPDATE, con la versión como condición.
+     * 
+     * @param id       ID de la atención a actualizar.
+     * @param atencion Objeto {@link Atencion} con la nueva información. Si no
+     *                 trae paciente, se conserva el actual.
+     * @return Objeto {@link Atencion} actualizado o {@code null} si la atención
+     *         no existe.
+     * @throws CambioDeShardException si el nuevo paciente está en otro shard.
+     */
+    public Atencion updateAtencion(Long id, Atencion atencion) {
+        return enrutador.enShardDeId(id, () -> transactionTemplate.execute(status -> {
+            Atencion existente = atencionRepository.findById(id).orElse(null);
+            if (existente == null) {
+                return null;
+            }
+
+            registrarEnResumen(existente, -1);
+            existente.setFechaAtencion(atencion.getFechaAtencion());
+            existente.setHoraAtencion(atencion.getHoraAtencion());
+            existente.setCosto(atencion.getCosto());
+            existente.setComentario(atencion.getComentario());
+            if (atencion.getPaciente() != null && atencion.getPaciente().getId() != null) {
+                Long pacienteId = atencion.getPaciente().getId();
+                if (enrutador.shardDeId(pacienteId) != enrutador.shardDeId(id)) {
+                    throw new CambioDeShardException("El paciente " + pacienteId
+                            + " está en otro shard que la atención " + id);
+                }
+                existente.setPaciente(entityManager.getReference(Paciente.class, pacienteId));
+            }
+            registrarEnResumen(existente, 1);
+            eventosService.registrarAtencion(existente, TipoEvento.ACTUALIZADO);
+            return existente;
+        }));
+    }
+
     public void deleteAtencion(Long id) {
-        if (atencionRepository.existsById(id)) {
-            atencionRepository.deleteById(id);
+        enrutador.enShardDeId(id, () -> transactionTemplate.execute(status -> {
+            Atencion atencion = atencionRepository.findById(id).orElse(null);
+            if (atencion != null) {
+                registrarEnResumen(atencion, -1);
+                eventosService.registrarAtencion(atencion, TipoEvento.ELIMINADO);
+                atencionRepository.delete(atencion);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Obtiene el resumen de costos de las atenciones de un paciente.
+     * 
+     * @param pacienteId ID del paciente.
+     * @return Objeto {@link ResumenCostos} o {@code null} si el paciente no
+     *         existe.
+     */
+    public ResumenCostos getResumenCostos(Long pacienteId) {
+        if (pacienteService.getPacienteById(pacienteId) == null) {
+            return null;
         }
+        return enrutador.enShardDeId(pacienteId, () -> resumenCostosService.getResumen(pacienteId));
+    }
+
+    /**
+     * Obtiene los pacientes con mayor costo total de atenciones. Con shards,
+     * se combinan los primeros de cada shard.
+     * 
+     * @param limite Cantidad de pacientes a obtener.
+     * @return Lista de objetos {@link ResumenCostos} ordenados por costo total
+     *         descendente.
+     */
+    public List<ResumenCostos> getTopPacientesPorCosto(int limite) {
+        return enrutador.mezclar(() -> resumenCostosService.getTopPacientes(limite),
+                Comparator.comparingDouble(ResumenCostos::getTotal).reversed(),
+                Math.max(1, Math.min(limite, ResumenCostosService.LIMITE_TOP_MAXIMO)));
+    }
+
+    /**
+     * Registra en la tabla de resúmenes el alta (signo 1) o la baja (signo -1)
+     * de una atención.
+     */
+    private void registrarEnResumen(Atencion atencion, int signo) {
+        if (atencion.getPaciente() == null) {
+            return;
+        }
+        double costo = atencion.getCosto() != null ? atencion.getCosto() : 0;
+        resumenCostosService.registrar(atencion.getPaciente().getId(), signo, signo * costo);
     }
 
     public List<Atencion> getAtencionesByPacienteId(Long pacienteId) {
-        return atencionRepository.findByPacienteId(pacienteId);
-    }    
+        return enrutador.leer(enrutador.shardDeId(pacienteId), () -> atencionRepository.findByPacienteId(pacienteId));
+    }
+
+    /**
+     * Exporta todas las atenciones en formato NDJSON (un objeto JSON por línea).
+     * Las atenciones se leen con un cursor de solo avance y el contexto de
+     * persistencia se limpia cada {@value #LOTE_EXPORTACION} filas, por lo que
+     * el uso de memoria no depende del tamaño de la tabla. Con shards, se
+     * exportan las atenciones de un shard a la vez.
+     * 
+     * @param salida Flujo donde se escriben las atenciones. No se cierra.
+     * @throws IOException Si ocurre un error al escribir en el flujo.
+     */
+    public void exportarAtenciones(OutputStream salida) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try {
+            for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+                enrutador.leer(shard, () -> {
+                    try {
+                        exportarShard(writer, salida);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        salida.flush();
+    }
+
+    private void exportarShard(ObjectWriter writer, OutputStream salida) throws IOException {
+        try (Stream<Atencion> atenciones = atencionRepository.streamAll()) {
+            Iterator<Atencion> iterator = atenciones.iterator();
+            int escritas = 0;
+            while (iterator.hasNext()) {
+                writer.writeValue(salida, iterator.next());
+                salida.write('\n');
+
+                if (++escritas % LOTE_EXPORTACION == 0) {
+                    entityManager.clear();
+                    salida.flush();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,231 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hospital_vm.cl.hospital_vm.cache.PacienteCache;
+import com.hospital_vm.cl.hospital_vm.dto.FeedCambios;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.ConCambios;
+import com.hospital_vm.cl.hospital_vm.model.Eliminacion;
+import com.hospital_vm.cl.hospital_vm.model.EntidadEvento;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.repository.AtencionRepository;
+import com.hospital_vm.cl.hospital_vm.repository.EliminacionRepository;
+import com.hospital_vm.cl.hospital_vm.repository.PacienteRepository;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+import com.hospital_vm.cl.hospital_vm.util.RelojCambios;
+
+/**
+ * Servicio del feed de cambios de pacientes y atenciones.
+ *
+ * <p>Cada inserción o modificación asigna a la fila un valor de la secuencia
+ * de cambios (ver {@link RelojCambios}) y cada eliminación deja una
+ * {@link Eliminacion} con su propio valor. El feed devuelve las filas y las
+ * eliminaciones con secuencia mayor que la indicada por el cliente, por lo
+ * que el costo de cada consulta depende de la cantidad de cambios y no del
+ * tamaño de la tabla.</p>
+ *
+ * <p>La secuencia se asigna antes de confirmar la transacción, de modo que un
+ * cambio puede hacerse visible después de otro con secuencia mayor. Para no
+ * saltárselo, el feed solo entrega los cambios con una antigüedad de al menos
+ * {@code hospital.cambios.margen}.</p>
+ *
+ * <p>Por la misma razón el feed se lee siempre de la primaria y no de una
+ * réplica de lectura: un cambio que la réplica aún no recibe quedaría detrás
+ * de la posición entregada al cliente y no se informaría nunca.</p>
+ *
+ * <p>Con shards, cada shard guarda los cambios y eliminaciones de sus filas:
+ * el feed consulta todos los shards y combina sus resultados por
+ * secuencia.</p>
+ */
+@Service
+public class CambiosService {
+
+    /**
+     * Cantidad de cambios entregados cuando el cliente no indica un límite.
+     */
+    public static final int LIMITE_POR_DEFECTO = 500;
+
+    /**
+     * Cantidad máxima de cambios entregados en una respuesta.
+     */
+    public static final int LIMITE_MAXIMO = 5000;
+
+    @Value("${hospital.cambios.margen:5s}")
+    private Duration margen;
+
+    @Value("${hospital.cambios.retencion:7d}")
+    private Duration retencion;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private AtencionRepository atencionRepository;
+
+    @Autowired
+    private EliminacionRepository eliminacionRepository;
+
+    @Autowired
+    private PacienteCache pacienteCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
+    /**
+     * Obtiene los pacientes creados, modificados o eliminados desde una
+     * consulta anterior.
+     *
+     * @param desde  Valor de {@code siguiente} de la consulta anterior, o
+     *               {@code null} para obtener todos los pacientes.
+     * @param limite Cantidad máxima de cambios a entregar.
+     * @return Objeto {@link FeedCambios}, o {@code null} si {@code desde} es
+     *         anterior al período de retención de las eliminaciones y el
+     *         cliente debe volver a cargar todos los pacientes.
+     */
+    public FeedCambios<Paciente> getCambiosPacientes(Long desde, int limite) {
+        return leerCambios(EntidadEvento.PACIENTE, desde, limite, pacienteRepository::findCambiados);
+    }
+
+    /**
+     * Obtiene las atenciones creadas, modificadas o eliminadas desde una
+     * consulta anterior.
+     *
+     * @param desde  Valor de {@code siguiente} de la consulta anterior, o
+     *               {@code null} para obtener todas las atenciones.
+     * @param limite Cantidad máxima de cambios a entregar.
+     * @return Objeto {@link FeedCambios}, o {@code null} si {@code desde} es
+     *         anterior al período de retención de las eliminaciones.
+     */
+    public FeedCambios<Atencion> getCambiosAtenciones(Long desde, int limite) {
+        return leerCambios(EntidadEvento.ATENCION, desde, limite, atencionRepository::findCambiadas);
+    }
+
+    private <T extends ConCambios> FeedCambios<T> leerCambios(EntidadEvento entidad, Long desde, int limite,
+            ConsultaCambios<T> consulta) {
+        Instant ahora = Instant.now();
+        if (desde != null && desde > 0 && desde < RelojCambios.de(ahora.minus(retencion))) {
+            return null;
+        }
+
+        // Sin desde se incluyen las filas anteriores a la secuencia (negativas)
+        long inicio = desde != null ? desde : Long.MIN_VALUE;
+        long hasta = Math.max(inicio, RelojCambios.de(ahora.minus(margen)));
+        int tope = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        PageRequest pageRequest = PageRequest.of(0, tope);
+
+        Supplier<Tramo<T>> lectura = () -> new Tramo<>(consulta.buscar(inicio, hasta, pageRequest),
+                eliminacionRepository.findEntre(entidad, inicio, hasta, pageRequest));
+        // Sin shards, en una transacción de escritura para leer siempre de la primaria
+        List<Tramo<T>> tramos = enrutador.isActivo()
+                ? enrutador.reunir(lectura)
+                : List.of(transactionTemplate.<Tramo<T>>execute(status -> lectura.get()));
+
+        List<T> filas = new ArrayList<>();
+        List<Eliminacion> eliminaciones = new ArrayList<>();
+        boolean completo = false;
+        for (Tramo<T> tramo : tramos) {
+            filas.addAll(tramo.filas());
+            eliminaciones.addAll(tramo.eliminaciones());
+            completo |= tramo.filas().size() == tope || tramo.eliminaciones().size() == tope;
+        }
+        if (tramos.size() > 1) {
+            filas.sort(Comparator.comparingLong(ConCambios::getSecuenciaCambio));
+            eliminaciones.sort(Comparator.comparingLong(Eliminacion::getSecuenciaCambio));
+        }
+
+        // Se combinan ambas listas por secuencia hasta completar el límite
+        List<T> modificados = new ArrayList<>();
+        List<Long> eliminados = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        long ultima = hasta;
+        while (i + j < tope && (i < filas.size() || j < eliminaciones.size())) {
+            if (j >= eliminaciones.size() || (i < filas.size()
+                    && filas.get(i).getSecuenciaCambio() <= eliminaciones.get(j).getSecuenciaCambio())) {
+                ultima = filas.get(i).getSecuenciaCambio();
+                modificados.add(filas.get(i++));
+            } else {
+                ultima = eliminaciones.get(j).getSecuenciaCambio();
+                eliminados.add(eliminaciones.get(j++).getEntidadId());
+            }
+        }
+
+        boolean hayMas = i < filas.size() || j < eliminaciones.size() || completo;
+        return new FeedCambios<>(modificados, eliminados, hayMas ? ultima : hasta, hayMas);
+    }
+
+    /**
+     * Elimina las marcas de eliminación más antiguas que
+     * {@code hospital.cambios.retencion}.
+     *
+     * @return Cantidad de marcas eliminadas.
+     */
+    @Scheduled(fixedDelayString = "${hospital.cambios.intervalo-purga:1h}")
+    public int purgarEliminaciones() {
+        long limite = RelojCambios.de(Instant.now().minus(retencion));
+        int total = 0;
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            total += enrutador.enShard(shard,
+                    () -> transactionTemplate.execute(status -> eliminacionRepository.deleteAnteriores(limite)));
+        }
+        return total;
+    }
+
+    /**
+     * Asigna la secuencia de cambios a los pacientes y atenciones guardados
+     * antes de que existiera.
+     *
+     * <p>Cada fila recibe su ID negativo, con una sentencia UPDATE por tabla y
+     * shard: los valores no se repiten y quedan antes de todos los cambios
+     * registrados con {@link RelojCambios}, y un cliente que ya cargó todas
+     * las filas no las vuelve a recibir. La sentencia no modifica la versión
+     * de las filas, de modo que no invalida el ETag que un cliente tenga ni
+     * hace fallar una actualización concurrente.</p>
+     *
+     * @return Cantidad de filas actualizadas.
+     */
+    public int asignarSecuenciasPendientes() {
+        int pacientes = 0;
+        int atenciones = 0;
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            pacientes += enrutador.enShard(shard,
+                    () -> transactionTemplate.execute(status -> pacienteRepository.asignarSecuenciaPendiente()));
+            atenciones += enrutador.enShard(shard,
+                    () -> transactionTemplate.execute(status -> atencionRepository.asignarSecuenciaPendiente()));
+        }
+        if (pacientes > 0) {
+            pacienteCache.invalidarTodo();
+        }
+        return pacientes + atenciones;
+    }
+
+    /**
+     * Filas y eliminaciones de un tramo de la secuencia de cambios, ordenadas
+     * por secuencia.
+     */
+    private record Tramo<T>(List<T> filas, List<Eliminacion> eliminaciones) {
+    }
+
+    @FunctionalInterface
+    private interface ConsultaCambios<T> {
+
+        List<T> buscar(long desde, long hasta, Pageable pageable);
+    }
+}
@@ -0,0 +1,95 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.eventos.DifusorAtenciones;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Eliminacion;
+import com.hospital_vm.cl.hospital_vm.model.EntidadEvento;
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.model.TipoEvento;
+import com.hospital_vm.cl.hospital_vm.repository.EliminacionRepository;
+import com.hospital_vm.cl.hospital_vm.repository.EventoCambioRepository;
+import com.hospital_vm.cl.hospital_vm.util.RelojCambios;
+
+/**
+ * Servicio que registra los eventos de cambio de pacientes y atenciones en
+ * la tabla de eventos pendientes (outbox).
+ *
+ * <p>Los eventos se insertan en la transacción del cambio que describen,
+ * por lo que se confirman o se revierten junto con él. La publicación hacia
+ * los sistemas externos la hace
+ * {@link com.hospital_vm.cl.hospital_vm.eventos.PublicadorEventos} en
+ * segundo plano, sin demorar la solicitud.</p>
+ *
+ * <p>Las eliminaciones dejan además una {@link Eliminacion} para el feed de
+ * cambios de {@link CambiosService}, y los cambios de las atenciones se
+ * informan en vivo a los suscriptores de {@link DifusorAtenciones}.</p>
+ */
+@Service
+public class EventosService {
+
+    @Autowired
+    private EventoCambioRepository eventoCambioRepository;
+
+    @Autowired
+    private EliminacionRepository eliminacionRepository;
+
+    @Autowired
+    private DifusorAtenciones difusorAtenciones;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Registra un cambio de un paciente.
+     *
+     * @param paciente Paciente después del cambio (o antes de eliminarlo). Debe
+     *                 tener ID.
+     * @param tipo     Tipo de cambio.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPaciente(Paciente paciente, TipoEvento tipo) {
+        registrar(EntidadEvento.PACIENTE, paciente.getId(), tipo, paciente);
+    }
+
+    /**
+     * Registra un cambio de una atención. Del paciente solo se incluye el ID,
+     * de modo que no es necesario cargarlo.
+     *
+     * @param atencion Atención después del cambio (o antes de eliminarla).
+     *                 Debe tener ID.
+     * @param tipo     Tipo de cambio.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAtencion(Atencion atencion, TipoEvento tipo) {
+        Long pacienteId = atencion.getPaciente() != null ? atencion.getPaciente().getId() : null;
+        AtencionResumen datos = new AtencionResumen(atencion.getId(), atencion.getFechaAtencion(),
+                atencion.getHoraAtencion(), atencion.getCosto(), pacienteId);
+        registrar(EntidadEvento.ATENCION, atencion.getId(), tipo, datos);
+        difusorAtenciones.notificar(datos, tipo);
+    }
+
+    private void registrar(EntidadEvento entidad, Long entidadId, TipoEvento tipo, Object datos) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de " + entidad + " " + entidadId, e);
+        }
+        Instant ahora = Instant.now();
+        eventoCambioRepository.save(new EventoCambio(null, entidad, entidadId, tipo, ahora, json));
+        if (tipo == TipoEvento.ELIMINADO) {
+            eliminacionRepository.save(new Eliminacion(null, entidad, entidadId, RelojCambios.siguiente(), ahora));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Service;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.repository.PacienteReactivoRepository;
+import com.hospital_vm.cl.hospital_vm.shards.SinShards;
+import com.hospital_vm.cl.hospital_vm.util.Normalizador;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Servicio de lectura no bloqueante de pacientes, usado por la API
+ * {@code /v3}.
+ *
+ * <p>Las consultas se ejecutan con R2DBC y los resultados se entregan a
+ * medida que el cliente los consume, sin ocupar un hilo por solicitud
+ * mientras se espera la base de datos. Las escrituras siguen pasando por
+ * {@link PacienteService}.</p>
+ */
+@Service
+@Conditional(SinShards.class)
+public class PacienteReactivoService {
+
+    @Autowired
+    private PacienteReactivoRepository pacienteReactivoRepository;
+
+    /**
+     * Obtiene un paciente por su ID. A diferencia de
+     * {@link PacienteService#getPacienteById(Long)}, no usa la caché de
+     * pacientes.
+     *
+     * @param id ID del paciente.
+     * @return Paciente encontrado, o un {@link Mono} vacío si no existe.
+     */
+    public Mono<Paciente> getPacienteById(Long id) {
+        return pacienteReactivoRepository.findById(id);
+    }
+
+    /**
+     * Busca pacientes por prefijo de nombre y apellido, con los mismos
+     * criterios y el mismo orden de relevancia que
+     * {@link PacienteService#buscarPacientes(String, int, int)}.
+     *
+     * <p>Cada consulta de búsqueda ya viene ordenada por su clave de
+     * relevancia, por lo que los resultados se combinan a medida que llegan
+     * en lugar de reunirlos y ordenarlos en memoria. Un paciente que coincide
+     * en varias consultas se entrega solo la primera vez, que corresponde a
+     * su clave menor.</p>
+     *
+     * @param texto   Texto a buscar.
+     * @param pagina  Número de página (desde 0).
+     * @param tamanio Cantidad de resultados por página.
+     * @return Flujo de objetos {@link Paciente} de la página solicitada.
+     */
+    public Flux<Paciente> buscarPacientes(String texto, int pagina, int tamanio) {
+        String normalizado = Normalizador.normalizar(texto);
+        if (normalizado == null || normalizado.isEmpty()) {
+            return Flux.empty();
+        }
+
+        int limite = Math.max(1, Math.min(tamanio, PacienteService.TAMANIO_PAGINA_MAXIMO));
+        int desde = Math.max(0, pagina) * limite;
+        int hasta = Math.min(desde + limite, PacienteService.RESULTADOS_BUSQUEDA_MAXIMOS);
+        if (desde >= hasta) {
+            return Flux.empty();
+        }
+
+        // Pares (prefijo del campo principal, prefijo del otro campo) a buscar
+        List<String[]> patrones = new ArrayList<>();
+        String[] terminos = normalizado.split(" ", 2);
+        patrones.add(new String[] { Normalizador.patronPrefijo(normalizado), "%" });
+        if (terminos.length > 1) {
+            patrones.add(new String[] { Normalizador.patronPrefijo(terminos[0]), Normalizador.patronPrefijo(terminos[1]) });
+        }
+
+        List<Flux<Coincidencia>> consultas = new ArrayList<>();
+        for (String[] patron : patrones) {
+            consultas.add(pacienteReactivoRepository.buscarPorPrefijoNombre(patron[0], patron[1], hasta)
+                    .map(paciente -> new Coincidencia(paciente.getNombreNormalizado(), paciente)));
+            consultas.add(pacienteReactivoRepository.buscarPorPrefijoApellido(patron[0], patron[1], hasta)
+                    .map(paciente -> new Coincidencia(paciente.getApellidoNormalizado(), paciente)));
+        }
+
+        // mergeComparing solo recibe un arreglo, y Java no crea arreglos de tipos genéricos
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Flux<Coincidencia>[] fuentes = consultas.toArray(new Flux[0]);
+        Comparator<Coincidencia> relevancia = Comparator.comparing(Coincidencia::clave)
+                .thenComparing(coincidencia -> coincidencia.paciente().getId());
+        return Flux.mergeComparing(relevancia, fuentes)
+                .map(Coincidencia::paciente)
+                .distinct(Paciente::getId)
+                .skip(desde)
+                .take(hasta - desde);
+    }
+
+    /**
+     * Paciente encontrado junto con el valor del campo que coincidió con el
+     * primer término de la búsqueda.
+     */
+    private record Coincidencia(String clave, Paciente paciente) {
+    }
+}
@@ -1,43 +1,332 @@
 package com.hospital_vm.cl.hospital_vm.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.hospital_vm.cl.hospital_vm.cache.PacienteCache;
+import com.hospital_vm.cl.hospital_vm.dto.EstadisticasCache;
+import com.hospital_vm.cl.hospital_vm.dto.FeedCambios;
+import com.hospital_vm.cl.hospital_vm.dto.NombrePaciente;
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
+import com.hospital_vm.cl.hospital_vm.dto.VersionFila;
 import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.model.TipoEvento;
 import com.hospital_vm.cl.hospital_vm.repository.PacienteRepository;
+import com.hospital_vm.cl.hospital_vm.shards.CambioDeShardException;
+import com.hospital_vm.cl.hospital_vm.shards.EnrutadorShards;
+import com.hospital_vm.cl.hospital_vm.util.Cursor;
+import com.hospital_vm.cl.hospital_vm.util.Excepciones;
+import com.hospital_vm.cl.hospital_vm.util.Normalizador;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
 
 /**
  * Servicio para gestionar las operaciones relacionadas con los pacientes.
  * Proporciona métodos para listar, obtener, crear, actualizar y eliminar
- * pacientes.
+ * pacientes. Cada cambio registra un evento en {@link EventosService}, en la
+ * misma transacción.
+ *
+ * <p>Con shards (ver {@link EnrutadorShards}), las operaciones sobre un
+ * paciente se ejecutan en el shard de su ID o RUN, y las listas y búsquedas
+ * consultan todos los shards y combinan los resultados.</p>
  */
 @Service
+@Timed("hospital.servicio")
 public class PacienteService {
 
+    /**
+     * Tamaño de página utilizado cuando el cliente no indica uno.
+     */
+    public static final int TAMANIO_PAGINA_POR_DEFECTO = 50;
+
+    /**
+     * Tamaño de página máximo permitido.
+     */
+    public static final int TAMANIO_PAGINA_MAXIMO = 500;
+
+    /**
+     * Cantidad máxima de pacientes aceptados en una sola solicitud por lotes.
+     */
+    public static final int TAMANIO_LOTE_MAXIMO = 50_000;
+
+    /**
+     * Cantidad de pacientes procesados por transacción en una carga por lotes.
+     */
+    static final int TAMANIO_SUBLOTE = 500;
+
+    /**
+     * Tamaño de página por defecto en la búsqueda por nombre y apellido.
+     */
+    public static final int TAMANIO_BUSQUEDA_POR_DEFECTO = 20;
+
+    /**
+     * Cantidad máxima de resultados que se pueden recorrer en la búsqueda por
+     * nombre y apellido, sumando todas las páginas.
+     */
+    static final int RESULTADOS_BUSQUEDA_MAXIMOS = 1000;
+
+    /**
+     * Largo máximo del RUN, según la definición de la columna.
+     */
+    private static final int LARGO_MAXIMO_RUN = 13;
+
     @Autowired
     private PacienteRepository pacienteRepository;
 
+    @Autowired
+    private PacienteCache pacienteCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EventosService eventosService;
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
     /**
      * Obtiene una lista de todos los pacientes registrados.
      * 
      * @return Lista de objetos {@link Paciente}.
      */
     public List<Paciente> getAllPacientes() {
-        return pacienteRepository.findAll();
+        return enrutador.mezclar(pacienteRepository::findAll, Comparator.comparing(Paciente::getId),
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene una página de pacientes utilizando paginación por cursor (keyset
+     * sobre el ID). Solo se cargan en memoria los pacientes de la página
+     * solicitada.
+     * 
+     * @param cursor  Cursor de la página a obtener o {@code null} para la
+     *                primera página.
+     * @param tamanio Cantidad de pacientes por página. Se ajusta al rango
+     *                [1, {@value #TAMANIO_PAGINA_MAXIMO}].
+     * @return Objeto {@link Pagina} con los pacientes y los cursores de
+     *         navegación.
+     */
+    public Pagina<Paciente> getPacientesPagina(Cursor cursor, int tamanio) {
+        return paginar(cursor, tamanio, pacienteRepository::findSiguientes, pacienteRepository::findAnteriores,
+                Paciente::getId);
+    }
+
+    /**
+     * Obtiene solo el ID y la versión de los pacientes de una página, con los
+     * mismos cursores que {@link #getPacientesPagina(Cursor, int)}. Permite
+     * calcular el ETag de la página sin cargar los pacientes.
+     * 
+     * @param cursor  Cursor de la página o {@code null} para la primera página.
+     * @param tamanio Cantidad de pacientes por página.
+     * @return Objeto {@link Pagina} con el ID y la versión de cada paciente.
+     */
+    public Pagina<VersionFila> getVersionesPagina(Cursor cursor, int tamanio) {
+        return paginar(cursor, tamanio, pacienteRepository::findVersionesSiguientes,
+                pacienteRepository::findVersionesAnteriores, VersionFila::getId);
+    }
+
+    /**
+     * Obtiene una página con paginación por cursor. Con shards, cada shard
+     * entrega su página y se conservan los primeros IDs de todas.
+     */
+    private <T> Pagina<T> paginar(Cursor cursor, int tamanio, BiFunction<Long, Pageable, List<T>> siguientes,
+            BiFunction<Long, Pageable, List<T>> anteriores, Function<T, Long> idDe) {
+        int limite = Math.max(1, Math.min(tamanio, TAMANIO_PAGINA_MAXIMO));
+        // Se pide un elemento extra para saber si existe otra página
+        PageRequest pageRequest = PageRequest.of(0, limite + 1);
+        Comparator<T> porId = Comparator.comparing(idDe);
+
+        if (cursor == null || cursor.isHaciaAdelante()) {
+            Long despuesDe = cursor == null ? 0L : cursor.getId();
+            List<T> elementos = enrutador.mezclar(() -> siguientes.apply(despuesDe, pageRequest), porId,
+                    limite + 1);
+            boolean haySiguiente = elementos.size() > limite;
+            if (haySiguiente) {
+                elementos = elementos.subList(0, limite);
+            }
+
+            String siguiente = haySiguiente ? Cursor.despuesDe(ultimoId(elementos, idDe)).codificar() : null;
+            String anterior = cursor != null && !elementos.isEmpty()
+                    ? Cursor.antesDe(idDe.apply(elementos.get(0))).codificar()
+                    : null;
+            return new Pagina<>(elementos, siguiente, anterior);
+        }
+
+        List<T> elementos = enrutador.mezclar(() -> anteriores.apply(cursor.getId(), pageRequest), porId.reversed(),
+                limite + 1);
+        boolean hayAnterior = elementos.size() > limite;
+        if (hayAnterior) {
+            elementos = elementos.subList(0, limite);
+        }
+        elementos = new ArrayList<>(elementos);
+        Collections.reverse(elementos);
+
+        String anterior = hayAnterior ? Cursor.antesDe(idDe.apply(elementos.get(0))).codificar() : null;
+        String siguiente = elementos.isEmpty() ? null : Cursor.despuesDe(ultimoId(elementos, idDe)).codificar();
+        return new Pagina<>(elementos, siguiente, anterior);
+    }
+
+    private static <T> Long ultimoId(List<T> elementos, Function<T, Long> idDe) {
+        return idDe.apply(elementos.get(elementos.size() - 1));
+    }
+
+    /**
+     * Obtiene los pacientes creados, modificados o eliminados desde una
+     * consulta anterior del feed de cambios.
+     * 
+     * @param desde  Valor de {@code siguiente} de la consulta anterior, o
+     *               {@code null} para obtener todos los pacientes.
+     * @param limite Cantidad máxima de cambios a entregar.
+     * @return Objeto {@link FeedCambios}, o {@code null} si {@code desde} ya no
+     *         es válido y se deben volver a cargar todos los pacientes.
+     */
+    public FeedCambios<Paciente> getCambios(Long desde, int limite) {
+        return cambiosService.getCambiosPacientes(desde, limite);
     }
 
     /**
      * Obtiene un paciente por su ID.
      * 
+     * <p>Dentro de una transacción de solo lectura, que puede atenderse en una
+     * réplica de lectura, el paciente leído no se guarda en la caché.</p>
+     * 
      * @param id ID del paciente a buscar.
      * @return Objeto {@link Paciente} correspondiente al ID proporcionado o
      *         {@code null} si no se encuentra.
      */
     public Paciente getPacienteById(Long id) {
-        return pacienteRepository.findById(id).orElse(null);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Paciente enCache = pacienteCache.obtenerPorId(id, clave -> null);
+            return enCache != null ? enCache : buscarPorId(id);
+        }
+        return pacienteCache.obtenerPorId(id, this::buscarPorId);
+    }
+
+    private Paciente buscarPorId(Long id) {
+        return enrutador.enShardDeId(id, () -> pacienteRepository.findById(id).orElse(null));
+    }
+
+    /**
+     * Obtiene la versión actual de un paciente sin cargarlo: se usa la caché
+     * si lo tiene y, si no, una consulta que solo lee la versión. Permite
+     * responder una solicitud condicional sin obtener el paciente completo.
+     * 
+     * @param id ID del paciente.
+     * @return Versión del paciente o {@code null} si no existe.
+     */
+    public Long getVersionPaciente(Long id) {
+        Long version = pacienteCache.obtenerVersion(id);
+        return version != null ? version : enrutador.enShardDeId(id, () -> pacienteRepository.findVersionById(id));
+    }
+
+    /**
+     * Obtiene un paciente por su RUN.
+     * 
+     * @param run RUN del paciente a buscar.
+     * @return Objeto {@link Paciente} correspondiente al RUN proporcionado o
+     *         {@code null} si no se encuentra.
+     */
+    public Paciente getPacienteByRun(String run) {
+        return pacienteCache.obtenerPorRun(run,
+                clave -> enrutador.enShardDeRun(clave, () -> pacienteRepository.buscarPorRun(clave)));
+    }
+
+    /**
+     * Obtiene un paciente por su correo electrónico. Con shards, el correo se
+     * busca en todos.
+     * 
+     * @param correo Correo electrónico del paciente a buscar.
+     * @return Objeto {@link Paciente} correspondiente al correo proporcionado o
+     *         {@code null} si no se encuentra.
+     */
+    public Paciente getPacienteByCorreo(String correo) {
+        return pacienteCache.obtenerPorCorreo(correo, this::buscarPorCorreo);
+    }
+
+    /**
+     * Sin shards, la consulta no usa una transacción de solo lectura: el
+     * paciente se guarda en la caché y no debe leerse de una réplica.
+     */
+    private Paciente buscarPorCorreo(String correo) {
+        if (!enrutador.isActivo()) {
+            return pacienteRepository.findByCorreo(correo);
+        }
+        return enrutador.reunir(() -> pacienteRepository.findByCorreo(correo)).stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Obtiene los pacientes con los IDs indicados, consultando la base de datos
+     * en bloques de {@value #TAMANIO_SUBLOTE} IDs (con shards, los de cada
+     * shard en su base de datos).
+     * 
+     * @param ids IDs de los pacientes a obtener.
+     * @return Mapa de pacientes por ID. Los IDs inexistentes no se incluyen.
+     */
+    public Map<Long, Paciente> getPacientesByIds(Collection<Long> ids) {
+        Map<Long, Paciente> pacientes = new HashMap<>();
+        enrutador.agrupar(ids, enrutador::shardDeId).forEach((shard, pendientes) -> enrutador.leer(shard, () -> {
+            for (int inicio = 0; inicio < pendientes.size(); inicio += TAMANIO_SUBLOTE) {
+                List<Long> bloque = pendientes.subList(inicio, Math.min(inicio + TAMANIO_SUBLOTE, pendientes.size()));
+                for (Paciente paciente : pacienteRepository.findAllById(bloque)) {
+                    pacientes.put(paciente.getId(), paciente);
+                }
+            }
+            return null;
+        }));
+        return pacientes;
+    }
+
+    /**
+     * Obtiene cuáles de los IDs indicados corresponden a pacientes existentes.
+     * 
+     * @param ids IDs de pacientes a verificar.
+     * @return Conjunto con los IDs que existen.
+     */
+    public Set<Long> getIdsExistentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        if (!enrutador.isActivo()) {
+            return pacienteRepository.findIdsExistentes(ids);
+        }
+        Set<Long> existentes = new HashSet<>();
+        enrutador.agrupar(ids, enrutador::shardDeId).forEach((shard, grupo) ->
+                existentes.addAll(enrutador.enShard(shard, () -> pacienteRepository.findIdsExistentes(grupo))));
+        return existentes;
     }
 
     /**
@@ -49,22 +338,192 @@ public class PacienteService {
      * @return Objeto {@link Paciente} guardado o existente.
      */
     public Paciente savePaciente(Paciente paciente) {
-        Paciente pacientePorRut = pacienteRepository.findByRun(paciente.getRun());
+        Paciente pacientePorRut = getPacienteByRun(paciente.getRun());
 
         if (paciente.getRun() != null && pacientePorRut != null) {
             return pacientePorRut;
         }
 
-        return pacienteRepository.save(paciente);
+        if (paciente.getId() != null) {
+            // Si se recibió un ID existente, se actualiza ese paciente
+            Paciente actualizado = updatePaciente(paciente.getId(), paciente);
+            if (actualizado != null) {
+                return actualizado;
+            }
+            paciente.setId(null);
+        }
+
+        Paciente guardado = enrutador.enShardDeRun(paciente.getRun(), () -> transactionTemplate.execute(status -> {
+            Paciente nuevo = pacienteRepository.save(paciente);
+            eventosService.registrarPaciente(nuevo, TipoEvento.CREADO);
+            return nuevo;
+        }));
+        pacienteCache.invalidar(guardado.getId());
+        return guardado;
+    }
+
+    /**
+     * Guarda un conjunto de pacientes en el sistema.
+     * Los pacientes se procesan en sublotes de {@value #TAMANIO_SUBLOTE}: por
+     * cada sublote se consultan los RUN existentes en una sola consulta y los
+     * pacientes nuevos se insertan con lotes JDBC en una única transacción.
+     * Si el sublote falla (por ejemplo, porque otro proceso insertó el mismo
+     * RUN), sus pacientes se reintentan de forma individual. Con shards, cada
+     * sublote se reparte entre los shards de sus RUN.
+     * 
+     * @param pacientes Lista de objetos {@link Paciente} a guardar.
+     * @return Objeto {@link ResultadoLote} con el resultado de cada paciente,
+     *         en el mismo orden de la lista recibida.
+     */
+    public ResultadoLote saveAll(List<Paciente> pacientes) {
+        List<ResultadoItemLote> resultados = new ArrayList<>(Collections.nCopies(pacientes.size(), null));
+
+        for (int inicio = 0; inicio < pacientes.size(); inicio += TAMANIO_SUBLOTE) {
+            int fin = Math.min(inicio + TAMANIO_SUBLOTE, pacientes.size());
+            guardarSublote(pacientes, inicio, fin, resultados);
+        }
+
+        return ResultadoLote.de(resultados);
+    }
+
+    private void guardarSublote(List<Paciente> pacientes, int inicio, int fin, List<ResultadoItemLote> resultados) {
+        Set<String> runs = new HashSet<>();
+        for (int i = inicio; i < fin; i++) {
+            String error = validarPaciente(pacientes.get(i));
+            if (error != null) {
+                resultados.set(i, ResultadoItemLote.fallido(i, error));
+            } else {
+                runs.add(pacientes.get(i).getRun());
+            }
+        }
+
+        Map<String, Long> idsPorRun = new HashMap<>();
+        enrutador.agrupar(runs, enrutador::shardDeRun).forEach((shard, grupo) -> {
+            for (Paciente existente : enrutador.enShard(shard, () -> pacienteRepository.findByRunIn(grupo))) {
+                idsPorRun.put(existente.getRun(), existente.getId());
+            }
+        });
+
+        // Los RUN repetidos dentro de la misma solicitud se insertan una sola vez
+        Map<String, Integer> primerIndicePorRun = new HashMap<>();
+        List<Integer> nuevos = new ArrayList<>();
+        List<Integer> repetidos = new ArrayList<>();
+        for (int i = inicio; i < fin; i++) {
+            if (resultados.get(i) != null) {
+                continue;
+            }
+            String run = pacientes.get(i).getRun();
+            if (idsPorRun.containsKey(run)) {
+                resultados.set(i, ResultadoItemLote.existente(i, idsPorRun.get(run)));
+            } else if (primerIndicePorRun.putIfAbsent(run, i) == null) {
+                nuevos.add(i);
+            } else {
+                repetidos.add(i);
+            }
+        }
+
+        enrutador.agrupar(nuevos, i -> enrutador.shardDeRun(pacientes.get(i).getRun())).forEach((shard, indices) ->
+                enrutador.enShard(shard, () -> {
+                    insertarNuevos(pacientes, indices, resultados);
+                    return null;
+                }));
+
+        for (int i : repetidos) {
+            ResultadoItemLote primero = resultados.get(primerIndicePorRun.get(pacientes.get(i).getRun()));
+            resultados.set(i, primero.getId() != null
+                    ? ResultadoItemLote.existente(i, primero.getId())
+                    : ResultadoItemLote.fallido(i, primero.getError()));
+        }
+    }
+
+    private void insertarNuevos(List<Paciente> pacientes, List<Integer> indices, List<ResultadoItemLote> resultados) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i : indices) {
+                    Paciente paciente = pacientes.get(i);
+                    paciente.setId(null);
+                    paciente.setVersion(null);
+                    entityManager.persist(paciente);
+                    eventosService.registrarPaciente(paciente, TipoEvento.CREADO);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+
+            for (int i : indices) {
+                resultados.set(i, ResultadoItemLote.creado(i, pacientes.get(i).getId()));
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            for (int i : indices) {
+                Paciente paciente = pacientes.get(i);
+                try {
+                    // persist() ya les asignó ID y versión en la transacción revertida
+                    paciente.setId(null);
+                    paciente.setVersion(null);
+                    Paciente guardado = transactionTemplate.execute(status -> savePaciente(paciente));
+                    // savePaciente devuelve el paciente existente si el RUN ya fue insertado
+                    resultados.set(i, guardado == paciente
+                            ? ResultadoItemLote.creado(i, guardado.getId())
+                            : ResultadoItemLote.existente(i, guardado.getId()));
+                } catch (DataAccessException | PersistenceException ex) {
+                    resultados.set(i, ResultadoItemLote.fallido(i, Excepciones.mensajeCausaRaiz(ex)));
+                }
+            }
+        }
+    }
+
+    private static String validarPaciente(Paciente paciente) {
+        if (paciente == null) {
+            return "El paciente es obligatorio";
+        }
+        if (paciente.getRun() == null || paciente.getRun().isBlank()) {
+            return "El RUN es obligatorio";
+        }
+        if (paciente.getRun().length() > LARGO_MAXIMO_RUN) {
+            return "El RUN no puede superar " + LARGO_MAXIMO_RUN + " caracteres";
+        }
+        if (paciente.getNombre() == null || paciente.getApellido() == null || paciente.getDireccion() == null
+                || paciente.getFechaNacimiento() == null || paciente.getCorreo() == null) {
+            return "Faltan campos obligatorios";
+        }
+        return null;
     }
 
     /**
      * Elimina un paciente del sistema por su ID.
      * 
      * @param id ID del paciente a eliminar.
+     * @return {@code true} si el paciente existía y fue eliminado.
+     */
+    public boolean deletePaciente(Long id) {
+        return deletePaciente(id, null);
+    }
+
+    /**
+     * Elimina un paciente del sistema por su ID, verificando opcionalmente su
+     * versión. El paciente se obtiene del contexto de persistencia o de la
+     * caché de segundo nivel, por lo que normalmente solo se ejecuta el DELETE.
+     * 
+     * @param id              ID del paciente a eliminar.
+     * @param versionEsperada Versión que debe tener el paciente, o {@code null}
+     *                        para no verificarla.
+     * @return {@code true} si el paciente existía y fue eliminado.
+     * @throws OptimisticLockingFailureException si la versión no coincide.
      */
-    public void deletePaciente(Long id) {
-        pacienteRepository.deleteById(id);
+    public boolean deletePaciente(Long id, Long versionEsperada) {
+        Boolean eliminado = enrutador.enShardDeId(id, () -> transactionTemplate.execute(status -> {
+            Paciente existente = pacienteRepository.findById(id).orElse(null);
+            if (existente == null) {
+                return false;
+            }
+            verificarVersion(existente, versionEsperada);
+            eventosService.registrarPaciente(existente, TipoEvento.ELIMINADO);
+            pacienteRepository.delete(existente);
+            pacienteRepository.flush();
+            return true;
+        }));
+        pacienteCache.invalidar(id);
+        return Boolean.TRUE.equals(eliminado);
     }
 
     /**
@@ -76,12 +535,30 @@ public class PacienteService {
      *         existe.
      */
     public Paciente updatePaciente(Long id, Paciente paciente) {
-        if (pacienteRepository.existsById(id)) {
-            paciente.setId(id);
-            return pacienteRepository.save(paciente);
-        }
+        return updatePaciente(id, paciente, null);
+    }
 
-        return null;
+    /**
+     * Actualiza completamente la información de un paciente existente,
+     * verificando opcionalmente su versión.
+     * 
+     * @param id              ID del paciente a actualizar.
+     * @param paciente        Objeto {@link Paciente} con la nueva información.
+     * @param versionEsperada Versión que debe tener el paciente, o {@code null}
+     *                        para no verificarla.
+     * @return Objeto {@link Paciente} actualizado o {@code null} si el paciente no
+     *         existe.
+     * @throws OptimisticLockingFailureException si la versión no coincide.
+     */
+    public Paciente updatePaciente(Long id, Paciente paciente, Long versionEsperada) {
+        return modificar(id, versionEsperada, existente -> {
+            existente.setNombre(paciente.getNombre());
+            existente.setApellido(paciente.getApellido());
+            existente.setRun(paciente.getRun());
+            existente.setDireccion(paciente.getDireccion());
+            existente.setFechaNacimiento(paciente.getFechaNacimiento());
+            existente.setCorreo(paciente.getCorreo());
+        });
     }
 
     /**
@@ -95,28 +572,84 @@ public class PacienteService {
      *         existe.
      */
     public Paciente patchPaciente(Long id, Paciente paciente) {
-        Optional<Paciente> optionalPaciente = pacienteRepository.findById(id);
+        return patchPaciente(id, paciente, null);
+    }
 
-        if (optionalPaciente.isEmpty()) {
-            return null;
-        }
+    /**
+     * Actualiza parcialmente la información de un paciente existente,
+     * verificando opcionalmente su versión.
+     * 
+     * @param id              ID del paciente a actualizar.
+     * @param paciente        Objeto {@link Paciente} con la información parcial
+     *                        a actualizar.
+     * @param versionEsperada Versión que debe tener el paciente, o {@code null}
+     *                        para no verificarla.
+     * @return Objeto {@link Paciente} actualizado o {@code null} si el paciente no
+     *         existe.
+     * @throws OptimisticLockingFailureException si la versión no coincide.
+     */
+    public Paciente patchPaciente(Long id, Paciente paciente, Long versionEsperada) {
+        return modificar(id, versionEsperada, existente -> {
+            if (paciente.getNombre() != null)
+                existente.setNombre(paciente.getNombre());
+            if (paciente.getApellido() != null)
+                existente.setApellido(paciente.getApellido());
+            if (paciente.getRun() != null)
+                existente.setRun(paciente.getRun());
+            if (paciente.getDireccion() != null)
+                existente.setDireccion(paciente.getDireccion());
+            if (paciente.getFechaNacimiento() != null)
+                existente.setFechaNacimiento(paciente.getFechaNacimiento());
+            if (paciente.getCorreo() != null)
+                existente.setCorreo(paciente.getCorreo());
+        });
+    }
 
-        Paciente existingPaciente = optionalPaciente.get();
+    /**
+     * Aplica los cambios sobre la instancia administrada del paciente y la
+     * sincroniza con la base de datos. Como el paciente se obtiene del contexto
+     * de persistencia o de la caché de segundo nivel, normalmente solo se
+     * ejecuta el UPDATE, que además verifica la versión.
+     * 
+     * @throws CambioDeShardException si el nuevo RUN corresponde a otro shard.
+     */
+    private Paciente modificar(Long id, Long versionEsperada, Consumer<Paciente> cambios) {
+        Paciente actualizado = enrutador.enShardDeId(id, () -> transactionTemplate.execute(status -> {
+            Paciente existente = pacienteRepository.findById(id).orElse(null);
+            if (existente == null) {
+                return null;
+            }
+            verificarVersion(existente, versionEsperada);
+            cambios.accept(existente);
+            if (enrutador.shardDeRun(existente.getRun()) != enrutador.shardDeId(id)) {
+                throw new CambioDeShardException("El RUN " + existente.getRun()
+                        + " corresponde a otro shard que el del paciente " + id);
+            }
+            Paciente guardado = pacienteRepository.saveAndFlush(existente);
+            eventosService.registrarPaciente(guardado, TipoEvento.ACTUALIZADO);
+            return guardado;
+        }));
+        // Se invalida después de confirmar, para que nadie vuelva a cargar la
+        // versión anterior
+        pacienteCache.invalidar(id);
+        return actualizado;
+    }
 
-        if (paciente.getNombre() != null)
-            existingPaciente.setNombre(paciente.getNombre());
-        if (paciente.getApellido() != null)
-            existingPaciente.setApellido(paciente.getApellido());
-        if (paciente.getRun() != null)
-            existingPaciente.setRun(paciente.getRun());
-        if (paciente.getDireccion() != null)
-            existingPaciente.setDireccion(paciente.getDireccion());
-        if (paciente.getFechaNacimiento() != null)
-            existingPaciente.setFechaNacimiento(paciente.getFechaNacimiento());
-        if (paciente.getCorreo() != null)
-            existingPaciente.setCorreo(paciente.getCorreo());
+    private static void verificarVersion(Paciente paciente, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(paciente.getVersion())) {
+            throw new OptimisticLockingFailureException("El paciente " + paciente.getId()
+                    + " fue modificado (versión actual " + paciente.getVersion() + ")");
+        }
+    }
 
-        return pacienteRepository.save(existingPaciente);
+    /**
+     * Obtiene las estadísticas de la caché de pacientes.
+     * 
+     * @return Objeto {@link EstadisticasCache} con aciertos, fallos y
+     *         expulsiones.
+     */
+    public EstadisticasCache getEstadisticasCache() {
+        return pacienteCache.getEstadisticas();
     }
 
     /**
@@ -126,7 +659,8 @@ public class PacienteService {
      * @return Lista de objetos {@link Paciente} que coincidan con el nombre.
      */
     public List<Paciente> buscarPacientesPorNombreJPQL(String nombre) {
-        return pacienteRepository.findByNombreJPQL(nombre);
+        return enrutador.mezclar(() -> pacienteRepository.findByNombreJPQL(nombre),
+                Comparator.comparing(Paciente::getId), Integer.MAX_VALUE);
     }
 
     /**
@@ -136,6 +670,134 @@ public class PacienteService {
      * @return Lista de objetos {@link Paciente} que coincidan con el nombre.
      */
     public List<Paciente> buscarPacientesPorNombreNative(String nombre) {
-        return pacienteRepository.findByNombreNative(nombre);
+        return enrutador.mezclar(() -> pacienteRepository.findByNombreNative(nombre),
+                Comparator.comparing(Paciente::getId), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Busca pacientes por prefijo de nombre y apellido, sin distinguir
+     * mayúsculas ni tildes. El primer término se compara con el nombre o con
+     * el apellido y el resto del texto con el otro campo; por ejemplo,
+     * {@code "ana per"} y {@code "perez an"} encuentran a "Ana Pérez".
+     * 
+     * <p>Se ejecuta una consulta por cada índice de búsqueda (nombre y
+     * apellido) y los resultados se combinan por relevancia: primero las
+     * coincidencias exactas y luego las más cortas en orden alfabético. Si el
+     * texto tiene varios términos, también se busca completo como prefijo de
+     * un nombre o apellido compuesto.</p>
+     * 
+     * <p>Con shards, las consultas se ejecutan en todos los shards en paralelo
+     * y sus resultados se combinan con el mismo orden.</p>
+     * 
+     * @param texto   Texto a buscar.
+     * @param pagina  Número de página (desde 0).
+     * @param tamanio Cantidad de resultados por página.
+     * @return Lista de objetos {@link Paciente} de la página solicitada.
+     */
+    public List<Paciente> buscarPacientes(String texto, int pagina, int tamanio) {
+        String normalizado = Normalizador.normalizar(texto);
+        if (normalizado == null || normalizado.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int limite = Math.max(1, Math.min(tamanio, TAMANIO_PAGINA_MAXIMO));
+        int desde = Math.max(0, pagina) * limite;
+        int hasta = Math.min(desde + limite, RESULTADOS_BUSQUEDA_MAXIMOS);
+        if (desde >= hasta) {
+            return Collections.emptyList();
+        }
+
+        // Pares (prefijo del campo principal, prefijo del otro campo) a buscar
+        List<String[]> patrones = new ArrayList<>();
+        String[] terminos = normalizado.split(" ", 2);
+        if (terminos.length > 1) {
+            // Nombres y apellidos compuestos, como "maria jose" o "de la fuente"
+            patrones.add(new String[] { Normalizador.patronPrefijo(normalizado), "%" });
+            patrones.add(new String[] { Normalizador.patronPrefijo(terminos[0]), Normalizador.patronPrefijo(terminos[1]) });
+        } else {
+            patrones.add(new String[] { Normalizador.patronPrefijo(normalizado), "%" });
+        }
+        PageRequest pageRequest = PageRequest.of(0, hasta);
+
+        List<List<Coincidencia>> porShard = enrutador.reunir(() -> buscarCoincidencias(patrones, pageRequest));
+
+        List<Paciente> ordenados = porShard.stream().flatMap(List::stream)
+                .sorted(Comparator.comparing(Coincidencia::clave)
+                        .thenComparing(coincidencia -> coincidencia.paciente().getId()))
+                .map(Coincidencia::paciente)
+                .toList();
+
+        if (desde >= ordenados.size()) {
+            return Collections.emptyList();
+        }
+        return ordenados.subList(desde, Math.min(hasta, ordenados.size()));
+    }
+
+    private List<Coincidencia> buscarCoincidencias(List<String[]> patrones, PageRequest pageRequest) {
+        // Clave de relevancia: el valor del campo que coincidió con el primer término
+        Map<Long, Paciente> pacientes = new HashMap<>();
+        Map<Long, String> claves = new HashMap<>();
+        for (String[] patron : patrones) {
+            for (Paciente paciente : pacienteRepository.buscarPorPrefijoNombre(patron[0], patron[1], pageRequest)) {
+                pacientes.putIfAbsent(paciente.getId(), paciente);
+                claves.merge(paciente.getId(), paciente.getNombreNormalizado(), PacienteService::menor);
+            }
+            for (Paciente paciente : pacienteRepository.buscarPorPrefijoApellido(patron[0], patron[1], pageRequest)) {
+                pacientes.putIfAbsent(paciente.getId(), paciente);
+                claves.merge(paciente.getId(), paciente.getApellidoNormalizado(), PacienteService::menor);
+            }
+        }
+
+        List<Coincidencia> coincidencias = new ArrayList<>(pacientes.size());
+        pacientes.forEach((id, paciente) -> coincidencias.add(new Coincidencia(claves.get(id), paciente)));
+        return coincidencias;
+    }
+
+    private static String menor(String a, String b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Paciente encontrado junto con el valor del campo que coincidió con el
+     * primer término de la búsqueda.
+     */
+    private record Coincidencia(String clave, Paciente paciente) {
+    }
+
+    /**
+     * Calcula las columnas de búsqueda de los pacientes registrados antes de
+     * que existieran, en lotes de {@value #TAMANIO_SUBLOTE}, en cada shard.
+     * Se leen solo el nombre y el apellido y las columnas se guardan con un
+     * UPDATE directo: guardar las entidades cambiaría su versión (y su ETag) y
+     * las publicaría en el feed de cambios sin que hayan cambiado.
+     * 
+     * @return Cantidad de pacientes actualizados.
+     */
+    public int normalizarPendientes() {
+        int total = 0;
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            total += enrutador.enShard(shard, this::normalizarPendientesDelShard);
+        }
+        return total;
+    }
+
+    private int normalizarPendientesDelShard() {
+        int total = 0;
+        while (true) {
+            Integer actualizados = transactionTemplate.execute(status -> {
+                List<NombrePaciente> pendientes = pacienteRepository
+                        .findNombresSinNormalizar(PageRequest.of(0, TAMANIO_SUBLOTE));
+                for (NombrePaciente pendiente : pendientes) {
+                    pacienteRepository.guardarNormalizacion(pendiente.getId(),
+                            Normalizador.normalizar(pendiente.getNombre()),
+                            Normalizador.normalizar(pendiente.getApellido()));
+                }
+                return pendientes.size();
+            });
+            if (actualizados == null || actualizados == 0) {
+                return total;
+            }
+            total += actualizados;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hospital_vm.cl.hospital_vm.dto.ResumenCostos;
+import com.hospital_vm.cl.hospital_vm.repository.AtencionRepository;
+import com.hospital_vm.cl.hospital_vm.repository.ResumenCostoPacienteRepository;
+
+/**
+ * Servicio para obtener los resúmenes de costos de las atenciones por
+ * paciente.
+ * 
+ * <p>Por defecto los resúmenes se calculan en la base de datos con consultas
+ * {@code GROUP BY}. Si se activa {@code hospital.atenciones.resumen-incremental},
+ * se mantiene además una tabla de resúmenes que {@link AtencionService}
+ * actualiza en la misma transacción de cada cambio, y las lecturas se
+ * responden desde esa tabla.</p>
+ */
+@Service
+public class ResumenCostosService {
+
+    /**
+     * Cantidad máxima de pacientes en el reporte de mayor costo.
+     */
+    public static final int LIMITE_TOP_MAXIMO = 100;
+
+    @Value("${hospital.atenciones.resumen-incremental:false}")
+    private boolean incremental;
+
+    @Autowired
+    private AtencionRepository atencionRepository;
+
+    @Autowired
+    private ResumenCostoPacienteRepository resumenRepository;
+
+    private final TransactionTemplate transaccionNueva;
+
+    public ResumenCostosService(PlatformTransactionManager transactionManager) {
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Obtiene el resumen de costos de las atenciones de un paciente.
+     * 
+     * @param pacienteId ID del paciente.
+     * @return Objeto {@link ResumenCostos}, con valores en cero si el paciente
+     *         no tiene atenciones.
+     */
+    public ResumenCostos getResumen(Long pacienteId) {
+        ResumenCostos resumen;
+        if (incremental) {
+            resumen = resumenRepository.findById(pacienteId)
+                    .map(r -> new ResumenCostos(r.getPacienteId(), r.getCantidad(), r.getTotal()))
+                    .orElse(null);
+        } else {
+            resumen = atencionRepository.resumirCostosPorPaciente(pacienteId);
+        }
+        return resumen != null ? resumen : ResumenCostos.vacio(pacienteId);
+    }
+
+    /**
+     * Obtiene los pacientes con mayor costo total de atenciones.
+     * 
+     * @param limite Cantidad de pacientes a obtener, entre 1 y
+     *               {@value #LIMITE_TOP_MAXIMO}.
+     * @return Lista de objetos {@link ResumenCostos} ordenados por costo total
+     *         descendente.
+     */
+    public List<ResumenCostos> getTopPacientes(int limite) {
+        PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(limite, LIMITE_TOP_MAXIMO)));
+        if (incremental) {
+            return resumenRepository.findTopPorTotal(pageRequest);
+        }
+        return atencionRepository.findTopPacientesPorCosto(pageRequest);
+    }
+
+    /**
+     * Registra un cambio en las atenciones de un paciente en la tabla de
+     * resúmenes. Debe invocarse dentro de la transacción que modifica las
+     * atenciones. No hace nada si el resumen incremental está desactivado.
+     * 
+     * @param pacienteId    ID del paciente.
+     * @param deltaCantidad Variación de la cantidad de atenciones.
+     * @param deltaTotal    Variación del costo total.
+     */
+    public void registrar(Long pacienteId, long deltaCantidad, double deltaTotal) {
+        if (!incremental || pacienteId == null || (deltaCantidad == 0 && deltaTotal == 0)) {
+            return;
+        }
+
+        if (resumenRepository.incrementar(pacienteId, deltaCantidad, deltaTotal) == 0) {
+            // La fila vacía se crea en una transacción propia para que una
+            // inserción concurrente del mismo paciente no aborte este cambio
+            try {
+                transaccionNueva.executeWithoutResult(status -> resumenRepository.insertarVacio(pacienteId));
+            } catch (DataIntegrityViolationException e) {
+                // Otra transacción ya creó la fila
+            }
+            resumenRepository.incrementar(pacienteId, deltaCantidad, deltaTotal);
+        }
+    }
+
+    /**
+     * Recalcula la tabla de resúmenes a partir de las atenciones existentes.
+     * No hace nada si el resumen incremental está desactivado.
+     */
+    @Transactional
+    public void reconstruir() {
+        if (!incremental) {
+            return;
+        }
+        resumenRepository.eliminarTodos();
+        resumenRepository.insertarDesdeAtenciones();
+    }
+}
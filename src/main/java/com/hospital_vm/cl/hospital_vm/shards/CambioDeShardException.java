@@ -0,0 +1,15 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+/**
+ * Indica que una modificación cambiaría el shard de un paciente o atención,
+ * por ejemplo al cambiar el RUN de un paciente por uno que corresponde a otro
+ * shard. El ID de la fila incluye su shard, por lo que no puede moverse.
+ */
+public class CambioDeShardException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CambioDeShardException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+/**
+ * Entrega a Hibernate las conexiones de la base de datos de cada sesión (ver
+ * {@link ResolutorShard}): la de un shard o, para
+ * {@value EnrutadorShards#GLOBAL}, la de {@code spring.datasource}.
+ */
+public class ConexionesShards extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String>
+        implements AutoCloseable {
+
+    private final DataSource global;
+
+    private final List<DataSource> shards;
+
+    /**
+     * @param global Base de datos de {@code spring.datasource}.
+     * @param shards Base de datos de cada shard, por número de shard.
+     */
+    public ConexionesShards(DataSource global, List<DataSource> shards) {
+        this.global = global;
+        this.shards = List.copyOf(shards);
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected DataSource selectAnyDataSource() {
+        return global;
+    }
+
+    @Override
+    protected DataSource selectDataSource(String tenant) {
+        int shard = EnrutadorShards.shardDeTenant(tenant);
+        if (shard < 0) {
+            return global;
+        }
+        if (shard >= shards.size()) {
+            throw new IllegalArgumentException("El shard " + shard + " no existe");
+        }
+        return shards.get(shard);
+    }
+
+    /**
+     * Cierra los pools de los shards, también a través de envoltorios como
+     * {@code DataSourceMedido}. El de {@code spring.datasource} lo cierra
+     * Spring Boot.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard.isWrapperFor(AutoCloseable.class)) {
+                shard.unwrap(AutoCloseable.class).close();
+            }
+        }
+    }
+}
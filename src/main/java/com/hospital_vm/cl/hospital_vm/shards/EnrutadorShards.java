@@ -0,0 +1,358 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hospital_vm.cl.hospital_vm.metricas.ContadorConsultas;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reparte los pacientes, y con ellos sus atenciones, entre las bases de datos
+ * de {@code hospital.shards.urls} según un hash de su RUN. El ID de los
+ * pacientes y atenciones lleva el número de su shard en los
+ * {@value #BITS_SHARD} bits menos significativos (ver {@link GeneradorIdShard}),
+ * por lo que un paciente se ubica tanto por su RUN como por su ID, y una
+ * atención por su ID o por el de su paciente.
+ *
+ * <p>Las operaciones sobre un shard se ejecutan con {@link #enShard}, que
+ * indica a Hibernate en qué base de datos abrir la sesión (ver
+ * {@link ResolutorShard}). El shard debe fijarse antes de comenzar la
+ * transacción: una transacción ya iniciada sigue usando la base de datos en
+ * que comenzó. Las consultas que abarcan todos los pacientes se ejecutan en
+ * paralelo en cada shard con {@link #reunir} y sus resultados se combinan en
+ * memoria.</p>
+ *
+ * <p>Sin {@code hospital.shards.urls} hay un solo shard, la base de datos de
+ * {@code spring.datasource}, y todas las operaciones se ejecutan directamente
+ * en el hilo que las invoca.</p>
+ */
+@Component
+public class EnrutadorShards {
+
+    /**
+     * Bits del ID reservados para el número de shard.
+     */
+    public static final int BITS_SHARD = 10;
+
+    /**
+     * Cantidad máxima de shards que se pueden codificar en el ID.
+     */
+    public static final int SHARDS_MAXIMOS = 1 << BITS_SHARD;
+
+    /**
+     * Identificador de Hibernate de la base de datos de
+     * {@code spring.datasource}, usada cuando no se indicó un shard.
+     */
+    public static final String GLOBAL = "global";
+
+    private static final String PREFIJO = "shard-";
+
+    /**
+     * Shard en que se ejecuta la operación actual del hilo, o {@code null}
+     * fuera de {@link #enShard}.
+     */
+    private static final ThreadLocal<Integer> SHARD_ACTUAL = new ThreadLocal<>();
+
+    private final int cantidad;
+
+    private final boolean activo;
+
+    private final Duration espera;
+
+    private final TransactionTemplate lectura;
+
+    private final ExecutorService consultas;
+
+    @Autowired
+    public EnrutadorShards(PlatformTransactionManager transactionManager,
+            @Value("${hospital.shards.urls:}") String[] urls,
+            @Value("${hospital.shards.hilos:8}") int hilos,
+            @Value("${hospital.shards.espera:10s}") Duration espera) {
+        this(transactionManager, (int) Arrays.stream(urls).filter(url -> !url.isBlank()).count(), hilos, espera);
+    }
+
+    /**
+     * @param transactionManager Administrador de las transacciones de lectura
+     *                           de {@link #reunir}.
+     * @param cantidad           Cantidad de shards, o 0 para no repartir.
+     * @param hilos              Hilos que consultan los shards en paralelo.
+     * @param espera             Tiempo máximo de espera de {@link #reunir}.
+     */
+    public EnrutadorShards(PlatformTransactionManager transactionManager, int cantidad, int hilos, Duration espera) {
+        if (cantidad > SHARDS_MAXIMOS) {
+            throw new IllegalArgumentException("Se admiten hasta " + SHARDS_MAXIMOS + " shards y se configuraron "
+                    + cantidad);
+        }
+        this.activo = cantidad > 0;
+        this.cantidad = Math.max(1, cantidad);
+        this.espera = espera;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+
+        AtomicInteger numero = new AtomicInteger();
+        this.consultas = activo ? Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "shards-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }) : null;
+    }
+
+    /**
+     * Indica si los pacientes se reparten entre varias bases de datos.
+     */
+    public boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * Obtiene la cantidad de shards: 1 si no se reparten los pacientes.
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el shard de un paciente a partir de su RUN. No distingue
+     * mayúsculas ni espacios al inicio o al final.
+     *
+     * @param run RUN del paciente.
+     * @return Número de shard, desde 0.
+     */
+    public int shardDeRun(String run) {
+        if (!activo || run == null) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(run.trim().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % cantidad);
+    }
+
+    /**
+     * Obtiene el shard de un paciente o atención a partir de su ID. Un ID
+     * recibido de un cliente puede indicar un shard que no existe; como no
+     * puede corresponder a ninguna fila, se dirige a uno de los shards
+     * existentes, donde no se encontrará.
+     *
+     * @param id ID generado por {@link GeneradorIdShard}.
+     * @return Número de shard, desde 0.
+     */
+    public int shardDeId(Long id) {
+        if (!activo || id == null) {
+            return 0;
+        }
+        return (int) (id & (SHARDS_MAXIMOS - 1)) % cantidad;
+    }
+
+    /**
+     * Agrupa elementos por shard.
+     *
+     * @param elementos Elementos a agrupar.
+     * @param shardDe   Función que obtiene el shard de cada elemento.
+     * @return Elementos de cada shard, en el orden recibido, por número de
+     *         shard.
+     */
+    public <T> Map<Integer, List<T>> agrupar(Collection<T> elementos, ToIntFunction<T> shardDe) {
+        Map<Integer, List<T>> grupos = new TreeMap<>();
+        for (T elemento : elementos) {
+            grupos.computeIfAbsent(shardDe.applyAsInt(elemento), shard -> new ArrayList<>()).add(elemento);
+        }
+        return grupos;
+    }
+
+    /**
+     * Ejecuta una operación en un shard. Las transacciones y sesiones de
+     * Hibernate que la operación abra usan la base de datos de ese shard.
+     *
+     * @param shard     Número de shard.
+     * @param operacion Operación a ejecutar.
+     * @return Resultado de la operación.
+     * @throws IllegalStateException si el hilo está en una transacción de
+     *                               otro shard.
+     */
+    public <T> T enShard(int shard, Supplier<T> operacion) {
+        if (!activo) {
+            return operacion.get();
+        }
+        if (shard < 0 || shard >= cantidad) {
+            throw new IllegalArgumentException("El shard " + shard + " no existe");
+        }
+        Integer anterior = SHARD_ACTUAL.get();
+        if (!Objects.equals(anterior, shard) && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("No se puede operar en el shard " + shard + " dentro de una transacción "
+                    + "de " + (anterior == null ? GLOBAL : PREFIJO + anterior));
+        }
+        SHARD_ACTUAL.set(shard);
+        try {
+            return operacion.get();
+        } finally {
+            if (anterior == null) {
+                SHARD_ACTUAL.remove();
+            } else {
+                SHARD_ACTUAL.set(anterior);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una operación en el shard del paciente con el RUN indicado.
+     */
+    public <T> T enShardDeRun(String run, Supplier<T> operacion) {
+        return enShard(shardDeRun(run), operacion);
+    }
+
+    /**
+     * Ejecuta una operación en el shard del paciente o atención con el ID
+     * indicado.
+     */
+    public <T> T enShardDeId(Long id, Supplier<T> operacion) {
+        return enShard(shardDeId(id), operacion);
+    }
+
+    /**
+     * Ejecuta una consulta en un shard, en una transacción de solo lectura.
+     *
+     * @param shard    Número de shard.
+     * @param consulta Consulta a ejecutar.
+     * @return Resultado de la consulta.
+     */
+    public <T> T leer(int shard, Supplier<T> consulta) {
+        return enShard(shard, () -> lectura.execute(status -> consulta.get()));
+    }
+
+    /**
+     * Ejecuta una consulta en todos los shards en paralelo, cada una en una
+     * transacción de solo lectura de su shard. Sin shards, la consulta se
+     * ejecuta una vez en el hilo actual.
+     *
+     * <p>Las sentencias ejecutadas en los hilos de consulta se suman al conteo
+     * de la solicitud que invoca (ver {@link ContadorConsultas}).</p>
+     *
+     * @param consulta Consulta a ejecutar.
+     * @return Resultado de cada shard, por número de shard.
+     * @throws QueryTimeoutException si algún shard no responde en
+     *                               {@code hospital.shards.espera}.
+     */
+    public <T> List<T> reunir(Supplier<T> consulta) {
+        if (!activo) {
+            T resultado = lectura.execute(status -> consulta.get());
+            return Collections.singletonList(resultado);
+        }
+
+        Supplier<T> contada = ContadorConsultas.propagar(consulta);
+        List<Future<T>> pendientes = new ArrayList<>(cantidad);
+        for (int shard = 0; shard < cantidad; shard++) {
+            int numero = shard;
+            pendientes.add(consultas.submit(() -> leer(numero, contada)));
+        }
+
+        long limite = System.nanoTime() + espera.toNanos();
+        List<T> resultados = new ArrayList<>(cantidad);
+        try {
+            for (int shard = 0; shard < cantidad; shard++) {
+                try {
+                    resultados.add(pendientes.get(shard).get(limite - System.nanoTime(), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    throw new QueryTimeoutException("El shard " + shard + " no respondió en " + espera.toMillis()
+                            + " ms");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException causa) {
+                        throw causa;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la consulta a los shards", e);
+        } finally {
+            pendientes.forEach(pendiente -> pendiente.cancel(true));
+        }
+        return resultados;
+    }
+
+    /**
+     * Ejecuta en todos los shards una consulta que devuelve una lista
+     * ordenada y combina los resultados en el mismo orden.
+     *
+     * @param consulta Consulta a ejecutar, ordenada según {@code orden}.
+     * @param orden    Orden de los resultados.
+     * @param limite   Cantidad máxima de resultados.
+     * @return Los primeros {@code limite} resultados de todos los shards.
+     */
+    public <T> List<T> mezclar(Supplier<List<T>> consulta, Comparator<? super T> orden, int limite) {
+        List<List<T>> partes = reunir(consulta);
+        if (partes.size() == 1) {
+            List<T> unica = partes.get(0);
+            return unica != null && unica.size() > limite ? unica.subList(0, limite) : unica;
+        }
+        List<T> todos = new ArrayList<>();
+        partes.forEach(todos::addAll);
+        todos.sort(orden);
+        return todos.size() > limite ? new ArrayList<>(todos.subList(0, limite)) : todos;
+    }
+
+    /**
+     * Obtiene el identificador de Hibernate de la base de datos en que debe
+     * abrirse una sesión en el hilo actual.
+     */
+    static String tenantActual() {
+        Integer shard = SHARD_ACTUAL.get();
+        return shard == null ? GLOBAL : tenant(shard);
+    }
+
+    /**
+     * Obtiene el identificador de Hibernate de la base de datos de un shard.
+     */
+    public static String tenant(int shard) {
+        return PREFIJO + shard;
+    }
+
+    /**
+     * Obtiene el número de shard de un identificador de Hibernate.
+     *
+     * @return Número de shard, o -1 si el identificador no corresponde a un
+     *         shard.
+     */
+    static int shardDeTenant(String tenant) {
+        if (tenant == null || !tenant.startsWith(PREFIJO)) {
+            return -1;
+        }
+        return Integer.parseInt(tenant.substring(PREFIJO.length()));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (consultas != null) {
+            consultas.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aplica {@code spring.jpa.hibernate.ddl-auto} (create, update, validate...)
+ * en la base de datos de cada shard. Con varias bases de datos, Hibernate
+ * solo lo aplica en la de {@code spring.datasource}.
+ */
+public class EsquemaShards implements Integrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(EsquemaShards.class);
+
+    private final List<DataSource> shards;
+
+    /**
+     * @param shards Base de datos de cada shard, por número de shard.
+     */
+    public EsquemaShards(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+            SessionFactoryImplementor sessionFactory) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            try (Connection conexion = shards.get(shard).getConnection()) {
+                Map<String, Object> propiedades = new HashMap<>(sessionFactory.getProperties());
+                propiedades.put(AvailableSettings.JAKARTA_HBM2DDL_CONNECTION, conexion);
+                SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), propiedades,
+                        accion -> {
+                        });
+                logger.debug("[integrate] Esquema aplicado en {}", EnrutadorShards.tenant(shard));
+            } catch (SQLException e) {
+                throw new IllegalStateException("No se pudo conectar a " + EnrutadorShards.tenant(shard), e);
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
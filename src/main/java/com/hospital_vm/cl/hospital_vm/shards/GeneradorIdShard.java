@@ -0,0 +1,44 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Generador de {@link IdShard}. En la base de datos de un shard, el ID es el
+ * valor de la secuencia desplazado {@value EnrutadorShards#BITS_SHARD} bits,
+ * con el número de shard en los bits menos significativos; así
+ * {@link EnrutadorShards#shardDeId} encuentra la fila sin consultar los demás
+ * shards, y los IDs no se repiten entre shards aunque cada uno tenga su
+ * secuencia. Sin shards, el ID es el valor de la secuencia.
+ */
+public class GeneradorIdShard extends SequenceStyleGenerator {
+
+    private final IdShard configuracion;
+
+    public GeneradorIdShard(IdShard configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry)
+            throws MappingException {
+        parametros.put(SEQUENCE_PARAM, configuracion.secuencia());
+        parametros.put(INCREMENT_PARAM, String.valueOf(configuracion.tamanioAsignacion()));
+        super.configure(type, parametros, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Object valor = super.generate(session, object);
+        int shard = EnrutadorShards.shardDeTenant(session.getTenantIdentifier());
+        if (shard < 0) {
+            return valor;
+        }
+        return ((Long) valor << EnrutadorShards.BITS_SHARD) | shard;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Genera el ID con una secuencia y optimizador pooled, como
+ * {@code @SequenceGenerator}, y le agrega el número de shard de la fila (ver
+ * {@link GeneradorIdShard}).
+ */
+@IdGeneratorType(GeneradorIdShard.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface IdShard {
+
+    /**
+     * Nombre de la secuencia.
+     */
+    String secuencia();
+
+    /**
+     * Cantidad de valores que se reservan en cada lectura de la secuencia.
+     */
+    int tamanioAsignacion() default 50;
+}
@@ -0,0 +1,21 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Indica a Hibernate la base de datos de cada sesión nueva: la del shard
+ * fijado con {@link EnrutadorShards#enShard} o, fuera de él, la de
+ * {@code spring.datasource} ({@value EnrutadorShards#GLOBAL}).
+ */
+public class ResolutorShard implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return EnrutadorShards.tenantActual();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
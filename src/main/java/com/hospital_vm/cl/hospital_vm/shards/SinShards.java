@@ -0,0 +1,25 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+
+/**
+ * Condición que se cumple cuando los pacientes no se reparten en shards
+ * ({@code hospital.shards.urls} no está definida). Es la contraria de la de
+ * {@code ShardsConfig}.
+ *
+ * <p>La usan los componentes que leen directamente de
+ * {@code spring.datasource} sin pasar por {@link EnrutadorShards}, como la
+ * API {@code /v3}: con shards, esa base de datos no tiene pacientes y sus
+ * respuestas serían incorrectas.</p>
+ */
+public class SinShards extends NoneNestedConditions {
+
+    public SinShards() {
+        super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @ConditionalOnProperty(name = "hospital.shards.urls")
+    static class ConShards {
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital_vm.cl.hospital_vm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por keyset sobre el ID.
+ * Indica el ID de referencia y la dirección de la navegación. Se serializa
+ * como un token Base64 URL-safe para que los clientes no dependan de su
+ * formato interno.
+ */
+public final class Cursor {
+
+    private static final String SIGUIENTE = "n";
+    private static final String ANTERIOR = "p";
+
+    private final Long id;
+    private final boolean haciaAdelante;
+
+    private Cursor(Long id, boolean haciaAdelante) {
+        this.id = id;
+        this.haciaAdelante = haciaAdelante;
+    }
+
+    /**
+     * Crea un cursor que apunta a los elementos con ID mayor al indicado.
+     * 
+     * @param id ID del último elemento de la página actual.
+     * @return Cursor hacia la página siguiente.
+     */
+    public static Cursor despuesDe(Long id) {
+        return new Cursor(id, true);
+    }
+
+    /**
+     * Crea un cursor que apunta a los elementos con ID menor al indicado.
+     * 
+     * @param id ID del primer elemento de la página actual.
+     * @return Cursor hacia la página anterior.
+     */
+    public static Cursor antesDe(Long id) {
+        return new Cursor(id, false);
+    }
+
+    /**
+     * Decodifica un token generado por {@link #codificar()}.
+     * 
+     * @param token Token opaco recibido del cliente.
+     * @return Cursor decodificado o {@code null} si el token no es válido.
+     */
+    public static Cursor decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split(":", 2);
+            if (partes.length != 2) {
+                return null;
+            }
+            Long id = Long.valueOf(partes[1]);
+            if (SIGUIENTE.equals(partes[0])) {
+                return despuesDe(id);
+            }
+            if (ANTERIOR.equals(partes[0])) {
+                return antesDe(id);
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Codifica el cursor como un token opaco.
+     * 
+     * @return Token Base64 URL-safe sin relleno.
+     */
+    public String codificar() {
+        String valor = (haciaAdelante ? SIGUIENTE : ANTERIOR) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isHaciaAdelante() {
+        return haciaAdelante;
+    }
+}
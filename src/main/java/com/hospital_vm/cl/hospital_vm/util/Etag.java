@@ -0,0 +1,143 @@
+package com.hospital_vm.cl.hospital_vm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import org.springframework.util.DigestUtils;
+
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
+import com.hospital_vm.cl.hospital_vm.dto.ResumenVersiones;
+import com.hospital_vm.cl.hospital_vm.dto.VersionFila;
+
+/**
+ * Conversión entre la versión de una entidad y los valores de las cabeceras
+ * {@code ETag}, {@code If-Match} e {@code If-None-Match}.
+ *
+ * <p>Una entidad tiene un ETag fuerte: su versión. Las listas tienen un ETag
+ * débil ({@code W/"..."}) calculado a partir de las versiones de sus filas;
+ * es débil porque Tomcat no comprime las respuestas con ETag fuerte (el
+ * contenido comprimido no es idéntico byte a byte) y las listas son las que
+ * más se benefician de la compresión.</p>
+ */
+public final class Etag {
+
+    /**
+     * Versión que se devuelve cuando {@code If-Match} no corresponde a ningún
+     * ETag generado por la aplicación; nunca coincide con una versión real.
+     */
+    public static final long VERSION_INVALIDA = -1;
+
+    private Etag() {
+    }
+
+    /**
+     * Genera el ETag (sin comillas) correspondiente a una versión.
+     * 
+     * @param version Versión de la entidad.
+     * @return Valor del ETag.
+     */
+    public static String de(Long version) {
+        return String.valueOf(version);
+    }
+
+    /**
+     * Obtiene la versión esperada a partir de la cabecera {@code If-Match}.
+     * 
+     * <p>{@code If-Match} usa la comparación fuerte (RFC 9110, sección
+     * 13.1.1): un ETag débil ({@code W/"..."}) nunca coincide, por lo que se
+     * trata como un valor no válido.</p>
+     * 
+     * @param ifMatch Valor de la cabecera, o {@code null} si no se envió.
+     * @return Versión esperada, {@code null} si no hay que verificarla (sin
+     *         cabecera o con {@code *}) o {@link #VERSION_INVALIDA} si el valor
+     *         no es válido o es un ETag débil.
+     */
+    public static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            return VERSION_INVALIDA;
+        }
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            return VERSION_INVALIDA;
+        }
+    }
+
+    /**
+     * Genera el ETag débil de una página a partir del ID y la versión de sus
+     * elementos y de sus cursores de navegación. Da el mismo valor para la
+     * página de entidades y para la de sus versiones ({@link VersionFila}).
+     * 
+     * @param pagina    Página de entidades o de versiones.
+     * @param idDe      Función que obtiene el ID de un elemento.
+     * @param versionDe Función que obtiene la versión de un elemento.
+     * @return Valor del ETag, con el prefijo {@code W/} y entre comillas.
+     */
+    public static <T> String dePagina(Pagina<T> pagina, Function<T, Long> idDe, Function<T, Long> versionDe) {
+        StringBuilder huella = new StringBuilder();
+        for (T elemento : pagina.getElementos()) {
+            huella.append(idDe.apply(elemento)).append(':').append(versionDe.apply(elemento)).append(',');
+        }
+        huella.append(pagina.getCursorSiguiente()).append(',').append(pagina.getCursorAnterior());
+        return debil(huella.toString());
+    }
+
+    /**
+     * Genera el ETag débil de una lista a partir del agregado de sus
+     * versiones.
+     * 
+     * @param resumen Agregado de las versiones de las filas de la lista.
+     * @return Valor del ETag, con el prefijo {@code W/} y entre comillas.
+     */
+    public static String deResumen(ResumenVersiones resumen) {
+        return debil(resumen.getCantidad() + ":" + resumen.getSumaIds() + ":" + resumen.getSumaVersiones() + ":"
+                + resumen.getMaximaSecuencia() + ":" + resumen.getMaximaSecuenciaPacientes());
+    }
+
+    /**
+     * Indica si la cabecera {@code If-None-Match} incluye el ETag indicado.
+     * La comparación es débil: no distingue el prefijo {@code W/}.
+     * 
+     * @param ifNoneMatch Valor de la cabecera, o {@code null} si no se envió.
+     * @param etag        ETag actual, con o sin comillas.
+     * @return {@code true} si el cliente ya tiene la representación actual.
+     */
+    public static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String actual = opaco(etag);
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || opaco(valor).equals(actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String debil(String huella) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(huella.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Valor de un ETag sin el prefijo {@code W/} ni las comillas.
+     */
+    private static String opaco(String etag) {
+        String valor = etag.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        return valor;
+    }
+}
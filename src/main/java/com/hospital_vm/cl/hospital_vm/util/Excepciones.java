@@ -0,0 +1,27 @@
+package com.hospital_vm.cl.hospital_vm.util;
+
+/**
+ * Utilidades para informar las excepciones de la base de datos. Spring y
+ * Hibernate envuelven el error del driver, y el mensaje útil (por ejemplo, la
+ * restricción violada) es el de la causa más interna.
+ */
+public final class Excepciones {
+
+    private Excepciones() {
+    }
+
+    /**
+     * Obtiene el mensaje de la causa más interna de una excepción.
+     *
+     * @param e Excepción a informar.
+     * @return Mensaje de la causa raíz, o de la propia excepción si no tiene
+     *         causa.
+     */
+    public static String mensajeCausaRaiz(Throwable e) {
+        Throwable causa = e;
+        while (causa.getCause() != null && causa.getCause() != causa) {
+            causa = causa.getCause();
+        }
+        return causa.getMessage();
+    }
+}
@@ -0,0 +1,57 @@
+package com.hospital_vm.cl.hospital_vm.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza textos para las búsquedas: elimina tildes y diacríticos, convierte
+ * a minúsculas y colapsa los espacios.
+ */
+public final class Normalizador {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    /**
+     * Carácter de escape usado en las consultas {@code LIKE} por prefijo.
+     */
+    public static final char ESCAPE_LIKE = '!';
+
+    private Normalizador() {
+    }
+
+    /**
+     * Normaliza un texto.
+     * 
+     * @param texto Texto a normalizar.
+     * @return Texto sin diacríticos, en minúsculas y con espacios colapsados, o
+     *         {@code null} si el texto es {@code null}.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String sinDiacriticos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinDiacriticos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Construye el patrón {@code LIKE} que busca textos que comienzan con el
+     * prefijo indicado, escapando los comodines con {@value #ESCAPE_LIKE}.
+     * 
+     * @param prefijo Prefijo ya normalizado.
+     * @return Patrón para una consulta {@code LIKE ... ESCAPE '!'}.
+     */
+    public static String patronPrefijo(String prefijo) {
+        StringBuilder patron = new StringBuilder(prefijo.length() + 2);
+        for (char c : prefijo.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE_LIKE) {
+                patron.append(ESCAPE_LIKE);
+            }
+            patron.append(c);
+        }
+        return patron.append('%').toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.hospital_vm.cl.hospital_vm.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera la secuencia de cambios de pacientes y atenciones.
+ *
+ * <p>Cada valor es la hora actual en microsegundos desde la época, salvo que
+ * ya se haya entregado un valor igual o mayor, en cuyo caso se entrega el
+ * anterior más uno. Así la secuencia es estrictamente creciente dentro de la
+ * aplicación, sigue creciendo después de reiniciarla y no requiere consultar
+ * la base de datos en cada cambio.</p>
+ */
+public final class RelojCambios {
+
+    private static final AtomicLong ultimo = new AtomicLong();
+
+    private RelojCambios() {
+    }
+
+    /**
+     * Obtiene el siguiente valor de la secuencia.
+     *
+     * @return Valor mayor que todos los entregados anteriormente.
+     */
+    public static long siguiente() {
+        long ahora = de(Instant.now());
+        return ultimo.updateAndGet(anterior -> Math.max(anterior + 1, ahora));
+    }
+
+    /**
+     * Convierte un instante al valor de la secuencia que le corresponde.
+     *
+     * @param instante Instante a convertir.
+     * @return Microsegundos desde la época.
+     */
+    public static long de(Instant instante) {
+        return instante.getEpochSecond() * 1_000_000 + instante.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,49 @@
+-- Convierte atencion.fecha_atencion y atencion.hora_atencion de VARCHAR a DATE
+-- y TIME (Atencion.fechaAtencion y horaAtencion son LocalDate y LocalTime).
+-- spring.jpa.hibernate.ddl-auto=update no cambia el tipo de una columna
+-- existente, por lo que las bases de datos con atenciones requieren este script.
+--
+-- Se ejecuta una vez, con la aplicación detenida y antes de iniciar la versión
+-- con LocalDate y LocalTime:
+--
+--   mysql -u hospital -p hospital < atencion-fecha-hora.sql
+--
+-- Formatos reconocidos: fechas AAAA-MM-DD, DD-MM-AAAA y DD/MM/AAAA; horas HH:MM
+-- y HH:MM:SS. Si alguna fila tiene otro formato, el script lista esas filas y
+-- se detiene antes de modificar las columnas originales. Se corrigen, se
+-- eliminan las columnas fecha_atencion_nueva y hora_atencion_nueva y se vuelve
+-- a ejecutar. Los índices de fecha los crea Hibernate al iniciar.
+
+ALTER TABLE atencion
+    ADD COLUMN fecha_atencion_nueva DATE NULL,
+    ADD COLUMN hora_atencion_nueva TIME NULL;
+
+UPDATE atencion SET
+    fecha_atencion_nueva = CASE
+        WHEN TRIM(fecha_atencion) REGEXP '^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$'
+            THEN STR_TO_DATE(TRIM(fecha_atencion), '%Y-%m-%d')
+        WHEN TRIM(fecha_atencion) REGEXP '^[0-9]{1,2}[-/][0-9]{1,2}[-/][0-9]{4}$'
+            THEN STR_TO_DATE(REPLACE(TRIM(fecha_atencion), '/', '-'), '%d-%m-%Y')
+    END,
+    hora_atencion_nueva = CASE
+        WHEN TRIM(hora_atencion) REGEXP '^[0-9]{1,2}:[0-9]{2}$'
+            THEN STR_TO_DATE(TRIM(hora_atencion), '%H:%i')
+        WHEN TRIM(hora_atencion) REGEXP '^[0-9]{1,2}:[0-9]{2}:[0-9]{2}$'
+            THEN STR_TO_DATE(TRIM(hora_atencion), '%H:%i:%s')
+    END;
+
+-- Filas que no se pudieron convertir
+SELECT id, fecha_atencion, hora_atencion
+FROM atencion
+WHERE fecha_atencion_nueva IS NULL OR hora_atencion_nueva IS NULL;
+
+-- Falla ("Invalid use of NULL value") si la consulta anterior devolvió filas
+ALTER TABLE atencion
+    MODIFY fecha_atencion_nueva DATE NOT NULL,
+    MODIFY hora_atencion_nueva TIME NOT NULL;
+
+ALTER TABLE atencion
+    DROP COLUMN fecha_atencion,
+    DROP COLUMN hora_atencion,
+    RENAME COLUMN fecha_atencion_nueva TO fecha_atencion,
+    RENAME COLUMN hora_atencion_nueva TO hora_atencion;
@@ -0,0 +1,112 @@
+package com.hospital_vm.cl.hospital_vm.assemblers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.util.Cursor;
+
+/**
+ * Enlaces de las representaciones de pacientes, armados con las plantillas
+ * precalculadas, para una solicitud a {@code http://hospital.cl:8080}.
+ */
+public class PacienteModelAssemblerTest {
+
+    private static final String BASE = "http://hospital.cl:8080/v2/pacientes";
+
+    private final PacienteModelAssembler assembler = new PacienteModelAssembler();
+
+    @BeforeEach
+    public void iniciarSolicitud() {
+        MockHttpServletRequest solicitud = new MockHttpServletRequest("GET", "/v2/pacientes");
+        solicitud.setServerName("hospital.cl");
+        solicitud.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(solicitud));
+    }
+
+    @AfterEach
+    public void terminarSolicitud() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static Paciente paciente(Long id) {
+        return new Paciente(id, "Ana", "Pérez", "11111111-1", "Av. Siempre Viva 742", "1990-01-01",
+                "ana@correo.cl", null, null, null, null, null);
+    }
+
+    @Test
+    public void testEnlacesDeUnPaciente() {
+
+        //Given
+        Paciente paciente = paciente(42L);
+
+        //When
+        EntityModel<Paciente> model = assembler.toModel(paciente);
+
+        //Then
+        assertEquals(BASE + "/42", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        Link pacientes = model.getRequiredLink("pacientes");
+        assertEquals(BASE + "?tamanio=" + PacienteService.TAMANIO_PAGINA_POR_DEFECTO + "{&cursor}", pacientes.getHref());
+        assertTrue(pacientes.isTemplated());
+        assertEquals(BASE + "?tamanio=" + PacienteService.TAMANIO_PAGINA_POR_DEFECTO, pacientes.expand().getHref());
+        Link crear = model.getRequiredLink("crear");
+        assertEquals(BASE + "/42", crear.getHref());
+        assertEquals("POST", crear.getType());
+
+    }
+
+    @Test
+    public void testEnlacesDeNavegacionDeUnaPagina() {
+
+        //Given
+        String actual = Cursor.despuesDe(0L).codificar();
+        String siguiente = Cursor.despuesDe(2L).codificar();
+        String anterior = Cursor.antesDe(1L).codificar();
+        Pagina<Paciente> pagina = new Pagina<>(List.of(paciente(1L), paciente(2L)), siguiente, anterior);
+
+        //When
+        CollectionModel<EntityModel<Paciente>> model = assembler.toPaginaModel(pagina, actual, 2);
+
+        //Then
+        assertEquals(BASE + "?cursor=" + actual + "&tamanio=2", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals(BASE + "?cursor=" + siguiente + "&tamanio=2",
+                model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals(BASE + "?cursor=" + anterior + "&tamanio=2",
+                model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+        assertEquals(List.of(BASE + "/1", BASE + "/2"), model.getContent().stream()
+                .map(p -> p.getRequiredLink(IanaLinkRelations.SELF).getHref()).toList());
+
+    }
+
+    @Test
+    public void testPrimeraPaginaSinCursorNiAnterior() {
+
+        //Given
+        Pagina<Paciente> pagina = new Pagina<>(List.of(paciente(1L)), null, null);
+
+        //When
+        CollectionModel<EntityModel<Paciente>> model = assembler.toPaginaModel(pagina, null, 20);
+
+        //Then
+        assertEquals(BASE + "?tamanio=20{&cursor}", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertFalse(model.getLink(IanaLinkRelations.NEXT).isPresent());
+        assertFalse(model.getLink(IanaLinkRelations.PREV).isPresent());
+
+    }
+}
@@ -0,0 +1,133 @@
+package com.hospital_vm.cl.hospital_vm.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+public class PacienteCacheTest {
+
+    private Paciente crearPaciente(Long id, String run) {
+        Paciente paciente = new Paciente();
+        paciente.setId(id);
+        paciente.setNombre("Ana");
+        paciente.setApellido("Perez");
+        paciente.setRun(run);
+        paciente.setDireccion("Calle 1");
+        paciente.setFechaNacimiento("2000-01-01");
+        paciente.setCorreo(run + "@hospital.cl");
+        return paciente;
+    }
+
+    @Test
+    public void testIndicesSecundariosComparteEntrada() {
+
+        //Given
+        PacienteCache cache = new PacienteCache(10, Duration.ofMinutes(5));
+        AtomicInteger cargas = new AtomicInteger();
+
+        //When
+        cache.obtenerPorId(1L, id -> {
+            cargas.incrementAndGet();
+            return crearPaciente(1L, "1-9");
+        });
+        Paciente porRun = cache.obtenerPorRun("1-9", run -> {
+            cargas.incrementAndGet();
+            return null;
+        });
+        Paciente porCorreo = cache.obtenerPorCorreo("1-9@hospital.cl", correo -> {
+            cargas.incrementAndGet();
+            return null;
+        });
+
+        //Then
+        assertEquals(1, cargas.get());
+        assertEquals(1L, porRun.getId());
+        assertEquals(1L, porCorreo.getId());
+        assertEquals(2, cache.getEstadisticas().getAciertos());
+        assertEquals(1, cache.getEstadisticas().getFallos());
+
+    }
+
+    @Test
+    public void testInvalidarYExpulsarPorTamanio() {
+
+        //Given
+        PacienteCache cache = new PacienteCache(1, Duration.ofMinutes(5));
+
+        //When
+        cache.obtenerPorId(1L, id -> crearPaciente(1L, "1-9"));
+        cache.obtenerPorId(2L, id -> crearPaciente(2L, "2-7"));
+
+        //Then
+        assertEquals(1, cache.getEstadisticas().getExpulsiones());
+        assertNull(cache.obtenerPorRun("1-9", run -> null));
+
+        cache.invalidar(2L);
+        assertEquals(0, cache.getEstadisticas().getTamanio());
+
+    }
+
+    @Test
+    public void testObtenerVersionSinCargar() {
+
+        //Given
+        PacienteCache cache = new PacienteCache(10, Duration.ofMinutes(5));
+        Paciente paciente = crearPaciente(1L, "1-9");
+        paciente.setVersion(3L);
+        cache.obtenerPorId(1L, id -> paciente);
+
+        //When
+        Long version = cache.obtenerVersion(1L);
+
+        //Then
+        assertEquals(3L, version);
+        assertNull(cache.obtenerVersion(2L));
+        assertEquals(0, cache.getEstadisticas().getAciertos());
+
+        cache.invalidar(1L);
+        assertNull(cache.obtenerVersion(1L));
+
+    }
+
+    @Test
+    public void testInvalidarOtroPacienteNoDescartaLaCarga() {
+
+        //Given
+        PacienteCache cache = new PacienteCache(10, Duration.ofMinutes(5));
+
+        //When
+        cache.obtenerPorId(1L, id -> {
+            cache.invalidar(2L);
+            return crearPaciente(1L, "1-9");
+        });
+
+        //Then
+        assertEquals(1, cache.getEstadisticas().getTamanio());
+        assertEquals(1L, cache.obtenerPorRun("1-9", run -> null).getId());
+
+    }
+
+    @Test
+    public void testInvalidarDuranteLaCargaDescartaElPaciente() {
+
+        //Given
+        PacienteCache cache = new PacienteCache(10, Duration.ofMinutes(5));
+
+        //When
+        cache.obtenerPorId(1L, id -> {
+            cache.invalidar(1L);
+            return crearPaciente(1L, "1-9");
+        });
+
+        //Then
+        assertEquals(0, cache.getEstadisticas().getTamanio());
+        assertNull(cache.obtenerVersion(1L));
+
+    }
+}
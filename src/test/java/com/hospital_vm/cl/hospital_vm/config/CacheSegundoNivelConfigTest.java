@@ -0,0 +1,94 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.repository.AtencionRepository;
+import com.hospital_vm.cl.hospital_vm.repository.PacienteRepository;
+import com.hospital_vm.cl.hospital_vm.service.AtencionService;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Caché de segundo nivel de Hibernate contra la base de datos de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class CacheSegundoNivelConfigTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private AtencionService atencionService;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private AtencionRepository atencionRepository;
+
+    private static Atencion atencion(String comentario) {
+        Atencion atencion = new Atencion();
+        atencion.setFechaAtencion(LocalDate.of(2024, 6, 5));
+        atencion.setHoraAtencion(LocalTime.of(10, 0));
+        atencion.setCosto(10000.0);
+        atencion.setComentario(comentario);
+        return atencion;
+    }
+
+    @Test
+    public void testEntidadesYConsultasSeRespondenDesdeLaCache() {
+
+        //Given
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Ana");
+        paciente.setApellido("Pérez");
+        paciente.setRun("80000001-1");
+        paciente.setDireccion("Av. Siempre Viva 742");
+        paciente.setFechaNacimiento("1990-01-01");
+        paciente.setCorreo("cache-segundo-nivel@correo.cl");
+        Long pacienteId = pacienteService.savePaciente(paciente).getId();
+        atencionService.createAtencionByPacienteID(atencion("Primera"), pacienteId);
+        entityManagerFactory.getCache().evictAll();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        //When
+        pacienteRepository.findById(pacienteId);
+        atencionRepository.findByPacienteId(pacienteId);
+        long aciertosEntidades = estadisticas.getSecondLevelCacheHitCount();
+        long aciertosConsultas = estadisticas.getQueryCacheHitCount();
+        pacienteRepository.findById(pacienteId);
+        atencionRepository.findByPacienteId(pacienteId);
+
+        //Then
+        assertTrue(entityManagerFactory.getCache().contains(Paciente.class, pacienteId));
+        assertTrue(estadisticas.getSecondLevelCacheHitCount() > aciertosEntidades);
+        assertEquals(aciertosConsultas + 1, estadisticas.getQueryCacheHitCount());
+
+        //When
+        atencionService.createAtencionByPacienteID(atencion("Segunda"), pacienteId);
+
+        //Then
+        assertEquals(2, atencionRepository.findByPacienteId(pacienteId).size());
+        assertFalse(estadisticas.getQueryCacheHitCount() > aciertosConsultas + 1);
+
+    }
+}
@@ -0,0 +1,90 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class GuardiaPoolFilterTest {
+
+    private GuardiaPoolFilter crearFiltro(int tamanioPool) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(tamanioPool);
+        return new GuardiaPoolFilter(dataSource, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    public void testRechazaCuandoSeAgotanLosPermisos() throws Exception {
+
+        //Given
+        GuardiaPoolFilter filtro = crearFiltro(1);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Thread ocupante = new Thread(() -> {
+            try {
+                filtro.doFilter(new MockHttpServletRequest("GET", "/pacientes"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            dentro.countDown();
+                            try {
+                                liberar.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        ocupante.start();
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        //When
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/pacientes/1"), rechazada, new MockFilterChain());
+        liberar.countDown();
+        ocupante.join();
+        MockHttpServletResponse atendida = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/pacientes/1"), atendida, new MockFilterChain());
+
+        //Then
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("1", rechazada.getHeader("Retry-After"));
+        assertEquals(200, atendida.getStatus());
+        assertEquals(1, filtro.getRechazadas());
+
+    }
+
+    @Test
+    public void testNoLimitaSuscripcionesNiActuator() throws Exception {
+
+        //Given
+        GuardiaPoolFilter filtro = crearFiltro(1);
+        MockHttpServletResponse salud = new MockHttpServletResponse();
+        MockHttpServletResponse pacientes = new MockHttpServletResponse();
+
+        //When
+        // Si la suscripción ocupara el único permiso, las solicitudes internas se rechazarían
+        filtro.doFilter(new MockHttpServletRequest("GET", "/atenciones/stream"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    filtro.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), salud,
+                            new MockFilterChain());
+                    filtro.doFilter(new MockHttpServletRequest("GET", "/pacientes"), pacientes,
+                            new MockFilterChain());
+                });
+
+        //Then
+        assertEquals(200, salud.getStatus());
+        assertEquals(200, pacientes.getStatus());
+        assertEquals(0, filtro.getRechazadas());
+
+    }
+}
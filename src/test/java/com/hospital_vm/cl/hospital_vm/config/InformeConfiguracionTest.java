@@ -0,0 +1,48 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Perfil {@code prod} sobre H2: el perfil {@code test} reemplaza la conexión
+ * a MySQL y se conserva el resto de la configuración de producción.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prod;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@ActiveProfiles({ "prod", "test" })
+public class InformeConfiguracionTest {
+
+    @Autowired
+    private InformeConfiguracion informeConfiguracion;
+
+    @Test
+    public void testInformeDelPerfilDeProduccion() {
+
+        //Given
+        List<String> advertencias = new ArrayList<>();
+
+        //When
+        String informe = informeConfiguracion.generar(advertencias);
+
+        //Then
+        assertTrue(informe.contains("Perfiles: prod, test"), informe);
+        assertTrue(informe.contains("Pool hospital: máximo 20, mínimo inactivas 20, espera 3000 ms"), informe);
+        assertTrue(informe.contains("rewriteBatchedStatements=true"), informe);
+        assertTrue(informe.contains("order_updates=true"), informe);
+        assertTrue(informe.contains("jdbc.batch_versioned_data=true"), informe);
+        assertTrue(informe.contains("query.in_clause_parameter_padding=true"), informe);
+        assertTrue(informe.contains("show_sql=false, format_sql=false, consultas lentas desde 200ms (1 de cada 10)"),
+                informe);
+        assertEquals(List.of(), advertencias);
+
+    }
+}
@@ -0,0 +1,46 @@
+package com.hospital_vm.cl.hospital_vm.config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Métricas publicadas en el endpoint de Prometheus.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricasConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPrometheusPublicaLasMetricasDeSolicitudesServiciosYCache() throws Exception {
+
+        //Given
+        mockMvc.perform(get("/pacientes/1"));
+
+        //When
+        //Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("hospital_http_consultas_count{")))
+                .andExpect(content().string(containsString("uri=\"/pacientes/{id}\"")))
+                .andExpect(content().string(containsString("hospital_servicio_seconds_count{")))
+                .andExpect(content().string(containsString("method=\"getPacienteById\"")))
+                .andExpect(content().string(containsString("cache_gets_total{")))
+                .andExpect(content().string(containsString("cache=\"pacientes\"")));
+
+    }
+}
@@ -0,0 +1,183 @@
+package com.hospital_vm.cl.hospital_vm.controller;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hospital_vm.cl.hospital_vm.metricas.ConsultasPorSolicitudFilter;
+import com.hospital_vm.cl.hospital_vm.metricas.PresupuestoConsultas;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.AtencionService;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.util.Excepciones;
+
+import jakarta.servlet.ServletException;
+
+/**
+ * Verifica el {@code @PresupuestoConsultas} de las consultas de atenciones
+ * contra la base de datos de pruebas. En el perfil {@code test} el
+ * presupuesto es estricto: si una consulta lo supera, la solicitud falla.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AtencionControllerPresupuestoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private AtencionService atencionService;
+
+    @Autowired
+    private ConsultasPorSolicitudFilter consultasPorSolicitudFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> pacienteIds = new ArrayList<>();
+
+    private Long pacienteId;
+
+    /**
+     * Controlador con un problema N+1: una consulta por paciente. No se
+     * registra en el contexto; se usa con {@link MockMvcBuilders#standaloneSetup}.
+     */
+    @RestController
+    static class ControladorConsultaPorPaciente {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        ControladorConsultaPorPaciente(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/pruebas/atenciones-por-paciente")
+        @PresupuestoConsultas(2)
+        public List<Integer> contar(@RequestParam List<Long> ids) {
+            List<Integer> cantidades = new ArrayList<>();
+            for (Long id : ids) {
+                cantidades.add(jdbcTemplate.queryForObject(
+                        "select count(*) from atencion where id_paciente = ?", Integer.class, id));
+            }
+            return cantidades;
+        }
+    }
+
+    @BeforeEach
+    public void crearAtenciones() {
+        long sufijo = System.nanoTime() % 100000000L;
+        for (int i = 0; i < 5; i++) {
+            Paciente paciente = new Paciente(null, "Ana", "Pérez", (sufijo + i) + "-" + i, "Av. Siempre Viva 742",
+                    "1990-01-01", "presupuesto" + (sufijo + i) + "@correo.cl", null, null, null, null, null);
+            pacienteId = pacienteService.savePaciente(paciente).getId();
+            pacienteIds.add(pacienteId);
+            for (int j = 0; j < 3; j++) {
+                Atencion atencion = new Atencion();
+                atencion.setFechaAtencion(LocalDate.of(2024, 6, 1 + j));
+                atencion.setHoraAtencion(LocalTime.of(10, 0));
+                atencion.setCosto(10000.0);
+                atencionService.createAtencionByPacienteID(atencion, pacienteId);
+            }
+        }
+    }
+
+    @Test
+    public void testListarAtencionesConPacientesDentroDelPresupuesto() throws Exception {
+
+        //Given
+
+        //When
+        mockMvc.perform(get("/atenciones").param("expand", "paciente"))
+
+                //Then
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ConsultasPorSolicitudFilter.CABECERA));
+
+        mockMvc.perform(get("/atenciones").param("desde", "2024-06-01").param("hasta", "2024-06-30")
+                .param("expand", "paciente"))
+                .andExpect(status().isOk());
+
+    }
+
+    @Test
+    public void testAtencionesPorPacienteDentroDelPresupuesto() throws Exception {
+
+        //Given
+
+        //When
+        mockMvc.perform(get("/atenciones/pacientes/{id}", pacienteId).param("expand", "paciente"))
+
+                //Then
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ConsultasPorSolicitudFilter.CABECERA));
+
+    }
+
+    @Test
+    public void testAtencionesSinCambiosSeRespondenConUnaConsulta() throws Exception {
+
+        //Given
+        String etag = mockMvc.perform(get("/atenciones/pacientes/{id}", pacienteId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //When
+        mockMvc.perform(get("/atenciones/pacientes/{id}", pacienteId).header(HttpHeaders.IF_NONE_MATCH, etag))
+
+                //Then
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ConsultasPorSolicitudFilter.CABECERA, "1"));
+
+    }
+
+    @Test
+    public void testSolicitudQueSuperaElPresupuestoFalla() throws Exception {
+
+        //Given
+        MockMvc conConteo = MockMvcBuilders
+                .standaloneSetup(new ControladorConsultaPorPaciente(jdbcTemplate))
+                .addFilters(consultasPorSolicitudFilter)
+                .build();
+        String todos = pacienteIds.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElseThrow();
+
+        //When
+        conConteo.perform(get("/pruebas/atenciones-por-paciente").param("ids", pacienteId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ConsultasPorSolicitudFilter.CABECERA, "1"));
+        // Falla antes de escribir la respuesta, por lo que el cliente recibe
+        // un error y no un 200
+        ServletException excedido = assertThrows(ServletException.class,
+                () -> conConteo.perform(get("/pruebas/atenciones-por-paciente").param("ids", todos)));
+
+        //Then
+        String mensaje = Excepciones.mensajeCausaRaiz(excedido);
+        assertTrue(mensaje.contains("ejecutó 5 sentencias SQL; su presupuesto es 2"), mensaje);
+
+    }
+}
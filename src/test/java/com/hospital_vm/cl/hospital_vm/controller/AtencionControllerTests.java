@@ -1,5 +1,8 @@
 package com.hospital_vm.cl.hospital_vm.controller;
 
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
 import com.hospital_vm.cl.hospital_vm.model.Atencion;
 import com.hospital_vm.cl.hospital_vm.service.AtencionService;
 import org.junit.jupiter.api.Test;
@@ -7,14 +10,23 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -30,7 +42,7 @@ public class AtencionControllerTests {
 
     @Test
     void listarAtenciones_debeRetornarListaVacia() throws Exception {
-        Mockito.when(atencionService.getAllAtenciones()).thenReturn(Collections.emptyList());
+        Mockito.when(atencionService.getResumenAtenciones(false)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/atenciones"))
                 .andExpect(status().isOk())
@@ -39,7 +51,7 @@ public class AtencionControllerTests {
 
     @Test
     void obtenerAtencionesPorPaciente_noEncontrado() throws Exception {
-        Mockito.when(atencionService.getAtencionesByPacienteId(1L)).thenReturn(Collections.emptyList());
+        Mockito.when(atencionService.getResumenAtencionesByPacienteId(1L, false)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/atenciones/pacientes/1"))
                 .andExpect(status().isNotFound());
@@ -49,8 +61,8 @@ public class AtencionControllerTests {
     void crearAtencion_debeRetornarCreado() throws Exception {
         Atencion atencion = new Atencion();
         atencion.setId(1L);
-        atencion.setFechaAtencion("2024-06-05");
-        atencion.setHoraAtencion("10:00");
+        atencion.setFechaAtencion(LocalDate.of(2024, 6, 5));
+        atencion.setHoraAtencion(LocalTime.of(10, 0));
         atencion.setCosto(10000.0);
 
         Mockito.when(atencionService.createAtencion(any(Atencion.class))).thenReturn(atencion);
@@ -76,8 +88,8 @@ public class AtencionControllerTests {
     void crearAtencionPorPaciente_exito() throws Exception {
         Atencion atencion = new Atencion();
         atencion.setId(2L);
-        atencion.setFechaAtencion("2024-06-05");
-        atencion.setHoraAtencion("11:00");
+        atencion.setFechaAtencion(LocalDate.of(2024, 6, 5));
+        atencion.setHoraAtencion(LocalTime.of(11, 0));
         atencion.setCosto(15000.0);
 
         Mockito.when(atencionService.createAtencionByPacienteID(any(Atencion.class), eq(2L))).thenReturn(atencion);
@@ -88,4 +100,89 @@ public class AtencionControllerTests {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(2L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void crearAtencionesPorLote_informaFallidos() throws Exception {
+        ResultadoLote resultado = ResultadoLote.de(List.of(
+                ResultadoItemLote.creado(0, 1L),
+                ResultadoItemLote.fallido(1, "Paciente no encontrado")));
+
+        Mockito.when(atencionService.createAtenciones(anyList())).thenReturn(resultado);
+
+        mockMvc.perform(post("/atenciones/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"pacienteId\":1,\"atencion\":{\"fechaAtencion\":\"2024-06-05\",\"horaAtencion\":\"10:00\",\"costo\":10000}},"
+                                + "{\"pacienteId\":99,\"atencion\":{\"fechaAtencion\":\"2024-06-05\",\"horaAtencion\":\"11:00\",\"costo\":15000}}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creados").value(1))
+                .andExpect(jsonPath("$.fallidos").value(1))
+                .andExpect(jsonPath("$.items[1].estado").value("FALLIDO"));
+    }
+
+    @Test
+    void listarAtencionesPorRangoDeFechas_rangoInvalido() throws Exception {
+        mockMvc.perform(get("/atenciones")
+                        .param("desde", "2024-06-10")
+                        .param("hasta", "2024-06-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listarAtencionesPorRangoDeFechas_debeFiltrarPorPaciente() throws Exception {
+        AtencionResumen resumen = new AtencionResumen(1L, LocalDate.of(2024, 6, 5), LocalTime.of(10, 0), 10000.0, 2L);
+
+        Mockito.when(atencionService.getResumenAtencionesEntreFechas(LocalDate.of(2024, 6, 5), LocalDate.of(2024, 6, 5), 2L, false))
+                .thenReturn(List.of(resumen));
+
+        mockMvc.perform(get("/atenciones")
+                        .param("desde", "2024-06-05")
+                        .param("hasta", "2024-06-05")
+                        .param("pacienteId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].fechaAtencion").value("2024-06-05"))
+                .andExpect(jsonPath("$[0].pacienteId").value(2L));
+    }
+
+    @Test
+    void listarAtenciones_sinCambiosRetorna304() throws Exception {
+        Mockito.when(atencionService.getEtagAtenciones(null, null, null)).thenReturn("W/\"abc\"");
+
+        mockMvc.perform(get("/atenciones").header(HttpHeaders.IF_NONE_MATCH, "W/\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"abc\""));
+
+        Mockito.verify(atencionService, Mockito.never()).getResumenAtenciones(anyBoolean());
+    }
+
+    @Test
+    void obtenerAtencionesPorPaciente_incluyeEtag() throws Exception {
+        AtencionResumen resumen = new AtencionResumen(1L, LocalDate.of(2024, 6, 5), LocalTime.of(10, 0), 10000.0, 2L);
+
+        Mockito.when(atencionService.getEtagAtenciones(null, null, 2L)).thenReturn("W/\"abc\"");
+        Mockito.when(atencionService.getResumenAtencionesByPacienteId(2L, false)).thenReturn(List.of(resumen));
+
+        mockMvc.perform(get("/atenciones/pacientes/2").header(HttpHeaders.IF_NONE_MATCH, "W/\"anterior\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"abc\""))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void obtenerCambios_sinceVencido() throws Exception {
+        Mockito.when(atencionService.getCambios(eq(1L), anyInt())).thenReturn(null);
+
+        mockMvc.perform(get("/atenciones/changes").param("since", "1"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void suscribirAtenciones_demasiadosPacientes() throws Exception {
+        String ids = LongStream.rangeClosed(1, AtencionService.PACIENTES_SUSCRIPCION_MAXIMO + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/atenciones/stream").param("pacienteIds", ids))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,61 @@
+package com.hospital_vm.cl.hospital_vm.controller;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.shards.CambioDeShardException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PacienteController.class)
+public class PacienteControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PacienteService pacienteService;
+
+    @Test
+    void actualizarPaciente_versionNoCoincide() throws Exception {
+        Mockito.when(pacienteService.updatePaciente(eq(1L), any(Paciente.class), eq(3L)))
+                .thenThrow(new OptimisticLockingFailureException("El paciente 1 no tiene la versión 3"));
+
+        mockMvc.perform(put("/pacientes/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Ana\",\"run\":\"11111111-1\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void eliminarPaciente_versionNoCoincide() throws Exception {
+        Mockito.when(pacienteService.deletePaciente(1L, 3L))
+                .thenThrow(new OptimisticLockingFailureException("El paciente 1 no tiene la versión 3"));
+
+        mockMvc.perform(delete("/pacientes/1").header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void actualizarPacienteParcial_cambioDeShard() throws Exception {
+        Mockito.when(pacienteService.patchPaciente(eq(1L), any(Paciente.class), any()))
+                .thenThrow(new CambioDeShardException("El RUN 22222222-2 corresponde a otro shard"));
+
+        mockMvc.perform(patch("/pacientes/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"run\":\"22222222-2\"}"))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,289 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital_vm.cl.hospital_vm.dto.AtencionResumen;
+import com.hospital_vm.cl.hospital_vm.model.TipoEvento;
+
+/**
+ * Los emisores registran los mensajes en memoria, sin conexiones HTTP; un
+ * emisor puede detenerse dentro del envío para simular un cliente lento.
+ */
+public class DifusorAtencionesTest {
+
+    private final Deque<Emisor> emisores = new ArrayDeque<>();
+
+    private DifusorAtenciones difusor;
+
+    @AfterEach
+    public void cerrar() {
+        for (Emisor emisor : emisores) {
+            emisor.liberar();
+        }
+        if (difusor != null) {
+            difusor.cerrar();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testNotificarDifundeSoloALosSuscriptoresDelPaciente() throws InterruptedException {
+
+        //Given
+        crearDifusor(8, 4, Duration.ofSeconds(10));
+        Emisor primero = suscribir(new Emisor(false), 1L);
+        Emisor segundo = suscribir(new Emisor(false), 1L, 2L);
+        Emisor otro = suscribir(new Emisor(false), 2L);
+
+        //When
+        difusor.notificar(atencion(1L), TipoEvento.CREADO);
+
+        //Then
+        assertNotNull(primero.recibidos.poll(5, TimeUnit.SECONDS));
+        assertNotNull(segundo.recibidos.poll(5, TimeUnit.SECONDS));
+        assertNull(otro.recibidos.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(3, difusor.getSuscripciones());
+
+    }
+
+    @Test
+    public void testConsumidorLentoSeDescartaSinBloquearAQuienEscribe() throws InterruptedException {
+
+        //Given
+        crearDifusor(2, 2, Duration.ofSeconds(10));
+        Emisor lento = suscribir(new Emisor(true), 1L);
+        Emisor sano = suscribir(new Emisor(false), 1L);
+        difusor.notificar(atencion(1L), TipoEvento.CREADO);
+        assertTrue(lento.enEnvio.await(5, TimeUnit.SECONDS));
+        assertNotNull(sano.recibidos.poll(5, TimeUnit.SECONDS));
+
+        //When
+        int recibidosPorElSano = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            int recibidos = 0;
+            for (int i = 0; i < 3; i++) {
+                difusor.notificar(atencion(1L), TipoEvento.ACTUALIZADO);
+                if (sano.recibidos.poll(5, TimeUnit.SECONDS) != null) {
+                    recibidos++;
+                }
+            }
+            return recibidos;
+        });
+
+        //Then
+        assertEquals(3, recibidosPorElSano);
+        assertEquals(1, difusor.getDescartadas());
+        assertEquals(1, difusor.getSuscripciones());
+
+        lento.liberar();
+        assertTrue(lento.completado.await(5, TimeUnit.SECONDS));
+        assertEquals(1, lento.recibidos.size());
+
+    }
+
+    @Test
+    public void testLatidoDescartaUnEnvioDetenido() throws InterruptedException {
+
+        //Given
+        crearDifusor(8, 1, Duration.ofMillis(50));
+        Emisor lento = suscribir(new Emisor(true), 1L);
+        difusor.notificar(atencion(1L), TipoEvento.CREADO);
+        assertTrue(lento.enEnvio.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        //When
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> difusor.enviarLatidos());
+
+        //Then
+        assertEquals(1, difusor.getDescartadas());
+        assertEquals(0, difusor.getSuscripciones());
+
+        lento.liberar();
+        assertTrue(lento.completado.await(5, TimeUnit.SECONDS));
+
+    }
+
+    @Test
+    public void testNotificarEnTransaccionDifundeSoloDespuesDelCommit() throws InterruptedException {
+
+        //Given
+        crearDifusor(8, 4, Duration.ofSeconds(10));
+        Emisor emisor = suscribir(new Emisor(false), 1L);
+
+        //When
+        TransactionSynchronizationManager.initSynchronization();
+        difusor.notificar(atencion(1L), TipoEvento.ELIMINADO);
+        Set<DataWithMediaType> antesDelCommit = emisor.recibidos.poll(200, TimeUnit.MILLISECONDS);
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.afterCommit();
+            sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        difusor.notificar(atencion(1L), TipoEvento.ACTUALIZADO);
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        //Then
+        assertNull(antesDelCommit);
+        Set<DataWithMediaType> confirmado = emisor.recibidos.poll(5, TimeUnit.SECONDS);
+        assertNotNull(confirmado);
+        assertTrue(confirmado.iterator().next().getData().toString().contains("event:eliminado"));
+        assertNull(emisor.recibidos.poll(200, TimeUnit.MILLISECONDS));
+
+    }
+
+    @Test
+    public void testLosEnviosNoSuperanElMaximoDeHilos() throws InterruptedException {
+
+        //Given
+        crearDifusor(8, 2, Duration.ofSeconds(10));
+        Emisor primero = suscribir(new Emisor(true), 1L);
+        Emisor segundo = suscribir(new Emisor(true), 1L);
+        Emisor tercero = suscribir(new Emisor(false), 2L);
+        difusor.notificar(atencion(1L), TipoEvento.CREADO);
+        assertTrue(primero.enEnvio.await(5, TimeUnit.SECONDS));
+        assertTrue(segundo.enEnvio.await(5, TimeUnit.SECONDS));
+
+        //When
+        difusor.notificar(atencion(2L), TipoEvento.CREADO);
+
+        //Then
+        assertNull(tercero.recibidos.poll(200, TimeUnit.MILLISECONDS));
+
+        primero.liberar();
+        assertNotNull(tercero.recibidos.poll(5, TimeUnit.SECONDS));
+
+    }
+
+    @Test
+    public void testSuscripcionesSimultaneasRespetanElMaximo() throws Exception {
+
+        //Given
+        difusor = new DifusorAtenciones(new ObjectMapper(), 8, 5, Duration.ofMinutes(30), 1, Duration.ofSeconds(10)) {
+            @Override
+            SseEmitter crearEmitter(long timeoutMillis) {
+                return new Emisor(false);
+            }
+        };
+        ExecutorService clientes = Executors.newFixedThreadPool(20);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<SseEmitter>> intentos = new ArrayList<>();
+
+        //When
+        for (int i = 0; i < 20; i++) {
+            intentos.add(clientes.submit(() -> {
+                largada.await();
+                return difusor.suscribir(Set.of(1L));
+            }));
+        }
+        largada.countDown();
+        List<SseEmitter> aceptadas = new ArrayList<>();
+        for (Future<SseEmitter> intento : intentos) {
+            SseEmitter emitter = intento.get(5, TimeUnit.SECONDS);
+            if (emitter != null) {
+                aceptadas.add(emitter);
+            }
+        }
+        clientes.shutdown();
+
+        //Then
+        assertEquals(5, aceptadas.size());
+        assertEquals(5, difusor.getSuscripciones());
+        assertNull(difusor.suscribir(Set.of(1L)));
+
+    }
+
+    private void crearDifusor(int capacidad, int hilos, Duration esperaEnvio) {
+        difusor = new DifusorAtenciones(new ObjectMapper(), capacidad, 100, Duration.ofMinutes(30), hilos,
+                esperaEnvio) {
+            @Override
+            SseEmitter crearEmitter(long timeoutMillis) {
+                return emisores.getLast();
+            }
+        };
+    }
+
+    private Emisor suscribir(Emisor emisor, Long... pacienteIds) {
+        emisores.addLast(emisor);
+        assertNotNull(difusor.suscribir(Set.of(pacienteIds)));
+        return emisor;
+    }
+
+    private static AtencionResumen atencion(Long pacienteId) {
+        return new AtencionResumen(1L, null, null, 15000.0, pacienteId);
+    }
+
+    /**
+     * Emisor que registra los mensajes enviados. Si se crea detenido, el
+     * primer envío espera dentro del monitor hasta que se libere, como un
+     * envío a un cliente que no lee.
+     */
+    private static final class Emisor extends SseEmitter {
+
+        private final BlockingQueue<Set<DataWithMediaType>> recibidos = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch enEnvio = new CountDownLatch(1);
+
+        private final CountDownLatch detenido;
+
+        private final CountDownLatch completado = new CountDownLatch(1);
+
+        private Emisor(boolean detenido) {
+            this.detenido = new CountDownLatch(detenido ? 1 : 0);
+        }
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> datos) throws IOException {
+            enEnvio.countDown();
+            try {
+                detenido.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            recibidos.add(datos);
+        }
+
+        @Override
+        public synchronized void complete() {
+            super.complete();
+            completado.countDown();
+        }
+
+        private void liberar() {
+            detenido.countDown();
+        }
+    }
+}
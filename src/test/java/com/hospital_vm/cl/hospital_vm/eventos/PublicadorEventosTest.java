@@ -0,0 +1,65 @@
+package com.hospital_vm.cl.hospital_vm.eventos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.model.EntidadEvento;
+import com.hospital_vm.cl.hospital_vm.model.EventoCambio;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.model.TipoEvento;
+import com.hospital_vm.cl.hospital_vm.repository.EventoCambioRepository;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PublicadorEventosTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private PublicadorEventos publicadorEventos;
+
+    @Autowired
+    private SumideroMemoria sumideroMemoria;
+
+    @Autowired
+    private EventoCambioRepository eventoCambioRepository;
+
+    @Test
+    public void testPublicarCambiosDePaciente() {
+
+        //Given
+
+        Paciente paciente = new Paciente(null, "Ana", "Pérez", "11111111-1", "Av. Siempre Viva 742",
+                "1990-01-01", "ana@correo.cl", null, null, null, null, null);
+
+        //When
+        Long id = pacienteService.savePaciente(paciente).getId();
+        Paciente cambios = new Paciente();
+        cambios.setDireccion("Los Aromos 123");
+        pacienteService.patchPaciente(id, cambios);
+        pacienteService.deletePaciente(id);
+
+        publicadorEventos.publicarPendientes();
+
+        //Then
+        List<EventoCambio> eventos = sumideroMemoria.getEventos().stream()
+                .filter(evento -> evento.getEntidad() == EntidadEvento.PACIENTE && id.equals(evento.getEntidadId()))
+                .toList();
+
+        assertEquals(List.of(TipoEvento.CREADO, TipoEvento.ACTUALIZADO, TipoEvento.ELIMINADO),
+                eventos.stream().map(EventoCambio::getTipo).toList());
+        assertTrue(eventos.get(1).getDatos().contains("Los Aromos 123"));
+        assertEquals(0, eventoCambioRepository.count());
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+public class ConsultasPorSolicitudFilterTest {
+
+    static class Controlador {
+
+        @PresupuestoConsultas(1)
+        public void listar() {
+        }
+    }
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private ConsultasPorSolicitudFilter crearFiltro(boolean estricto) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("registry", registry));
+        return new ConsultasPorSolicitudFilter(beanFactory.getBeanProvider(MeterRegistry.class), estricto);
+    }
+
+    private MockHttpServletRequest crearSolicitud() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/atenciones");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/atenciones");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Controlador(), Controlador.class.getMethod("listar")));
+        return request;
+    }
+
+    private FilterChain ejecutar(int sentencias) {
+        return (request, response) -> {
+            for (int i = 0; i < sentencias; i++) {
+                ContadorConsultas.registrar();
+            }
+            response.getWriter().write("[]");
+        };
+    }
+
+    @Test
+    public void testInformaSentenciasEnCabeceraYMetrica() throws Exception {
+
+        //Given
+        ConsultasPorSolicitudFilter filtro = crearFiltro(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        filtro.doFilter(crearSolicitud(), response, ejecutar(1));
+
+        //Then
+        assertEquals("1", response.getHeader(ConsultasPorSolicitudFilter.CABECERA));
+        assertEquals(1.0, registry.get(ConsultasPorSolicitudFilter.METRICA).tag("uri", "/atenciones")
+                .summary().totalAmount());
+
+    }
+
+    @Test
+    public void testPresupuestoExcedidoEnModoEstricto() throws Exception {
+
+        //Given
+        ConsultasPorSolicitudFilter estricto = crearFiltro(true);
+        ConsultasPorSolicitudFilter tolerante = crearFiltro(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockHttpServletResponse rechazada = new MockHttpServletResponse();
+
+        //When
+        tolerante.doFilter(crearSolicitud(), response, ejecutar(3));
+
+        //Then
+        assertEquals("3", response.getHeader(ConsultasPorSolicitudFilter.CABECERA));
+        assertThrows(IllegalStateException.class,
+                () -> estricto.doFilter(crearSolicitud(), rechazada, ejecutar(3)));
+        assertFalse(rechazada.isCommitted());
+        assertEquals("", rechazada.getContentAsString());
+
+    }
+
+    @Test
+    public void testSentenciasDespuesDeConfirmarLaRespuestaNoLaHacenFallar() throws Exception {
+
+        //Given
+        ConsultasPorSolicitudFilter estricto = crearFiltro(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain confirmaAntes = (request, respuesta) -> {
+            respuesta.getWriter().write("[]");
+            respuesta.flushBuffer();
+            ContadorConsultas.registrar();
+            ContadorConsultas.registrar();
+        };
+
+        //When
+        estricto.doFilter(crearSolicitud(), response, confirmaAntes);
+
+        //Then
+        assertTrue(response.isCommitted());
+        assertEquals("0", response.getHeader(ConsultasPorSolicitudFilter.CABECERA));
+        assertEquals(2.0, registry.get(ConsultasPorSolicitudFilter.METRICA).tag("uri", "/atenciones")
+                .summary().totalAmount());
+
+    }
+}
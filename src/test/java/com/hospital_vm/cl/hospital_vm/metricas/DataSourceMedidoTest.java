@@ -0,0 +1,73 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+public class DataSourceMedidoTest {
+
+    private JdbcDataSource crearBaseDeDatos(String nombre) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1");
+        return h2;
+    }
+
+    @Test
+    public void testCuentaSentenciasDelHilo() throws Exception {
+
+        //Given
+        JdbcDataSource h2 = crearBaseDeDatos("medido");
+        DataSource dataSource = DataSourceMedido.envolver(h2, Duration.ofMinutes(1));
+
+        //When
+        int consultas;
+        ContadorConsultas.iniciar();
+        try (Connection conexion = dataSource.getConnection(); Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("create table prueba (id bigint, nombre varchar(20))");
+            try (PreparedStatement insercion = conexion.prepareStatement("insert into prueba values (?, ?)")) {
+                for (long id = 1; id <= 3; id++) {
+                    insercion.setLong(1, id);
+                    insercion.setString(2, "nombre " + id);
+                    insercion.addBatch();
+                }
+                insercion.executeBatch();
+            }
+            try (PreparedStatement consulta = conexion.prepareStatement("select count(*) from prueba where id > ?")) {
+                consulta.setLong(1, 0);
+                consulta.executeQuery().close();
+            }
+        } finally {
+            consultas = ContadorConsultas.finalizar();
+        }
+
+        //Then
+        assertEquals(3, consultas);
+        assertSame(h2, dataSource.unwrap(JdbcDataSource.class));
+        assertTrue(dataSource.isWrapperFor(JdbcDataSource.class));
+
+    }
+
+    @Test
+    public void testFormaDeLosParametros() {
+
+        //Given
+
+        //When
+        String forma = DataSourceMedido.forma(Arrays.asList(5L, "Pérez", null, new byte[3]));
+
+        //Then
+        assertEquals("[Long, String(5), ?, byte[3]]", forma);
+
+    }
+}
@@ -0,0 +1,71 @@
+package com.hospital_vm.cl.hospital_vm.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class MuestreoConsultasLentasTest {
+
+    private final LoggerContext contexto = new LoggerContext();
+
+    @Test
+    public void testRegistraUnaDeCadaN() {
+
+        //Given
+        MuestreoConsultasLentas muestreo = new MuestreoConsultasLentas(3);
+        Logger lentas = contexto.getLogger(MuestreoConsultasLentas.CATEGORIA);
+        List<FilterReply> respuestas = new ArrayList<>();
+
+        //When
+        for (int i = 0; i < 7; i++) {
+            respuestas.add(muestreo.decide(null, lentas, Level.INFO, "Slow query took 250 milliseconds [select 1]",
+                    null, null));
+        }
+
+        //Then
+        assertEquals(List.of(FilterReply.NEUTRAL, FilterReply.DENY, FilterReply.DENY, FilterReply.NEUTRAL,
+                FilterReply.DENY, FilterReply.DENY, FilterReply.NEUTRAL), respuestas);
+        assertEquals(7, muestreo.getDetectadas());
+
+    }
+
+    @Test
+    public void testNoAfectaOtrasCategoriasNiConsultasDeNivel() {
+
+        //Given
+        MuestreoConsultasLentas muestreo = new MuestreoConsultasLentas(100);
+        Logger otra = contexto.getLogger("org.hibernate.SQL");
+        Logger lentas = contexto.getLogger(MuestreoConsultasLentas.CATEGORIA);
+
+        //When
+        FilterReply respuestaOtra = muestreo.decide(null, otra, Level.INFO, "select 1", null, null);
+        FilterReply respuestaNivel = muestreo.decide(null, lentas, Level.INFO, null, null, null);
+
+        //Then
+        assertEquals(FilterReply.NEUTRAL, respuestaOtra);
+        assertEquals(FilterReply.NEUTRAL, respuestaNivel);
+        assertEquals(0, muestreo.getDetectadas());
+
+    }
+
+    @Test
+    public void testMuestreoInvalido() {
+
+        //Given
+
+        //When
+
+        //Then
+        assertThrows(IllegalArgumentException.class, () -> new MuestreoConsultasLentas(0));
+
+    }
+}
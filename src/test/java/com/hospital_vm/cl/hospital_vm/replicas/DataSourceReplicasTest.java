@@ -0,0 +1,157 @@
+package com.hospital_vm.cl.hospital_vm.replicas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Usa bases H2 en memoria distintas como primaria y réplicas; la URL de cada
+ * conexión indica a cuál se conectó.
+ */
+public class DataSourceReplicasTest {
+
+    private static final String PRIMARIA = "jdbc:h2:mem:primaria";
+
+    private final JdbcDataSource primaria = crearBaseDeDatos("primaria");
+
+    @BeforeEach
+    public void iniciarLectura() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    public void terminarLectura() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        DataSourceReplicas.finalizarAfinidad();
+    }
+
+    private JdbcDataSource crearBaseDeDatos(String nombre) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1");
+        return h2;
+    }
+
+    private DataSourceReplicas crear(EstrategiaReplicas estrategia, String consultaRetraso, DataSource... replicas) {
+        List<Replica> lista = new ArrayList<>();
+        for (int i = 0; i < replicas.length; i++) {
+            lista.add(new Replica("replica-" + (i + 1), replicas[i]));
+        }
+        return new DataSourceReplicas(primaria, lista, estrategia, Duration.ofSeconds(5), consultaRetraso);
+    }
+
+    private static String url(DataSource dataSource) throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            return conexion.getMetaData().getURL();
+        }
+    }
+
+    @Test
+    public void testRoundRobinAlternaLasReplicas() throws Exception {
+
+        //Given
+        DataSourceReplicas dataSource = crear(EstrategiaReplicas.ROUND_ROBIN, null,
+                crearBaseDeDatos("replica1"), crearBaseDeDatos("replica2"));
+
+        //When
+        List<String> urls = List.of(url(dataSource), url(dataSource), url(dataSource));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        String escritura = url(dataSource);
+
+        //Then
+        assertEquals(List.of("jdbc:h2:mem:replica1", "jdbc:h2:mem:replica2", "jdbc:h2:mem:replica1"), urls);
+        assertEquals(PRIMARIA, escritura);
+        assertEquals(2, dataSource.getReplicas().get(0).getLecturas());
+
+    }
+
+    @Test
+    public void testMenosCargadaEligeLaReplicaConMenosConexiones() throws Exception {
+
+        //Given
+        DataSourceReplicas dataSource = crear(EstrategiaReplicas.MENOS_CARGADA, null,
+                crearBaseDeDatos("replica1"), crearBaseDeDatos("replica2"));
+
+        //When
+        List<String> urls = new ArrayList<>();
+        try (Connection abierta = dataSource.getConnection()) {
+            urls.add(abierta.getMetaData().getURL());
+            urls.add(url(dataSource));
+            urls.add(url(dataSource));
+        }
+
+        //Then
+        assertEquals(List.of("jdbc:h2:mem:replica1", "jdbc:h2:mem:replica2", "jdbc:h2:mem:replica2"), urls);
+        assertEquals(0, dataSource.getReplicas().get(0).getConexionesActivas());
+
+    }
+
+    @Test
+    public void testReplicaCaidaSeReemplazaPorOtraOPorLaPrimaria() throws Exception {
+
+        //Given
+        JdbcDataSource caida = new JdbcDataSource();
+        caida.setURL("jdbc:h2:tcp://localhost:1/caida");
+        DataSourceReplicas conOtra = crear(EstrategiaReplicas.ROUND_ROBIN, null, caida,
+                crearBaseDeDatos("replica2"));
+        DataSourceReplicas sinOtra = crear(EstrategiaReplicas.ROUND_ROBIN, null, caida);
+
+        //When
+        List<String> urls = List.of(url(conOtra), url(conOtra));
+        String sinReplicas = url(sinOtra);
+
+        //Then
+        assertEquals(List.of("jdbc:h2:mem:replica2", "jdbc:h2:mem:replica2"), urls);
+        assertFalse(conOtra.getReplicas().get(0).isDisponible());
+        assertEquals(PRIMARIA, sinReplicas);
+        assertEquals(1, sinOtra.getLecturasEnPrimaria());
+
+    }
+
+    @Test
+    public void testReplicaRetrasadaDejaDeRecibirLecturas() throws Exception {
+
+        //Given
+        DataSourceReplicas retrasada = crear(EstrategiaReplicas.ROUND_ROBIN, "SELECT 10", crearBaseDeDatos("replica1"));
+        DataSourceReplicas alDia = crear(EstrategiaReplicas.ROUND_ROBIN, "SELECT 2", crearBaseDeDatos("replica1"));
+
+        //When
+        retrasada.verificar();
+        alDia.verificar();
+
+        //Then
+        assertEquals(Duration.ofSeconds(10), retrasada.getReplicas().get(0).getRetraso());
+        assertEquals(PRIMARIA, url(retrasada));
+        assertEquals("jdbc:h2:mem:replica1", url(alDia));
+
+    }
+
+    @Test
+    public void testAfinidadMantieneLaReplicaDeLaSolicitud() throws Exception {
+
+        //Given
+        DataSourceReplicas dataSource = crear(EstrategiaReplicas.ROUND_ROBIN, null,
+                crearBaseDeDatos("replica1"), crearBaseDeDatos("replica2"));
+        url(dataSource);
+
+        //When
+        DataSourceReplicas.iniciarAfinidad();
+        List<String> urls = List.of(url(dataSource), url(dataSource), url(dataSource));
+
+        //Then
+        assertEquals(List.of("jdbc:h2:mem:replica2", "jdbc:h2:mem:replica2", "jdbc:h2:mem:replica2"), urls);
+
+    }
+}
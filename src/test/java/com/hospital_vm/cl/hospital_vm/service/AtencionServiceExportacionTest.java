@@ -0,0 +1,82 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.repository.AtencionRepository;
+
+/**
+ * Exportación NDJSON de las atenciones contra la base de datos de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class AtencionServiceExportacionTest {
+
+    @Autowired
+    private AtencionService atencionService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private AtencionRepository atencionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testExportarAtencionesEscribeUnaLineaPorAtencion() throws Exception {
+
+        //Given
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Ana");
+        paciente.setApellido("Pérez");
+        paciente.setRun("30000001-1");
+        paciente.setDireccion("Av. Siempre Viva 742");
+        paciente.setFechaNacimiento("1990-01-01");
+        paciente.setCorreo("exportacion@correo.cl");
+        paciente = pacienteService.savePaciente(paciente);
+        Long pacienteId = paciente.getId();
+        for (int dia = 1; dia <= 3; dia++) {
+            Atencion atencion = new Atencion();
+            atencion.setFechaAtencion(LocalDate.of(2024, 6, dia));
+            atencion.setHoraAtencion(LocalTime.of(10, 0));
+            atencion.setCosto(10000.0);
+            atencion.setComentario("Exportación " + dia);
+            atencion.setPaciente(paciente);
+            atencionRepository.save(atencion);
+        }
+
+        //When
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        atencionService.exportarAtenciones(salida);
+
+        //Then
+        List<String> lineas = salida.toString(StandardCharsets.UTF_8).lines().toList();
+        List<String> delPaciente = new ArrayList<>();
+        for (String linea : lineas) {
+            JsonNode atencion = objectMapper.readTree(linea);
+            if (atencion.path("paciente").path("id").asLong() == pacienteId) {
+                delPaciente.add(atencion.path("comentario").asText());
+            }
+        }
+        assertEquals(atencionRepository.count(), lineas.size());
+        assertEquals(List.of("Exportación 1", "Exportación 2", "Exportación 3"), delPaciente);
+
+    }
+}
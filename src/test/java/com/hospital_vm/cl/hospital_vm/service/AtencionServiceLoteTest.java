@@ -0,0 +1,72 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.dto.AtencionLoteItem;
+import com.hospital_vm.cl.hospital_vm.dto.EstadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+/**
+ * Carga por lotes de atenciones contra la base de datos de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class AtencionServiceLoteTest {
+
+    @Autowired
+    private AtencionService atencionService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static AtencionLoteItem item(Long pacienteId, String comentario) {
+        return new AtencionLoteItem(pacienteId, new Atencion(null, LocalDate.of(2024, 6, 5), LocalTime.of(10, 0),
+                10000.0, comentario, null, null, null, null));
+    }
+
+    @Test
+    public void testCreateAtencionesInformaPacientesInexistentesSinAbortarElLote() {
+
+        //Given
+        Long pacienteId = pacienteService.savePaciente(new Paciente(null, "Ana", "Pérez", "50000001-1",
+                "Av. Siempre Viva 742", "1990-01-01", "lote-atenciones@correo.cl", null, null, null, null, null))
+                .getId();
+        Long inexistente = pacienteId + 1_000_000;
+        List<AtencionLoteItem> lote = List.of(item(pacienteId, "Primera"), item(inexistente, "Huérfana"),
+                item(pacienteId, "Segunda"), item(null, "Sin paciente"));
+
+        //When
+        ResultadoLote resultado = atencionService.createAtenciones(lote);
+
+        //Then
+        List<ResultadoItemLote> items = resultado.getItems();
+        assertEquals(2, resultado.getCreados());
+        assertEquals(2, resultado.getFallidos());
+        assertEquals(EstadoItemLote.CREADO, items.get(0).getEstado());
+        assertNotNull(items.get(0).getId());
+        assertEquals(EstadoItemLote.FALLIDO, items.get(1).getEstado());
+        assertEquals("Paciente no encontrado", items.get(1).getError());
+        assertEquals(EstadoItemLote.CREADO, items.get(2).getEstado());
+        assertEquals("El ID del paciente es obligatorio", items.get(3).getError());
+        assertEquals(List.of("Primera", "Segunda"), jdbcTemplate.queryForList(
+                "select comentario from atencion where id_paciente = ? order by id", String.class, pacienteId));
+
+    }
+}
@@ -0,0 +1,72 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.dto.ResumenCostos;
+import com.hospital_vm.cl.hospital_vm.model.Atencion;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+/**
+ * Resumen de costos por paciente contra la base de datos de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class AtencionServiceResumenCostosTest {
+
+    @Autowired
+    private AtencionService atencionService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    private static Atencion atencion(double costo) {
+        Atencion atencion = new Atencion();
+        atencion.setFechaAtencion(LocalDate.of(2024, 6, 5));
+        atencion.setHoraAtencion(LocalTime.of(10, 0));
+        atencion.setCosto(costo);
+        atencion.setComentario("Resumen");
+        return atencion;
+    }
+
+    @Test
+    public void testResumenCostosSigueLasAltasCambiosYBajas() {
+
+        //Given
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Ana");
+        paciente.setApellido("Pérez");
+        paciente.setRun("70000001-1");
+        paciente.setDireccion("Av. Siempre Viva 742");
+        paciente.setFechaNacimiento("1990-01-01");
+        paciente.setCorreo("resumen-costos@correo.cl");
+        Long pacienteId = pacienteService.savePaciente(paciente).getId();
+        Long primera = atencionService.createAtencionByPacienteID(atencion(4_000_000.0), pacienteId).getId();
+        atencionService.createAtencionByPacienteID(atencion(5_000_000.0), pacienteId);
+        Long tercera = atencionService.createAtencionByPacienteID(atencion(1_000_000.0), pacienteId).getId();
+
+        //When
+        Atencion cambio = atencion(6_000_000.0);
+        cambio.setPaciente(pacienteService.getPacienteById(pacienteId));
+        atencionService.updateAtencion(primera, cambio);
+        atencionService.deleteAtencion(tercera);
+        ResumenCostos resumen = atencionService.getResumenCostos(pacienteId);
+
+        //Then
+        assertEquals(pacienteId, resumen.getPacienteId());
+        assertEquals(2, resumen.getCantidad());
+        assertEquals(11_000_000.0, resumen.getTotal());
+        assertEquals(5_500_000.0, resumen.getPromedio());
+        assertEquals(pacienteId, atencionService.getTopPacientesPorCosto(1).get(0).getPacienteId());
+        assertNull(atencionService.getResumenCostos(pacienteId + 1_000_000));
+
+    }
+}
@@ -3,6 +3,8 @@ package com.hospital_vm.cl.hospital_vm.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -28,8 +30,8 @@ public class AtencionServiceTests {
     public void testGetAtenciones() {
         //Given
         List<Atencion> atenciones = List.of(
-            new Atencion(1L, "Consulta General", "2023-10-01", null, null, null),
-            new Atencion(2L, "Chequeo Anual", "2023-10-02", null, null, null)
+            new Atencion(1L, LocalDate.of(2023, 10, 1), LocalTime.of(9, 0), null, "Consulta General", null, null, null, null),
+            new Atencion(2L, LocalDate.of(2023, 10, 2), LocalTime.of(9, 0), null, "Chequeo Anual", null, null, null, null)
         );
 
         // When
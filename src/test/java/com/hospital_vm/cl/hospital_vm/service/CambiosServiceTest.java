@@ -0,0 +1,127 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.dto.FeedCambios;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.util.RelojCambios;
+
+/**
+ * Sin margen, para leer los cambios apenas se confirman. La base de datos es
+ * propia de esta prueba: el feed recorre todas las filas.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cambios;DB_CLOSE_DELAY=-1;MODE=MYSQL",
+        "hospital.cambios.margen=0s" })
+@ActiveProfiles("test")
+public class CambiosServiceTest {
+
+    @Autowired
+    private CambiosService cambiosService;
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Paciente crearPaciente(String run) {
+        return pacienteService.savePaciente(new Paciente(null, "Ana", "Pérez", run, "Av. Siempre Viva 742",
+                "1990-01-01", "cambios" + run + "@correo.cl", null, null, null, null, null));
+    }
+
+    @Test
+    public void testEliminacionIntercaladaConModificacionesEnElLimite() throws InterruptedException {
+
+        //Given
+        long desde = RelojCambios.siguiente();
+        Paciente primero = crearPaciente("30000004-4");
+        Paciente eliminado = crearPaciente("30000002-2");
+        Paciente tercero = crearPaciente("30000003-3");
+        pacienteService.deletePaciente(eliminado.getId());
+        Paciente cambios = new Paciente();
+        cambios.setDireccion("Los Aromos 123");
+        pacienteService.patchPaciente(primero.getId(), cambios);
+        Thread.sleep(5);
+
+        //When
+        FeedCambios<Paciente> pagina = cambiosService.getCambiosPacientes(desde, 2);
+        FeedCambios<Paciente> siguiente = cambiosService.getCambiosPacientes(pagina.getSiguiente(), 2);
+
+        //Then
+        assertEquals(List.of(tercero.getId()), pagina.getModificados().stream().map(Paciente::getId).toList());
+        assertEquals(List.of(eliminado.getId()), pagina.getEliminados());
+        assertTrue(pagina.isHayMas());
+
+        assertEquals(List.of(primero.getId()), siguiente.getModificados().stream().map(Paciente::getId).toList());
+        assertEquals("Los Aromos 123", siguiente.getModificados().get(0).getDireccion());
+        assertEquals(List.of(), siguiente.getEliminados());
+        assertFalse(siguiente.isHayMas());
+
+    }
+
+    @Test
+    public void testTokenEnElLimiteDeLaPaginaNoRepiteNiSaltaCambios() throws InterruptedException {
+
+        //Given
+        long desde = RelojCambios.siguiente();
+        Paciente primero = crearPaciente("30000011-1");
+        Paciente segundo = crearPaciente("30000012-2");
+        Thread.sleep(5);
+        FeedCambios<Paciente> completa = cambiosService.getCambiosPacientes(desde, 2);
+
+        //When
+        FeedCambios<Paciente> vacia = cambiosService.getCambiosPacientes(completa.getSiguiente(), 2);
+        Paciente tercero = crearPaciente("30000013-3");
+        Thread.sleep(5);
+        FeedCambios<Paciente> nueva = cambiosService.getCambiosPacientes(completa.getSiguiente(), 2);
+
+        //Then
+        assertEquals(List.of(primero.getId(), segundo.getId()),
+                completa.getModificados().stream().map(Paciente::getId).toList());
+        assertTrue(completa.isHayMas());
+        assertEquals(segundo.getSecuenciaCambio(), completa.getSiguiente());
+
+        assertEquals(List.of(), vacia.getModificados());
+        assertFalse(vacia.isHayMas());
+
+        assertEquals(List.of(tercero.getId()), nueva.getModificados().stream().map(Paciente::getId).toList());
+        assertFalse(nueva.isHayMas());
+
+    }
+
+    @Test
+    public void testAsignarSecuenciasPendientesNoModificaLaVersion() {
+
+        //Given
+        Paciente anterior = crearPaciente("30000021-1");
+        jdbcTemplate.update("update paciente set secuencia_cambio = 0 where id = ?", anterior.getId());
+        Long version = jdbcTemplate.queryForObject("select version from paciente where id = ?", Long.class,
+                anterior.getId());
+
+        //When
+        int actualizados = cambiosService.asignarSecuenciasPendientes();
+        FeedCambios<Paciente> todos = cambiosService.getCambiosPacientes(null, CambiosService.LIMITE_MAXIMO);
+
+        //Then
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "select version, secuencia_cambio from paciente where id = ?", anterior.getId());
+        assertEquals(1, actualizados);
+        assertEquals(version, ((Number) fila.get("version")).longValue());
+        assertEquals(-anterior.getId(), ((Number) fila.get("secuencia_cambio")).longValue());
+        assertEquals(anterior.getId(), todos.getModificados().get(0).getId());
+        assertEquals(0, cambiosService.asignarSecuenciasPendientes());
+
+    }
+}
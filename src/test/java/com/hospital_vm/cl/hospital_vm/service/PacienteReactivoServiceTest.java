@@ -0,0 +1,98 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.repository.PacienteReactivoRepository;
+
+import reactor.core.publisher.Flux;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PacienteReactivoServiceTest {
+
+    @Autowired
+    private PacienteReactivoService pacienteReactivoService;
+
+    @MockBean
+    private PacienteReactivoRepository pacienteReactivoRepository;
+
+    private Paciente crearPaciente(Long id, String nombreNormalizado, String apellidoNormalizado) {
+        Paciente paciente = new Paciente();
+        paciente.setId(id);
+        paciente.setNombreNormalizado(nombreNormalizado);
+        paciente.setApellidoNormalizado(apellidoNormalizado);
+        return paciente;
+    }
+
+    @Test
+    public void testBuscarPacientesCombinaPorRelevancia() {
+
+        //Given
+        Paciente anaAnaya = crearPaciente(5L, "ana", "anaya");
+        Paciente anabel = crearPaciente(1L, "anabel", "rojas");
+        Paciente luisAnaz = crearPaciente(4L, "luis", "anaz");
+
+        //When
+        when(pacienteReactivoRepository.buscarPorPrefijoNombre(eq("ana%"), eq("%"), anyInt()))
+                .thenReturn(Flux.just(anaAnaya, anabel));
+        when(pacienteReactivoRepository.buscarPorPrefijoApellido(eq("ana%"), eq("%"), anyInt()))
+                .thenReturn(Flux.just(anaAnaya, luisAnaz));
+
+        //Then
+        List<Paciente> result = pacienteReactivoService.buscarPacientes("Ána", 0, 10).collectList().block();
+
+        assertEquals(List.of(5L, 1L, 4L), result.stream().map(Paciente::getId).toList());
+
+    }
+
+    @Test
+    public void testBuscarPacientesPagina() {
+
+        //Given
+        Paciente anaAnaya = crearPaciente(5L, "ana", "anaya");
+        Paciente anabel = crearPaciente(1L, "anabel", "rojas");
+        Paciente luisAnaz = crearPaciente(4L, "luis", "anaz");
+
+        //When
+        when(pacienteReactivoRepository.buscarPorPrefijoNombre(eq("ana%"), eq("%"), eq(4)))
+                .thenReturn(Flux.just(anaAnaya, anabel));
+        when(pacienteReactivoRepository.buscarPorPrefijoApellido(eq("ana%"), eq("%"), eq(4)))
+                .thenReturn(Flux.just(anaAnaya, luisAnaz));
+
+        //Then
+        List<Paciente> result = pacienteReactivoService.buscarPacientes("ana", 1, 2).collectList().block();
+
+        assertEquals(List.of(4L), result.stream().map(Paciente::getId).toList());
+
+    }
+
+    @Test
+    public void testBuscarPacientesTextoVacio() {
+
+        //Given
+
+        //When
+        List<Paciente> result = pacienteReactivoService.buscarPacientes("   ", 0, 10).collectList().block();
+
+        //Then
+        assertTrue(result.isEmpty());
+        verify(pacienteReactivoRepository, never()).buscarPorPrefijoNombre(anyString(), anyString(), anyInt());
+
+    }
+}
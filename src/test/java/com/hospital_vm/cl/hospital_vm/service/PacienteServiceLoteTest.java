@@ -0,0 +1,119 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.config.SecuenciasIdInicializador;
+import com.hospital_vm.cl.hospital_vm.dto.EstadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoItemLote;
+import com.hospital_vm.cl.hospital_vm.dto.ResultadoLote;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+
+/**
+ * Carga por lotes de pacientes contra la base de datos de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class PacienteServiceLoteTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private SecuenciasIdInicializador secuenciasIdInicializador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static Paciente paciente(String run) {
+        return new Paciente(null, "Ana", "Pérez", run, "Av. Siempre Viva 742", "1990-01-01",
+                "lote" + run + "@correo.cl", null, null, null, null, null);
+    }
+
+    @Test
+    public void testSaveAllInformaCadaPacienteEnOrden() {
+
+        //Given
+        Long existenteId = pacienteService.savePaciente(paciente("40000001-1")).getId();
+        Paciente sinRun = paciente(null);
+        List<Paciente> lote = List.of(paciente("40000002-2"), paciente("40000001-1"), paciente("40000002-2"),
+                sinRun, paciente("40000003-3"));
+
+        //When
+        ResultadoLote resultado = pacienteService.saveAll(lote);
+
+        //Then
+        List<ResultadoItemLote> items = resultado.getItems();
+        assertEquals(2, resultado.getCreados());
+        assertEquals(2, resultado.getExistentes());
+        assertEquals(1, resultado.getFallidos());
+        assertEquals(EstadoItemLote.CREADO, items.get(0).getEstado());
+        assertEquals(existenteId, items.get(1).getId());
+        assertEquals(EstadoItemLote.EXISTENTE, items.get(2).getEstado());
+        assertEquals(items.get(0).getId(), items.get(2).getId());
+        assertEquals("El RUN es obligatorio", items.get(3).getError());
+        assertEquals(EstadoItemLote.CREADO, items.get(4).getEstado());
+        assertNotNull(pacienteService.getPacienteByRun("40000003-3"));
+
+    }
+
+    @Test
+    public void testSaveAllReintentaDeUnoEnUnoSiFallaElLote() {
+
+        //Given
+        Paciente demasiadoLargo = paciente("40000012-2");
+        demasiadoLargo.setNombre("A".repeat(300));
+        List<Paciente> lote = List.of(paciente("40000011-1"), demasiadoLargo, paciente("40000013-3"));
+
+        //When
+        ResultadoLote resultado = pacienteService.saveAll(lote);
+
+        //Then
+        List<ResultadoItemLote> items = resultado.getItems();
+        assertEquals(2, resultado.getCreados());
+        assertEquals(1, resultado.getFallidos());
+        assertEquals(EstadoItemLote.CREADO, items.get(0).getEstado());
+        assertEquals(EstadoItemLote.FALLIDO, items.get(1).getEstado());
+        assertNotNull(items.get(1).getError());
+        assertEquals(EstadoItemLote.CREADO, items.get(2).getEstado());
+        assertNotNull(pacienteService.getPacienteByRun("40000011-1"));
+        assertNotNull(pacienteService.getPacienteByRun("40000013-3"));
+
+    }
+
+    @Test
+    public void testSecuenciaSeAjustaAIdsHeredados() {
+
+        //Given
+        long siguiente = jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR paciente_seq", Long.class);
+        long heredado = siguiente + 10;
+        jdbcTemplate.update("INSERT INTO paciente (id, nombre, apellido, run, direccion, fecha_nacimiento, correo) "
+                + "VALUES (?, 'Ana', 'Pérez', '40000020-0', 'Av. Siempre Viva 742', '1990-01-01', "
+                + "'heredado@correo.cl')", heredado);
+
+        //When
+        secuenciasIdInicializador.afterSingletonsInstantiated();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            // Sin el ajuste, uno de estos pacientes recibiría el ID heredado
+            ids.add(pacienteService.savePaciente(paciente((40000100 + i) + "-" + (i % 10))).getId());
+        }
+
+        //Then
+        assertEquals(120, ids.stream().distinct().count());
+        assertFalse(ids.contains(heredado));
+        assertTrue(jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR paciente_seq", Long.class) > heredado);
+
+    }
+}
@@ -0,0 +1,50 @@
+package com.hospital_vm.cl.hospital_vm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Cálculo de las columnas de búsqueda de pacientes registrados antes de que
+ * existieran.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class PacienteServiceNormalizacionTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testNormalizarPendientesNoModificaLaVersionNiLaSecuencia() {
+
+        //Given
+        long id = jdbcTemplate.queryForObject("VALUES NEXT VALUE FOR paciente_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO paciente (id, nombre, apellido, run, direccion, fecha_nacimiento, correo, "
+                + "version, secuencia_cambio) VALUES (?, 'José', 'Núñez', '60000001-1', 'Av. Siempre Viva 742', "
+                + "'1990-01-01', 'normalizacion@correo.cl', 4, 123)", id);
+
+        //When
+        int actualizados = pacienteService.normalizarPendientes();
+
+        //Then
+        Map<String, Object> fila = jdbcTemplate.queryForMap("SELECT nombre_normalizado, apellido_normalizado, "
+                + "version, secuencia_cambio FROM paciente WHERE id = ?", id);
+        assertTrue(actualizados >= 1);
+        assertEquals("jose", fila.get("nombre_normalizado"));
+        assertEquals("nunez", fila.get("apellido_normalizado"));
+        assertEquals(4L, ((Number) fila.get("version")).longValue());
+        assertEquals(123L, ((Number) fila.get("secuencia_cambio")).longValue());
+
+    }
+}
@@ -1,19 +1,32 @@
 package com.hospital_vm.cl.hospital_vm.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
 import com.hospital_vm.cl.hospital_vm.model.Paciente;
 import com.hospital_vm.cl.hospital_vm.repository.PacienteRepository;
+import com.hospital_vm.cl.hospital_vm.util.Cursor;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -42,5 +55,96 @@ public class PacienteServiceTest {
         assertEquals(0, result.size());
 
     }
-    
+
+    @Test
+    public void testGetPacientesPagina() {
+
+        //Given
+
+        List<Paciente> pacientes = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Paciente paciente = new Paciente();
+            paciente.setId(id);
+            pacientes.add(paciente);
+        }
+
+        //When
+        when(pacienteRepository.findSiguientes(eq(0L), any(Pageable.class))).thenReturn(pacientes);
+
+        //Then
+        Pagina<Paciente> pagina = pacienteService.getPacientesPagina(null, 2);
+
+        assertEquals(2, pagina.getElementos().size());
+        assertNull(pagina.getCursorAnterior());
+        assertNotNull(pagina.getCursorSiguiente());
+        assertEquals(2L, Cursor.decodificar(pagina.getCursorSiguiente()).getId());
+
+    }
+
+    @Test
+    public void testBuscarPacientesPorPrefijo() {
+
+        //Given
+
+        Paciente anaya = new Paciente();
+        anaya.setId(1L);
+        anaya.setNombre("Pedro");
+        anaya.setApellido("Anaya");
+        anaya.normalizar();
+
+        Paciente ana = new Paciente();
+        ana.setId(2L);
+        ana.setNombre("Ána");
+        ana.setApellido("Pérez");
+        ana.normalizar();
+
+        //When
+        when(pacienteRepository.buscarPorPrefijoNombre(eq("ana%"), eq("%"), any(Pageable.class))).thenReturn(List.of(ana));
+        when(pacienteRepository.buscarPorPrefijoApellido(eq("ana%"), eq("%"), any(Pageable.class))).thenReturn(List.of(anaya));
+
+        //Then
+        List<Paciente> result = pacienteService.buscarPacientes("ÁNA", 0, 10);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+
+    }
+
+    @Test
+    public void testUpdatePacienteVersionNoCoincide() {
+
+        //Given
+
+        Paciente existente = new Paciente();
+        existente.setId(1L);
+        existente.setNombre("Ana");
+        existente.setVersion(3L);
+
+        Paciente cambios = new Paciente();
+        cambios.setNombre("Ana María");
+
+        //When
+        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(existente));
+
+        //Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> pacienteService.updatePaciente(1L, cambios, 2L));
+        assertEquals("Ana", existente.getNombre());
+        verify(pacienteRepository, never()).saveAndFlush(any(Paciente.class));
+
+    }
+
+    @Test
+    public void testDeletePacienteInexistente() {
+
+        //When
+        when(pacienteRepository.findById(9L)).thenReturn(Optional.empty());
+
+        //Then
+        assertFalse(pacienteService.deletePaciente(9L));
+        verify(pacienteRepository, never()).delete(any(Paciente.class));
+
+    }
+
 }
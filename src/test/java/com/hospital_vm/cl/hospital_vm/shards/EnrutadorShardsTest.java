@@ -0,0 +1,176 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.hospital_vm.cl.hospital_vm.metricas.ContadorConsultas;
+import com.hospital_vm.cl.hospital_vm.metricas.DataSourceMedido;
+
+/**
+ * Las transacciones de lectura usan un administrador simulado: solo se
+ * verifica el enrutamiento, sin bases de datos.
+ */
+public class EnrutadorShardsTest {
+
+    private final EnrutadorShards enrutador = new EnrutadorShards(mock(PlatformTransactionManager.class), 4, 4,
+            Duration.ofSeconds(5));
+
+    @AfterEach
+    public void cerrar() {
+        enrutador.cerrar();
+    }
+
+    @Test
+    public void testShardDeRunEsEstableYReparte() {
+
+        //Given
+        Set<Integer> shards = new HashSet<>();
+
+        //When
+        for (int numero = 10000000; numero < 10000100; numero++) {
+            shards.add(enrutador.shardDeRun(numero + "-5"));
+        }
+
+        //Then
+        assertEquals(enrutador.shardDeRun("12345678-k"), enrutador.shardDeRun(" 12345678-K "));
+        assertEquals(Set.of(0, 1, 2, 3), shards);
+
+    }
+
+    @Test
+    public void testShardDeIdLeeLosBitsBajosYAcotaLosInexistentes() {
+
+        //Given
+        long id = 57L << EnrutadorShards.BITS_SHARD | 3;
+
+        //When
+        int shard = enrutador.shardDeId(id);
+        int inexistente = enrutador.shardDeId(999999L);
+
+        //Then
+        assertEquals(3, shard);
+        assertTrue(inexistente >= 0 && inexistente < enrutador.getCantidad());
+        assertEquals("shard-3", EnrutadorShards.tenant(shard));
+        assertEquals(3, EnrutadorShards.shardDeTenant("shard-3"));
+        assertEquals(-1, EnrutadorShards.shardDeTenant(EnrutadorShards.GLOBAL));
+
+    }
+
+    @Test
+    public void testReunirConsultaCadaShardEnSuContexto() {
+
+        //Given
+        AtomicInteger consultas = new AtomicInteger();
+
+        //When
+        List<String> tenants = enrutador.reunir(() -> {
+            consultas.incrementAndGet();
+            return EnrutadorShards.tenantActual();
+        });
+
+        //Then
+        assertEquals(List.of("shard-0", "shard-1", "shard-2", "shard-3"), tenants);
+        assertEquals(4, consultas.get());
+        assertEquals(EnrutadorShards.GLOBAL, EnrutadorShards.tenantActual());
+
+    }
+
+    @Test
+    public void testReunirSumaLasSentenciasDeLosShardsALaSolicitud() {
+
+        //Given
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:enrutador;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = DataSourceMedido.envolver(h2, Duration.ofMinutes(1));
+
+        //When
+        int consultas;
+        ContadorConsultas.iniciar();
+        try {
+            enrutador.reunir(() -> {
+                try (Connection conexion = dataSource.getConnection();
+                        Statement sentencia = conexion.createStatement()) {
+                    return sentencia.execute("select 1");
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            consultas = ContadorConsultas.finalizar();
+        }
+
+        //Then
+        assertEquals(4, consultas);
+
+    }
+
+    @Test
+    public void testMezclarCombinaEnOrdenYRespetaElLimite() {
+
+        //Given
+        Comparator<Integer> orden = Comparator.naturalOrder();
+
+        //When
+        List<Integer> mezclados = enrutador.mezclar(() -> {
+            int shard = EnrutadorShards.shardDeTenant(EnrutadorShards.tenantActual());
+            return List.of(shard, shard + 4, shard + 8);
+        }, orden, 6);
+
+        //Then
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), mezclados);
+
+    }
+
+    @Test
+    public void testEnShardRestauraElShardAnteriorYRechazaUnoInvalido() {
+
+        //When
+        String dentro = enrutador.enShard(2, EnrutadorShards::tenantActual);
+
+        //Then
+        assertEquals("shard-2", dentro);
+        assertEquals(EnrutadorShards.GLOBAL, EnrutadorShards.tenantActual());
+        assertThrows(IllegalArgumentException.class, () -> enrutador.enShard(4, () -> null));
+
+    }
+
+    @Test
+    public void testSinShardsSeEjecutaEnElHiloActual() {
+
+        //Given
+        EnrutadorShards sinShards = new EnrutadorShards(mock(PlatformTransactionManager.class), 0, 4,
+                Duration.ofSeconds(5));
+        Thread actual = Thread.currentThread();
+
+        //When
+        List<Boolean> mismoHilo = sinShards.reunir(() -> Thread.currentThread() == actual);
+
+        //Then
+        assertFalse(sinShards.isActivo());
+        assertEquals(1, sinShards.getCantidad());
+        assertEquals(List.of(true), mismoHilo);
+        assertEquals(0, sinShards.shardDeRun("12345678-5"));
+        assertTrue(sinShards.enShardDeId(1234L, () -> EnrutadorShards.GLOBAL.equals(EnrutadorShards.tenantActual())));
+
+    }
+}
@@ -0,0 +1,134 @@
+package com.hospital_vm.cl.hospital_vm.shards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hospital_vm.cl.hospital_vm.controller.AtencionControllerV3;
+import com.hospital_vm.cl.hospital_vm.controller.PacienteControllerV3;
+import com.hospital_vm.cl.hospital_vm.dto.Pagina;
+import com.hospital_vm.cl.hospital_vm.model.Paciente;
+import com.hospital_vm.cl.hospital_vm.service.AtencionReactivaService;
+import com.hospital_vm.cl.hospital_vm.service.PacienteReactivoService;
+import com.hospital_vm.cl.hospital_vm.service.PacienteService;
+import com.hospital_vm.cl.hospital_vm.util.Cursor;
+
+/**
+ * Perfil {@code shards} con cuatro bases H2 en memoria. La base de
+ * {@code spring.datasource} es propia de esta prueba, para no recrear el
+ * esquema de la que comparten las demás pruebas.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:shardsglobal;DB_CLOSE_DELAY=-1;MODE=MYSQL")
+@ActiveProfiles({ "test", "shards" })
+public class ShardsIntegracionTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private EnrutadorShards enrutador;
+
+    @Autowired
+    private ConexionesShards conexionesShards;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    public void testPacientesSeRepartenYSeLeenDesdeTodosLosShards() {
+
+        //Given
+        List<Paciente> guardados = new ArrayList<>();
+        for (int numero = 20000000; numero < 20000012; numero++) {
+            Paciente paciente = new Paciente(null, "Fernanda", "Soto " + numero, numero + "-5", "Los Aromos 123",
+                    "1990-01-01", "paciente" + numero + "@correo.cl", null, null, null, null, null);
+            guardados.add(pacienteService.savePaciente(paciente));
+        }
+        List<Long> ids = guardados.stream().map(Paciente::getId).sorted().toList();
+
+        //When
+        Paciente porId = pacienteService.getPacienteById(guardados.get(5).getId());
+        Paciente porRun = pacienteService.getPacienteByRun(guardados.get(7).getRun());
+        Map<Long, Paciente> porIds = pacienteService.getPacientesByIds(ids);
+
+        List<Long> paginados = new ArrayList<>();
+        Pagina<Paciente> pagina = pacienteService.getPacientesPagina(null, 5);
+        paginados.addAll(pagina.getElementos().stream().map(Paciente::getId).toList());
+        while (pagina.getCursorSiguiente() != null) {
+            pagina = pacienteService.getPacientesPagina(Cursor.decodificar(pagina.getCursorSiguiente()), 5);
+            paginados.addAll(pagina.getElementos().stream().map(Paciente::getId).toList());
+        }
+        Pagina<Paciente> anterior = pacienteService.getPacientesPagina(Cursor.decodificar(pagina.getCursorAnterior()),
+                5);
+
+        List<Paciente> encontrados = pacienteService.buscarPacientes("fernanda", 0, 20);
+        List<Paciente> segundaPagina = pacienteService.buscarPacientes("fernanda", 1, 5);
+
+        //Then
+        Set<Integer> shardsUsados = new HashSet<>();
+        for (Paciente paciente : guardados) {
+            int shard = enrutador.shardDeRun(paciente.getRun());
+            shardsUsados.add(shard);
+            assertEquals(shard, enrutador.shardDeId(paciente.getId()));
+        }
+        assertEquals(Set.of(0, 1, 2, 3), shardsUsados);
+
+        int filas = 0;
+        for (int shard = 0; shard < enrutador.getCantidad(); shard++) {
+            filas += new JdbcTemplate(conexionesShards.getShards().get(shard))
+                    .queryForObject("select count(*) from paciente", Integer.class);
+        }
+        assertEquals(12, filas);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from paciente", Integer.class));
+
+        assertNotNull(porId);
+        assertEquals(guardados.get(5).getRun(), porId.getRun());
+        assertEquals(guardados.get(7).getId(), porRun.getId());
+        assertNull(pacienteService.getPacienteById(999999L));
+        assertEquals(Set.copyOf(ids), porIds.keySet());
+
+        assertEquals(ids, paginados);
+        assertEquals(ids.subList(5, 10), anterior.getElementos().stream().map(Paciente::getId).toList());
+
+        // Todos coinciden con el mismo nombre: se ordenan por ID
+        assertEquals(ids, encontrados.stream().map(Paciente::getId).toList());
+        assertEquals(ids.subList(5, 10), segundaPagina.stream().map(Paciente::getId).toList());
+        assertTrue(pacienteService.buscarPacientes("inexistente", 0, 20).isEmpty());
+
+    }
+
+    @Test
+    public void testApiV3NoSeRegistraConShards() {
+
+        //Given
+        Class<?>[] componentesV3 = { PacienteControllerV3.class, AtencionControllerV3.class,
+                PacienteReactivoService.class, AtencionReactivaService.class };
+
+        //When
+        List<String> registrados = new ArrayList<>();
+        for (Class<?> componente : componentesV3) {
+            registrados.addAll(List.of(applicationContext.getBeanNamesForType(componente)));
+        }
+
+        //Then
+        assertEquals(List.of(), registrados);
+
+    }
+}
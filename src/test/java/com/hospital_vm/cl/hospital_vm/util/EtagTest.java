@@ -0,0 +1,48 @@
+package com.hospital_vm.cl.hospital_vm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.hospital_vm.cl.hospital_vm.dto.ResumenVersiones;
+
+public class EtagTest {
+
+    @Test
+    public void testIfMatchSoloAceptaEtagsFuertes() {
+
+        //Given
+        String fuerte = "\"3\"";
+        String debil = "W/\"3\"";
+
+        //When
+        Long versionFuerte = Etag.versionEsperada(fuerte);
+        Long versionDebil = Etag.versionEsperada(debil);
+
+        //Then
+        assertEquals(3L, versionFuerte);
+        assertEquals(Etag.VERSION_INVALIDA, versionDebil);
+        assertNull(Etag.versionEsperada("*"));
+        assertNull(Etag.versionEsperada(null));
+
+    }
+
+    @Test
+    public void testResumenesConSumasCompensadasTienenDistintoEtag() {
+
+        //Given
+        // Una atención sale del rango y entra otra con un ID y una versión que compensan las sumas
+        ResumenVersiones antes = new ResumenVersiones(2L, 30L, 4L, 1_000L, 900L);
+        ResumenVersiones despues = new ResumenVersiones(2L, 30L, 4L, 1_500L, 900L);
+
+        //When
+        String etagAntes = Etag.deResumen(antes);
+        String etagDespues = Etag.deResumen(despues);
+
+        //Then
+        assertNotEquals(etagAntes, etagDespues);
+
+    }
+}